@@ -0,0 +1,55 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Represents the allocator of flashcard ids.
+ * Ids are positive longs handed out in increasing order without locking, so flashcards can
+ * be created from any thread. Ids read back from a saved deck are reserved so that cards
+ * created later never reuse them.
+ * We use the Singleton Design Pattern to ensure that there is only one allocator in the system.
+ */
+public class CardIdAllocator {
+    /**
+     * the only CardIdAllocator in the system (Singleton Design Pattern)
+     */
+    private static final CardIdAllocator theAllocator = new CardIdAllocator();
+    private final AtomicLong nextId;
+
+    /**
+     * Prevent external construction.
+     * (Singleton Design Pattern).
+     */
+    private CardIdAllocator() {
+        nextId = new AtomicLong(1);
+    }
+
+    /**
+     * Gets instance of CardIdAllocator.
+     * (Singleton Design Pattern)
+     *
+     * @return instance of CardIdAllocator
+     */
+    public static CardIdAllocator getInstance() {
+        return theAllocator;
+    }
+
+    /**
+     * Allocates an id that has not been allocated or reserved before.
+     *
+     * @return the allocated id
+     */
+    public long allocate() {
+        return nextId.getAndIncrement();
+    }
+
+    /**
+     * Reserves an id that is already in use (for example, one read from file) so that it
+     * is never allocated to another card.
+     *
+     * @param id the id to be reserved
+     */
+    public void reserve(long id) {
+        nextId.accumulateAndGet(id + 1, Math::max);
+    }
+}
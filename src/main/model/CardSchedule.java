@@ -0,0 +1,103 @@
+package model;
+
+import org.json.JSONObject;
+import persistence.Writable;
+
+/*
+Represents the spaced-repetition schedule of one flashcard, following the SM-2 algorithm.
+Each card has an ease factor, the interval (in days) until it should next be reviewed, the
+number of times in a row it has been answered correctly, and the time it is next due.
+Answering a card correctly pushes its next review further into the future; answering it
+incorrectly brings it back soon and makes its intervals grow more slowly.
+ */
+public class CardSchedule implements Writable {
+    public static final double INITIAL_EASE = 2.5;
+    public static final double MINIMUM_EASE = 1.3;
+    public static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    public static final long RETRY_MILLIS = 10L * 60 * 1000;
+    private final long cardId;
+    private double ease;
+    private int intervalDays;
+    private int repetitions;
+    private long due;
+
+    // Effects: creates the schedule of a card that has never been reviewed; the card is due
+    // immediately
+    public CardSchedule(long cardId) {
+        this(cardId, INITIAL_EASE, 0, 0, 0);
+    }
+
+    // Requires: ease >= MINIMUM_EASE, intervalDays >= 0, repetitions >= 0
+    // Effects: creates the schedule of a card with the given state (for example, one read
+    // from file); due is the time in milliseconds since the epoch the card is next due
+    public CardSchedule(long cardId, double ease, int intervalDays, int repetitions, long due) {
+        this.cardId = cardId;
+        this.ease = ease;
+        this.intervalDays = intervalDays;
+        this.repetitions = repetitions;
+        this.due = due;
+    }
+
+    // Modifies: this
+    // Effects: updates the schedule after the card was reviewed at time now. If correct, the
+    // card is next due after 1 day, then 6 days, then its previous interval times its ease,
+    // and its ease grows. Otherwise, the card is due again in RETRY_MILLIS, its run of correct
+    // answers starts over, and its ease shrinks (never below MINIMUM_EASE).
+    public void review(boolean correct, long now) {
+        if (correct) {
+            repetitions++;
+            if (repetitions == 1) {
+                intervalDays = 1;
+            } else if (repetitions == 2) {
+                intervalDays = 6;
+            } else {
+                intervalDays = (int) Math.round(intervalDays * ease);
+            }
+            ease += 0.1;
+            due = now + intervalDays * DAY_MILLIS;
+        } else {
+            repetitions = 0;
+            intervalDays = 0;
+            ease = Math.max(MINIMUM_EASE, ease - 0.2);
+            due = now + RETRY_MILLIS;
+        }
+    }
+
+    // Modifies: this
+    // Effects: sets the time the card is next due without changing the rest of its schedule
+    void setDue(long due) {
+        this.due = due;
+    }
+
+    // Effects: returns the schedule as a JSON object
+    @Override
+    public JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        json.put("id", cardId);
+        json.put("ease", ease);
+        json.put("interval", intervalDays);
+        json.put("repetitions", repetitions);
+        json.put("due", due);
+        return json;
+    }
+
+    public long getCardId() {
+        return cardId;
+    }
+
+    public double getEase() {
+        return ease;
+    }
+
+    public int getIntervalDays() {
+        return intervalDays;
+    }
+
+    public int getRepetitions() {
+        return repetitions;
+    }
+
+    public long getDue() {
+        return due;
+    }
+}
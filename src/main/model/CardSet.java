@@ -0,0 +1,98 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/*
+Represents an immutable snapshot of the flashcards in a deck at one point in time. A card set
+never changes once created, so any number of quiz sessions can share one card set without
+copying it. Cards are identified within the set by their position. The set reads the deck's
+live view of its cards until the deck is first changed, when the deck has the set copy them.
+ */
+public class CardSet {
+    private final String name;
+    private volatile List<Flashcard> cards;
+    private final Map<Long, Integer> positions;
+    private final List<Flashcard> view;
+
+    // Effects: creates a card set of the cards currently in deck, in order, that reads them from
+    // the deck's live view until the deck asks it to detach
+    CardSet(Deck deck) {
+        this.name = deck.getName();
+        this.cards = deck.getCardView();
+        this.positions = new HashMap<>();
+        for (int i = 0; i < cards.size(); i++) {
+            positions.put(cards.get(i).getIdNumber(), i);
+        }
+        this.view = new AbstractList<>() {
+            @Override
+            public Flashcard get(int index) {
+                return cards.get(index);
+            }
+
+            @Override
+            public int size() {
+                return cards.size();
+            }
+        };
+    }
+
+    // Requires: the deck has not been changed since this set was made
+    // Modifies: this
+    // Effects: copies the cards out of the deck's live view, so the set keeps them when the deck
+    // is changed. Called by the deck just before it changes its list of cards.
+    void detach() {
+        cards = List.copyOf(cards);
+    }
+
+    // Requires: 0 <= position < size()
+    // Effects: returns the card at position
+    public Flashcard get(int position) {
+        return cards.get(position);
+    }
+
+    // Effects: returns the position of the card with the given id, or -1 if it is not in the set
+    public int indexOf(String cardID) {
+        Long id = Deck.parseId(cardID);
+        return id == null ? -1 : indexOf(id.longValue());
+    }
+
+    // Effects: returns the position of the card with the given id, or -1 if it is not in the set
+    public int indexOf(long cardId) {
+        return positions.getOrDefault(cardId, -1);
+    }
+
+    // Effects: returns an iterator over the positions of the cards in the set, in the order the
+    // cards were added to the deck if random = false, or in a lazily generated random order
+    public PrimitiveIterator.OfInt order(boolean random) {
+        if (random) {
+            return shuffledOrder(new Random().nextLong());
+        }
+        return IntStream.range(0, cards.size()).iterator();
+    }
+
+    // Effects: returns an iterator over the positions of the cards in the set in a random order
+    // generated lazily from seed
+    public ShuffledOrder shuffledOrder(long seed) {
+        return new ShuffledOrder(cards.size(), seed);
+    }
+
+    // Effects: returns the cards in the set as an unmodifiable list, which keeps holding them after
+    // the deck is changed
+    public List<Flashcard> getCards() {
+        return view;
+    }
+
+    public int size() {
+        return cards.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,10 @@
+package model;
+
+// Interface representing an object that is notified when the quiz state of a flashcard
+// (viewed or correct) changes
+public interface CardStateListener {
+
+    // Effects: responds to card changing from its previous viewed and correct state
+    // (wasViewed, wasCorrect) to its current state
+    void cardStateChanged(Flashcard card, boolean wasViewed, boolean wasCorrect);
+}
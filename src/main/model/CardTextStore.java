@@ -0,0 +1,14 @@
+package model;
+
+// Interface representing storage that holds the front and back text of flashcards outside
+// of the flashcard objects. Each card's text is identified by a handle issued by the store.
+public interface CardTextStore {
+
+    // Requires: handle was issued by this store
+    // Effects: returns the front text stored under handle
+    String getFront(long handle);
+
+    // Requires: handle was issued by this store
+    // Effects: returns the back text stored under handle
+    String getBack(long handle);
+}
@@ -5,47 +5,190 @@ import org.json.JSONObject;
 import persistence.Writable;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 /*
 Represents a deck of flashcards. Decks contain a name and a list of the flashcards
 they store. The flashcards in the deck can be returned in the order they were added
 or in a random order. Statistics on deck correctness and completion can be calculated.
+Cards are indexed by their normalized content so that duplicates are detected in constant
+time; the deck's duplicate policy decides whether duplicates are rejected, merged or allowed.
+Cards are also indexed by id so they can be looked up and removed without scanning the deck.
+The deck listens to its cards so that viewed and correct counts are kept up to date as cards change.
+In compact state mode, the quiz state of every card is stored in a deck-level QuizState. In
+text arena mode, the text of every card is kept off the heap in a TextArena.
  */
-public class Deck implements Writable {
+public class Deck implements Writable, CardStateListener {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
     private String name;
-    private List<Flashcard> flashcards;
+    private ArrayList<Flashcard> flashcards;
+    private List<Flashcard> cardView;
+    private final DuplicatePolicy duplicatePolicy;
+    private Map<Long, List<Flashcard>> contentIndex;
+    private Map<Long, Integer> positions;
+    private int numberViewed;
+    private int numberCorrect;
+    private int modCount;
+    private volatile int changeCount;
+    private final AtomicInteger savedChangeCount = new AtomicInteger();
+    private QuizState compactState;
+    private CardSet cardSet;
+    private TextArena textArena;
+    private ReviewScheduler scheduler;
+    private SearchIndex searchIndex;
+    private final List<DeckChangeListener> changeListeners = new ArrayList<>();
 
     // Requires: name must be a non-empty string
     // Effects: Creates a flashcard deck with the specified name and an empty
-    // list of flashcards.
+    // list of flashcards. Duplicate cards are rejected.
     public Deck(String name) {
+        this(name, DuplicatePolicy.REJECT);
+    }
+
+    // Requires: name must be a non-empty string, duplicatePolicy must not be null
+    // Effects: Creates a flashcard deck with the specified name and an empty
+    // list of flashcards that handles duplicate cards according to duplicatePolicy.
+    public Deck(String name, DuplicatePolicy duplicatePolicy) {
         this.name = name;
+        this.duplicatePolicy = duplicatePolicy;
         flashcards = new ArrayList<>();
+        cardView = Collections.unmodifiableList(flashcards);
+        contentIndex = new HashMap<>();
+        positions = new HashMap<>();
     }
 
     // Requires: flashcard must not be null
     // Modifies: this
     // Effects: Adds flashcard to deck and returns true if the flashcard has not already
-    // been added. Duplicate cards are not allowed. If the flashcard has already been added,
-    // returns false.
+    // been added. The same card (or another card with the same id) can never be added twice.
+    // If a card with the same content is already in the deck, the card is only added if the
+    // duplicate policy is ALLOW; if the policy is MERGE, the card's quiz progress is merged
+    // into the matching card. Returns false if the flashcard was not added.
     public boolean addCard(Flashcard card) {
-        if (!flashcards.contains(card)) {
-            flashcards.add(card);
+        Flashcard result = insert(card);
+        if (result == card) {
             EventLog.getInstance().logEvent(new Event("Added Flashcard to " + this.name + "\n" + card));
             return true;
         }
+        if (result != null) {
+            EventLog.getInstance().logEvent(new Event("Merged duplicate Flashcard into " + this.name
+                    + "\n" + result));
+        }
         return false;
     }
 
+    // Requires: cards must not contain null
+    // Modifies: this
+    // Effects: Adds each card in cards to the deck in order, exactly as addCard would, including
+    // duplicates within cards themselves, and returns the number of cards added. Storage for the
+    // new cards is reserved up front, and a single event summarizing the whole batch is logged
+    // instead of one event per card.
+    public int addAll(Collection<Flashcard> cards) {
+        reserve(cards.size());
+        int added = 0;
+        int merged = 0;
+        for (Flashcard card : cards) {
+            Flashcard result = insert(card);
+            if (result == card) {
+                added++;
+            } else if (result != null) {
+                merged++;
+            }
+        }
+        EventLog.getInstance().logEvent(new Event("Added " + added + " of " + cards.size() + " Flashcards to "
+                + this.name + (merged > 0 ? " (" + merged + " duplicates merged)" : "")));
+        return added;
+    }
+
+    // Requires: flashcard must not be null
+    // Modifies: this
+    // Effects: adds card to the deck following the rules of addCard, without logging an event.
+    // Returns card if it was added, the matching card if card was merged into it, or null if card
+    // was not added.
+    private Flashcard insert(Flashcard card) {
+        if (positions.containsKey(card.getIdNumber())) {
+            return null;
+        }
+        String key = contentKey(card);
+        List<Flashcard> bucket = contentIndex.computeIfAbsent(contentHash(key), k -> new ArrayList<>(1));
+        Flashcard match = duplicatePolicy == DuplicatePolicy.ALLOW ? null : findContent(bucket, key);
+        if (match != null) {
+            if (duplicatePolicy == DuplicatePolicy.MERGE) {
+                match.mergeProgress(card);
+                return match;
+            }
+            return null;
+        }
+        bucket.add(card);
+        append(card);
+        return card;
+    }
+
+    // Modifies: this
+    // Effects: makes room for additional more cards in the list of cards and the id and content
+    // indexes, so they are not resized again and again while the cards are added. The indexes
+    // are only rebuilt when more cards are coming than are already in the deck.
+    private void reserve(int additional) {
+        int expected = flashcards.size() + additional;
+        flashcards.ensureCapacity(expected);
+        if (additional > positions.size()) {
+            int capacity = (int) (expected / 0.75f) + 1;
+            Map<Long, Integer> newPositions = new HashMap<>(capacity);
+            newPositions.putAll(positions);
+            positions = newPositions;
+            Map<Long, List<Flashcard>> newContentIndex = new HashMap<>(capacity);
+            newContentIndex.putAll(contentIndex);
+            contentIndex = newContentIndex;
+        }
+    }
+
+    // Requires: card is not in the deck and has already been added to the content index
+    // Modifies: this
+    // Effects: adds card to the end of the deck, indexes it by id, and starts listening to it
+    private void append(Flashcard card) {
+        releaseCardSet();
+        positions.put(card.getIdNumber(), flashcards.size());
+        flashcards.add(card);
+        card.addStateListener(this);
+        cardStateChanged(card, false, false);
+        if (compactState != null) {
+            card.bindState(compactState, compactState.add(false, false, false));
+        }
+        if (textArena != null) {
+            card.moveText(textArena, textArena.add(card.getFront(), card.getBack()));
+        }
+        if (scheduler != null) {
+            scheduler.addCard(card.getIdNumber());
+        }
+        if (searchIndex != null) {
+            searchIndex.add(card);
+        }
+        modCount++;
+        changeCount++;
+        for (DeckChangeListener listener : changeListeners) {
+            listener.cardAdded(this, card);
+        }
+    }
+
     // Requires: flashcard must not be null
     // Modifies: this
     // Effects: Removes flashcard from deck and returns true. If flashcard is not in deck,
     // returns false.
     public boolean removeCard(Flashcard card) {
-        EventLog.getInstance().logEvent(new Event("Deleted Flashcard from " + this.name + "\n" + card));
-        return this.flashcards.remove(card);
+        return contains(card) && removeCards(Collections.singletonList(card.getId())) == 1;
     }
 
     // Modifies: this
@@ -53,12 +196,165 @@ public class Deck implements Writable {
     // corresponding id is found, flashcard is removed from deck and true is returned.
     // Otherwise, returns false.
     public boolean removeCard(String cardID) {
-        for (Flashcard flashcard: flashcards) {
-            if (cardID.equals(flashcard.getId())) {
-                return removeCard(flashcard);
+        Flashcard card = getCard(cardID);
+        return card != null && removeCard(card);
+    }
+
+    // Modifies: this
+    // Effects: Removes every flashcard whose id is in cardIDs in a single pass over the deck,
+    // keeping the remaining cards in their original order. Ids that are not in the deck are
+    // ignored. Returns the number of cards removed.
+    public int removeCards(Collection<String> cardIDs) {
+        Set<Long> toRemove = idsInDeck(cardIDs);
+        if (!toRemove.isEmpty()) {
+            releaseCardSet();
+        }
+        int firstPosition = flashcards.size();
+        for (long id : toRemove) {
+            firstPosition = Math.min(firstPosition, positions.get(id));
+        }
+        int kept = firstPosition;
+        for (int i = firstPosition; i < flashcards.size(); i++) {
+            Flashcard card = flashcards.get(i);
+            if (toRemove.contains(card.getIdNumber())) {
+                unindex(card);
+            } else {
+                moveCard(i, kept);
+                kept++;
             }
         }
-        return false;
+        truncate(kept);
+        return toRemove.size();
+    }
+
+    // Requires: the cards at positions >= size have been unindexed
+    // Modifies: this
+    // Effects: drops the cards at positions >= size from the deck, and frees the text arena of
+    // released text if most of it is released
+    private void truncate(int size) {
+        flashcards.subList(size, flashcards.size()).clear();
+        if (compactState != null) {
+            compactState.truncate(size);
+        }
+        compactTextArena();
+    }
+
+    // Modifies: this
+    // Effects: switches the deck to compact state mode. From now on the quiz state of every
+    // card in the deck is stored in a deck-level QuizState instead of in each card. Cards keep
+    // their state when they are removed from the deck. Does nothing if already in compact mode.
+    public void useCompactState() {
+        if (compactState == null) {
+            compactState = new QuizState(0);
+            for (Flashcard card : flashcards) {
+                card.bindState(compactState, compactState.add(false, false, false));
+            }
+        }
+    }
+
+    // Effects: returns true if the deck is in compact state mode
+    public boolean isCompactState() {
+        return compactState != null;
+    }
+
+    // Requires: cards in this deck are not also in another deck in text arena mode
+    // Modifies: this
+    // Effects: switches the deck to text arena mode. From now on the front and back text of
+    // every card in the deck is stored off the heap in a TextArena and decoded when it is
+    // read. Cards take their text back onto the heap when they are removed from the deck.
+    // Does nothing if already in text arena mode.
+    public void useTextArena() {
+        if (textArena == null) {
+            textArena = new TextArena();
+            for (Flashcard card : flashcards) {
+                card.moveText(textArena, textArena.add(card.getFront(), card.getBack()));
+            }
+        }
+    }
+
+    // Modifies: this
+    // Effects: if the deck is in text arena mode and most of its arena holds text of removed cards,
+    // moves the text of every card into a new arena so the old one can be freed
+    private void compactTextArena() {
+        if (textArena == null || !textArena.isMostlyReleased()) {
+            return;
+        }
+        TextArena fresh = textArena.emptyCopy();
+        for (Flashcard card : flashcards) {
+            card.moveText(fresh, fresh.add(card.getFront(), card.getBack()));
+        }
+        textArena = fresh;
+    }
+
+    // Effects: returns true if the deck is in text arena mode
+    public boolean isTextArena() {
+        return textArena != null;
+    }
+
+    // Effects: returns an estimate of the number of bytes of heap used by the front and back
+    // text of the cards in this deck. Text kept in a text arena is not counted, and text
+    // shared between cards is counted once for each card.
+    public long getHeapTextBytes() {
+        long bytes = 0;
+        for (Flashcard card : flashcards) {
+            if (card.getTextStore() == null) {
+                bytes += TextPool.estimateSize(card.getFront()) + TextPool.estimateSize(card.getBack());
+            }
+        }
+        return bytes;
+    }
+
+    // Effects: returns the number of bytes of off-heap memory reserved for the text of the cards
+    // in this deck, or 0 if the deck is not in text arena mode
+    public long getOffHeapTextBytes() {
+        return textArena == null ? 0 : textArena.getReservedBytes();
+    }
+
+    // Effects: returns the number of bytes of off-heap memory holding the text of cards that are
+    // still in this deck, or 0 if the deck is not in text arena mode
+    public long getOffHeapTextUsedBytes() {
+        return textArena == null ? 0 : textArena.getUsedBytes();
+    }
+
+    // Effects: returns the flashcard in the deck with the given id, or null if there is none
+    public Flashcard getCard(String cardID) {
+        Integer position = positions.get(parseId(cardID));
+        return position == null ? null : flashcards.get(position);
+    }
+
+    // Effects: returns true if this exact flashcard is in the deck
+    public boolean contains(Flashcard card) {
+        Integer position = positions.get(card.getIdNumber());
+        return position != null && flashcards.get(position) == card;
+    }
+
+    // Effects: returns the ids in cardIDs that belong to cards in the deck
+    private Set<Long> idsInDeck(Collection<String> cardIDs) {
+        Set<Long> ids = new HashSet<>();
+        for (String cardID : cardIDs) {
+            Long id = parseId(cardID);
+            if (positions.containsKey(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    // Effects: returns the card id represented by cardID, or null if cardID is not a valid id
+    static Long parseId(String cardID) {
+        try {
+            return Long.valueOf(cardID.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Effects: returns true if a card with the same content as card (ignoring case and
+    // surrounding/repeated whitespace) is in the deck
+    public boolean containsContent(Flashcard card) {
+        String key = contentKey(card);
+        List<Flashcard> bucket = contentIndex.get(contentHash(key));
+        return bucket != null && findContent(bucket, key) != null;
     }
 
     // Effects: Returns the number of flashcards in the deck
@@ -68,23 +364,17 @@ public class Deck implements Writable {
 
     // Effects: Returns the number of cards in the deck that were marked as correct
     public int getNumberCorrect() {
-        int correct = 0;
-        for (Flashcard flashcard: flashcards) {
-            if (flashcard.isCorrect()) {
-                correct++;
-            }
-        }
-        return correct;
+        return numberCorrect;
     }
 
     // Effects: Returns the percentage (0-100) of viewed cards in the deck that
     // were marked as correct. If no cards have been viewed, 0 is returned. A card
     // is considered viewed if it has been flipped at least once.
     public double getPercentCorrect() {
-        if (getNumberViewed() == 0) {
+        if (numberViewed == 0) {
             return 0;
         } else {
-            return ((double) getNumberCorrect() / getNumberViewed()) * 100;
+            return ((double) numberCorrect / numberViewed) * 100;
         }
     }
 
@@ -92,13 +382,7 @@ public class Deck implements Writable {
     // A card is considered viewed if it has been flipped at least once. If there are no
     // cards in the deck, 0 is returned.
     public int getNumberViewed() {
-        int viewed = 0;
-        for (Flashcard flashcard: flashcards) {
-            if (flashcard.isViewed()) {
-                viewed++;
-            }
-        }
-        return viewed;
+        return numberViewed;
     }
 
     // Effects: Returns the percentage (0-100) of cards in the deck that were viewed.
@@ -108,10 +392,18 @@ public class Deck implements Writable {
         if (flashcards.size() == 0) {
             return 0;
         }
-        int viewed = getNumberViewed();
-        EventLog.getInstance().logEvent(new Event("Flipped " + viewed
+        EventLog.getInstance().logEvent(new Event("Flipped " + numberViewed
                 + " of " + flashcards.size() + " cards in " + name));
-        return ((double) viewed / flashcards.size()) * 100;
+        return ((double) numberViewed / flashcards.size()) * 100;
+    }
+
+    // Modifies: this
+    // Effects: updates the viewed and correct counts of the deck when a card in the deck
+    // changes from its previous state (wasViewed, wasCorrect) to its current state
+    @Override
+    public void cardStateChanged(Flashcard card, boolean wasViewed, boolean wasCorrect) {
+        numberViewed += Boolean.compare(card.isViewed(), wasViewed);
+        numberCorrect += Boolean.compare(card.isCorrect(), wasCorrect);
     }
 
     // Effects: Returns the list of flashcards. Flashcards are returned in the same order
@@ -125,10 +417,173 @@ public class Deck implements Writable {
         return flashcardsCopy;
     }
 
+    // Effects: Returns an unmodifiable, live view of the flashcards in the order they were added
+    // to the deck. No copy is made; the view reflects any later changes to the deck.
+    public List<Flashcard> getCardView() {
+        return cardView;
+    }
+
+    // Effects: Returns an immutable snapshot of the flashcards currently in the deck, in the
+    // order they were added. The snapshot is shared: the same card set is returned until cards
+    // are added to or removed from the deck, so quiz sessions started on an unchanged deck do
+    // not copy it. The set reads the deck's live list of cards, and only copies it if the deck
+    // is changed while the set is still in use.
+    public CardSet getCardSet() {
+        if (cardSet == null) {
+            cardSet = new CardSet(this);
+        }
+        return cardSet;
+    }
+
+    // Modifies: this
+    // Effects: has the current card set, if any, copy the cards it reads from the deck before the
+    // list of cards is changed, and stops returning it from getCardSet
+    private void releaseCardSet() {
+        if (cardSet != null) {
+            cardSet.detach();
+            cardSet = null;
+        }
+    }
+
+    // Effects: Returns the spaced-repetition scheduler of the deck, creating it on first use.
+    // Cards that have never been reviewed are due immediately. The scheduler is kept up to date
+    // as cards are added to and removed from the deck.
+    public ReviewScheduler getScheduler() {
+        if (scheduler == null) {
+            scheduler = new ReviewScheduler(this::scheduleChanged);
+            for (Flashcard card : flashcards) {
+                scheduler.addCard(card.getIdNumber());
+            }
+        }
+        return scheduler;
+    }
+
+    // Effects: Returns the cards whose front or back have a word starting with each word in query,
+    // ignoring case, in the order the cards were created. Returns no cards if query has no words.
+    // The search index is built on the first search and kept up to date as cards are added to and
+    // removed from the deck.
+    public List<Flashcard> search(String query) {
+        if (searchIndex == null) {
+            searchIndex = new SearchIndex();
+            for (Flashcard card : flashcards) {
+                searchIndex.add(card);
+            }
+        }
+        long[] ids = searchIndex.search(query);
+        List<Flashcard> found = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            found.add(flashcards.get(positions.get(id)));
+        }
+        return found;
+    }
+
+    // Modifies: this
+    // Effects: Adds listener to be notified when cards are added to or removed from the deck, or
+    // when the review schedule of a card changes
+    public void addChangeListener(DeckChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    // Modifies: this
+    // Effects: Stops notifying listener of changes to the deck
+    public void removeChangeListener(DeckChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    // Effects: Notifies change listeners that the review schedule of a card has changed
+    private void scheduleChanged(CardSchedule schedule) {
+        changeCount++;
+        for (DeckChangeListener listener : changeListeners) {
+            listener.scheduleChanged(this, schedule);
+        }
+    }
+
+    // Effects: Returns the number of changes made to the saved content of the deck since it was
+    // created: cards added or removed, and review schedules changed
+    public int getChangeCount() {
+        return changeCount;
+    }
+
+    // Effects: Returns true if changes have been made to the saved content of the deck since it was
+    // last saved, or since it was created if it has never been saved
+    public boolean isDirty() {
+        return changeCount != savedChangeCount.get();
+    }
+
+    // Modifies: this
+    // Effects: Records that every change made to the deck so far has been saved
+    public void markSaved() {
+        markSaved(changeCount);
+    }
+
+    // Requires: changeCount <= getChangeCount()
+    // Modifies: this
+    // Effects: Records that the first changeCount changes made to the deck have been saved. May be
+    // called from any thread, for example by a thread saving the deck in the background; a save
+    // that finishes after a later one does not mark the later changes unsaved again.
+    public void markSaved(int changeCount) {
+        savedChangeCount.accumulateAndGet(changeCount, Math::max);
+    }
+
+    // Effects: Returns true if the deck's scheduler has been used
+    public boolean hasScheduler() {
+        return scheduler != null;
+    }
+
+    // Effects: Returns the number of cards that have been answered correctly at least once since
+    // they were last answered incorrectly
+    public int getLearnedCount() {
+        return scheduler == null ? 0 : scheduler.countLearned();
+    }
+
+    // Effects: Returns the time (in milliseconds since the epoch) the next card in the deck is due
+    // for review, or Long.MAX_VALUE if the deck has no cards
+    public long getNextDue() {
+        if (scheduler == null) {
+            return flashcards.isEmpty() ? Long.MAX_VALUE : 0;
+        }
+        return scheduler.getNextDue();
+    }
+
+    // Requires: offset >= 0 and limit > 0
+    // Effects: Returns a read-only page of at most limit flashcards starting at position offset,
+    // in the order they were added to the deck. The page is a view; no cards are copied.
+    public DeckPage page(int offset, int limit) {
+        return new DeckPage(this, offset, limit);
+    }
+
+    // Effects: Returns an iterator over the flashcards in the order they were added to the deck
+    // if random = false. Otherwise, returns an iterator over the flashcards in a random order
+    // that is generated lazily as cards are drawn. No copy of the deck is made. The iterator
+    // throws ConcurrentModificationException if cards are added or removed while it is in use.
+    public Iterator<Flashcard> getFlashcardIterator(boolean random) {
+        if (random) {
+            return shuffledIterator(new Random().nextLong());
+        }
+        return new DeckIterator(IntStream.range(0, flashcards.size()).iterator());
+    }
+
+    // Effects: Returns an iterator over the flashcards in a random order generated lazily from
+    // seed; iterators created from the same seed over the same deck return cards in the same
+    // order. The iterator throws ConcurrentModificationException if cards are added or removed
+    // while it is in use.
+    public Iterator<Flashcard> shuffledIterator(long seed) {
+        return new DeckIterator(new ShuffledOrder(flashcards.size(), seed));
+    }
+
+    // Requires: in compact state mode, cards in this deck are not also in another deck
     // Modifies: this
     // Effects: resets all the cards in the deck to their initial state
-    // (not flipped, not viewed, not correct)
+    // (not flipped, not viewed, not correct), notifying the listeners of each card whose state
+    // changed. In compact state mode, only the cards marked viewed or correct are visited.
     public void resetDeck() {
+        if (compactState != null) {
+            for (int i = compactState.nextMarked(0); i >= 0; i = compactState.nextMarked(i + 1)) {
+                flashcards.get(i).resetCard();
+            }
+            compactState.clear();
+            return;
+        }
         for (Flashcard flashcard: this.flashcards) {
             flashcard.resetCard();
         }
@@ -138,15 +593,36 @@ public class Deck implements Writable {
         return name;
     }
 
-    // Effects: returns the deck as a JSON object
+    public DuplicatePolicy getDuplicatePolicy() {
+        return duplicatePolicy;
+    }
+
+    // Effects: returns the deck as a JSON object. The number of cards and review stats are
+    // included so they can be read without reading the cards. The review schedule is included
+    // if the deck's scheduler has been used.
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
         json.put("name", this.name);
+        json.put("cardCount", flashcards.size());
+        json.put("learnedCount", getLearnedCount());
+        json.put("nextDue", getNextDue());
         json.put("flashcards", flashcardsToJson());
+        if (scheduler != null) {
+            json.put("schedule", scheduleToJson());
+        }
         return json;
     }
 
+    // Effects: returns the review schedules of the cards in this deck as a JSON array
+    private JSONArray scheduleToJson() {
+        JSONArray jsonArray = new JSONArray();
+        for (CardSchedule schedule : scheduler.getSchedules()) {
+            jsonArray.put(schedule.toJson());
+        }
+        return jsonArray;
+    }
+
     // Effects: returns flashcards in this deck as a JSON array
     private JSONArray flashcardsToJson() {
         JSONArray jsonArray = new JSONArray();
@@ -155,4 +631,194 @@ public class Deck implements Writable {
         }
         return jsonArray;
     }
+
+    // Effects: returns the content key of a card, made from the card's front and back with case
+    // and repeated whitespace normalized. Cards with equal keys are duplicates.
+    private static String contentKey(Flashcard card) {
+        String front = card.getFront();
+        String back = card.getBack();
+        StringBuilder key = new StringBuilder(front.length() + back.length() + 1);
+        appendNormalized(key, front);
+        key.append('\u0000');
+        appendNormalized(key, back);
+        return key.toString();
+    }
+
+    // Effects: returns the 64-bit FNV-1a hash of a content key. Cards are stored in the content
+    // index under the hash of their key, so the index does not hold a copy of every card's text.
+    static long contentHash(String key) {
+        return hash(FNV_OFFSET, key);
+    }
+
+    // Effects: returns the hash of the content key of card, which is equal for duplicate cards
+    static long contentHash(Flashcard card) {
+        return contentHash(contentKey(card));
+    }
+
+    // Effects: returns the FNV-1a hash hash continued over the characters of text
+    private static long hash(long hash, String text) {
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    // Effects: returns the card in bucket whose content key is key, or null if there is none. The
+    // cards' keys are compared with key as they are normalized, without being built.
+    private static Flashcard findContent(List<Flashcard> bucket, String key) {
+        for (Flashcard card : bucket) {
+            int at = matchNormalized(card.getFront(), key, 0);
+            if (at >= 0 && at < key.length() && key.charAt(at) == '\u0000'
+                    && matchNormalized(card.getBack(), key, at + 1) == key.length()) {
+                return card;
+            }
+        }
+        return null;
+    }
+
+    // Modifies: key
+    // Effects: appends text to key trimmed, lower case, and with runs of whitespace collapsed to one
+    // space, in a single pass over text
+    private static void appendNormalized(StringBuilder key, String text) {
+        int end = trimmedEnd(text);
+        boolean inSpace = false;
+        for (int i = trimmedStart(text, end); i < end; ) {
+            int c = text.codePointAt(i);
+            i += Character.charCount(c);
+            if (!isCollapsedSpace(c)) {
+                key.appendCodePoint(Character.toLowerCase(c));
+            } else if (!inSpace) {
+                key.append(' ');
+            }
+            inSpace = isCollapsedSpace(c);
+        }
+    }
+
+    // Effects: returns the position in key just after text normalized as appendNormalized does, if
+    // key holds it starting at position at, or -1 otherwise
+    private static int matchNormalized(String text, String key, int at) {
+        int end = trimmedEnd(text);
+        boolean inSpace = false;
+        for (int i = trimmedStart(text, end); i < end; ) {
+            int c = text.codePointAt(i);
+            i += Character.charCount(c);
+            if (!isCollapsedSpace(c) || !inSpace) {
+                int expected = isCollapsedSpace(c) ? ' ' : Character.toLowerCase(c);
+                if (at >= key.length() || key.codePointAt(at) != expected) {
+                    return -1;
+                }
+                at += Character.charCount(expected);
+            }
+            inSpace = isCollapsedSpace(c);
+        }
+        return at;
+    }
+
+    // Effects: returns the position of the first character of text that trim would keep, or end if
+    // there is none before end
+    private static int trimmedStart(String text, int end) {
+        int start = 0;
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    // Effects: returns the position just after the last character of text that trim would keep
+    private static int trimmedEnd(String text) {
+        int end = text.length();
+        while (end > 0 && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    // Effects: returns true if c is whitespace that is collapsed in a content key: a space, tab,
+    // line break, vertical tab, form feed or carriage return
+    private static boolean isCollapsedSpace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    // Requires: 0 <= to <= from < deck size
+    // Modifies: this
+    // Effects: moves the card at position from to position to, along with its quiz state in
+    // compact state mode. The card previously at position to is overwritten.
+    private void moveCard(int from, int to) {
+        Flashcard card = flashcards.get(from);
+        flashcards.set(to, card);
+        positions.put(card.getIdNumber(), to);
+        if (compactState != null) {
+            compactState.move(from, to);
+            card.moveSlot(to);
+        }
+    }
+
+    // Requires: card must be in the deck
+    // Modifies: this
+    // Effects: removes card from the id and content indexes, stops listening to it, moves its
+    // quiz state and text back into the card, and logs its deletion. The card is not removed from the
+    // list of flashcards.
+    private void unindex(Flashcard card) {
+        positions.remove(card.getIdNumber());
+        long hash = contentHash(contentKey(card));
+        List<Flashcard> bucket = contentIndex.get(hash);
+        bucket.removeIf(match -> match == card);
+        if (bucket.isEmpty()) {
+            contentIndex.remove(hash);
+        }
+        card.removeStateListener(this);
+        card.unbindState();
+        releaseCard(card);
+        numberViewed -= card.isViewed() ? 1 : 0;
+        numberCorrect -= card.isCorrect() ? 1 : 0;
+        modCount++;
+        changeCount++;
+        for (DeckChangeListener listener : changeListeners) {
+            listener.cardRemoved(this, card);
+        }
+        EventLog.getInstance().logEvent(new Event("Deleted Flashcard from " + this.name + "\n" + card));
+    }
+
+    // Modifies: this, card
+    // Effects: moves card's text back from the deck's text arena, and removes card from the
+    // deck's scheduler and search index, if the deck uses them
+    private void releaseCard(Flashcard card) {
+        if (textArena != null && card.getTextStore() == textArena) {
+            textArena.release(card.restoreText());
+        }
+        if (scheduler != null) {
+            scheduler.removeCard(card.getIdNumber());
+        }
+        if (searchIndex != null) {
+            searchIndex.remove(card);
+        }
+    }
+
+    // Represents an iterator over the flashcards in this deck that visits them in the order
+    // of the positions produced by a position iterator
+    private class DeckIterator implements Iterator<Flashcard> {
+        private final PrimitiveIterator.OfInt order;
+        private final int expectedModCount;
+
+        // Effects: creates an iterator visiting the cards at the positions produced by order
+        DeckIterator(PrimitiveIterator.OfInt order) {
+            this.order = order;
+            this.expectedModCount = modCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return order.hasNext();
+        }
+
+        // Effects: returns the card at the next position. Throws ConcurrentModificationException
+        //          if the deck has been changed since this iterator was created.
+        @Override
+        public Flashcard next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            return flashcards.get(order.nextInt());
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package model;
+
+// Interface representing an object that is notified when the saved content of a deck changes:
+// when cards are added or removed, or when the review schedule of a card changes
+public interface DeckChangeListener {
+
+    // Effects: responds to card having been added to deck
+    void cardAdded(Deck deck, Flashcard card);
+
+    // Effects: responds to card having been removed from deck
+    void cardRemoved(Deck deck, Flashcard card);
+
+    // Effects: responds to the review schedule of a card in deck having changed
+    void scheduleChanged(Deck deck, CardSchedule schedule);
+}
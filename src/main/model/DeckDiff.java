@@ -0,0 +1,138 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Represents the cards added and removed between two versions of a deck. Cards are matched by the
+hash of their content key rather than by id, and the earlier version is given only by the number
+of cards with each content. A diff can be applied to a deck that has changed since the earlier
+version; only the changes not already made in it are applied.
+ */
+public class DeckDiff {
+    private final Map<Long, Integer> latestCounts;
+    private final List<Flashcard> added;
+    private final Map<Long, Integer> removed;
+
+    // Effects: creates a diff with the number of cards in latest with each content that changed, the
+    // cards added, in the order they are in latest, and the number of cards removed by content
+    private DeckDiff(Map<Long, Integer> latestCounts, List<Flashcard> added, Map<Long, Integer> removed) {
+        this.latestCounts = latestCounts;
+        this.added = added;
+        this.removed = removed;
+    }
+
+    // Effects: returns the number of cards with each content among cards, by content hash
+    public static Map<Long, Integer> countContent(Collection<Flashcard> cards) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Flashcard card : cards) {
+            counts.merge(key(card), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    // Requires: earlier was returned by countContent for the cards of the earlier version
+    // Effects: returns the changes that turn the earlier version into latest. Where there are more
+    // cards with a content in latest than before, the last ones in latest are taken to be added.
+    public static DeckDiff between(Map<Long, Integer> earlier, Collection<Flashcard> latest) {
+        Map<Long, Integer> counts = countContent(latest);
+        Map<Long, Integer> changedCounts = new HashMap<>();
+        Map<Long, Integer> seen = new HashMap<>();
+        List<Flashcard> added = new ArrayList<>();
+        for (Flashcard card : latest) {
+            long key = key(card);
+            int before = earlier.getOrDefault(key, 0);
+            if (counts.get(key) > before) {
+                changedCounts.put(key, counts.get(key));
+                if (seen.merge(key, 1, Integer::sum) > before) {
+                    added.add(card);
+                }
+            }
+        }
+        Map<Long, Integer> removed = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : earlier.entrySet()) {
+            int count = counts.getOrDefault(entry.getKey(), 0);
+            if (count < entry.getValue()) {
+                removed.put(entry.getKey(), entry.getValue() - count);
+                changedCounts.put(entry.getKey(), count);
+            }
+        }
+        return new DeckDiff(changedCounts, added, removed);
+    }
+
+    // Modifies: deck
+    // Effects: makes the changes in this diff to deck that have not been made in it already, and
+    // returns the number of cards added and removed. New cards are added to the end of the deck.
+    public int applyTo(Deck deck) {
+        Map<Long, List<Flashcard>> present = new HashMap<>();
+        for (Flashcard card : deck.getCardView()) {
+            long key = key(card);
+            if (latestCounts.containsKey(key)) {
+                present.computeIfAbsent(key, k -> new ArrayList<>()).add(card);
+            }
+        }
+        int removedCount = deck.removeCards(cardsToRemove(present));
+        return removedCount + deck.addAll(cardsToAdd(deck, present));
+    }
+
+    // Effects: returns true if no cards were added or removed
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+
+    // Effects: returns the number of cards added between the two versions
+    public int getAddedCount() {
+        return added.size();
+    }
+
+    // Effects: returns the number of cards removed between the two versions
+    public int getRemovedCount() {
+        int count = 0;
+        for (int decrease : removed.values()) {
+            count += decrease;
+        }
+        return count;
+    }
+
+    // Effects: returns the ids of the cards to remove from a deck holding the cards in present with
+    // each changed content
+    private List<String> cardsToRemove(Map<Long, List<Flashcard>> present) {
+        List<String> ids = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : removed.entrySet()) {
+            List<Flashcard> cards = present.getOrDefault(entry.getKey(), List.of());
+            int excess = Math.min(entry.getValue(), cards.size() - latestCounts.get(entry.getKey()));
+            for (int i = cards.size() - Math.max(0, excess); i < cards.size(); i++) {
+                ids.add(cards.get(i).getId());
+            }
+        }
+        return ids;
+    }
+
+    // Effects: returns copies of the added cards that deck, holding the cards in present with each
+    // changed content, is missing, in the order they are in latest. A copy keeps the id of its
+    // card unless deck already has a card with that id.
+    private List<Flashcard> cardsToAdd(Deck deck, Map<Long, List<Flashcard>> present) {
+        Map<Long, Integer> missing = new HashMap<>();
+        List<Flashcard> cards = new ArrayList<>();
+        for (Flashcard card : added) {
+            long key = key(card);
+            int left = missing.computeIfAbsent(key,
+                k -> latestCounts.get(k) - present.getOrDefault(k, List.of()).size());
+            if (left > 0) {
+                cards.add(deck.getCard(card.getId()) == null
+                        ? new Flashcard(card.getIdNumber(), card.getFront(), card.getBack())
+                        : new Flashcard(card.getFront(), card.getBack()));
+                missing.put(key, left - 1);
+            }
+        }
+        return cards;
+    }
+
+    // Effects: returns the hash of the content key of card
+    static long key(Flashcard card) {
+        return Deck.contentHash(card);
+    }
+}
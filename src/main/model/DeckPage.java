@@ -0,0 +1,51 @@
+package model;
+
+import java.util.List;
+
+/*
+Represents a read-only window (page) of consecutive flashcards in a deck. A page does not copy
+the cards it contains; it is a view of the deck, so it should be used before the deck is next
+changed. Pages can be used as a cursor, moving through the deck one page at a time.
+ */
+public class DeckPage {
+    private final Deck deck;
+    private final int offset;
+    private final int limit;
+    private final List<Flashcard> cards;
+
+    // Requires: offset >= 0 and limit > 0
+    // Effects: creates a page of at most limit cards from deck, starting at position offset.
+    //          The page is empty if offset is past the last card in the deck.
+    DeckPage(Deck deck, int offset, int limit) {
+        this.deck = deck;
+        this.offset = offset;
+        this.limit = limit;
+        List<Flashcard> view = deck.getCardView();
+        int from = Math.min(offset, view.size());
+        int to = (int) Math.min((long) from + limit, view.size());
+        this.cards = view.subList(from, to);
+    }
+
+    // Effects: returns true if there are cards in the deck after this page
+    public boolean hasNextPage() {
+        return offset + cards.size() < deck.getDeckSize();
+    }
+
+    // Effects: returns the page of cards following this page, with the same limit
+    public DeckPage nextPage() {
+        return new DeckPage(deck, offset + limit, limit);
+    }
+
+    // Effects: returns the cards on this page as an unmodifiable view
+    public List<Flashcard> getCards() {
+        return cards;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,54 @@
+package model;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/*
+Represents an order for a quiz over the cards of a card set that were due for review when the
+order was created, longest due first. Drawing cards does not change their schedules.
+ */
+public class DueOrder implements PrimitiveIterator.OfInt {
+    private final ReviewScheduler scheduler;
+    private final CardSet cards;
+    private final long now;
+    private final long[] dueIds;
+    private int nextIndex;
+    private int nextPosition;
+
+    // Effects: creates an order over the cards in cards that are due in scheduler at time now
+    public DueOrder(ReviewScheduler scheduler, CardSet cards, long now) {
+        this.scheduler = scheduler;
+        this.cards = cards;
+        this.now = now;
+        this.dueIds = scheduler.dueCards(now);
+        this.nextIndex = 0;
+        this.nextPosition = -1;
+    }
+
+    // Modifies: this
+    // Effects: returns true if there is another due card in the card set
+    @Override
+    public boolean hasNext() {
+        while (nextPosition < 0 && nextIndex < dueIds.length) {
+            long cardId = dueIds[nextIndex++];
+            CardSchedule schedule = scheduler.getSchedule(cardId);
+            if (schedule != null && schedule.getDue() <= now) {
+                nextPosition = cards.indexOf(cardId);
+            }
+        }
+        return nextPosition >= 0;
+    }
+
+    // Modifies: this
+    // Effects: returns the position of the next due card. Throws NoSuchElementException if no
+    //          more cards in the card set are due.
+    @Override
+    public int nextInt() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int position = nextPosition;
+        nextPosition = -1;
+        return position;
+    }
+}
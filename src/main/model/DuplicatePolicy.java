@@ -0,0 +1,14 @@
+package model;
+
+/*
+Represents how a deck handles a flashcard whose front and back match (ignoring case and
+surrounding/repeated whitespace) a card that is already in the deck.
+ */
+public enum DuplicatePolicy {
+    // the duplicate card is not added to the deck
+    REJECT,
+    // the duplicate card is not added, but its quiz progress is merged into the matching card
+    MERGE,
+    // the duplicate card is added to the deck as a separate card
+    ALLOW
+}
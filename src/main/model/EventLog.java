@@ -9,6 +9,7 @@ import java.util.Iterator;
  * We use the Singleton Design Pattern to ensure that there is only
  * one EventLog in the system and that the system has global access
  * to the single instance of the EventLog.
+ * Events can be logged from any thread, since decks may be loaded in parallel.
  *
  * EventLog class was taken from the Alarm System class example
  * https://github.students.cs.ubc.ca/CPSC210/AlarmSystem
@@ -35,7 +36,7 @@ public class EventLog implements Iterable<Event> {
      *
      * @return instance of EventLog
      */
-    public static EventLog getInstance() {
+    public static synchronized EventLog getInstance() {
         if (theLog == null) {
             theLog = new EventLog();
         }
@@ -47,20 +48,26 @@ public class EventLog implements Iterable<Event> {
      *
      * @param e the event to be added
      */
-    public void logEvent(Event e) {
+    public synchronized void logEvent(Event e) {
         events.add(e);
     }
 
     /**
      * Clears the event log and logs the event.
      */
-    public void clear() {
+    public synchronized void clear() {
         events.clear();
         logEvent(new Event("Event log cleared."));
     }
 
+    /**
+     * Returns an iterator over a copy of the events logged so far, so that events logged while
+     * iterating are not visited.
+     *
+     * @return iterator over the logged events
+     */
     @Override
-    public Iterator<Event> iterator() {
-        return events.iterator();
+    public synchronized Iterator<Event> iterator() {
+        return new ArrayList<>(events).iterator();
     }
 }
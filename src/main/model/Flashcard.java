@@ -3,99 +3,287 @@ package model;
 import org.json.JSONObject;
 import persistence.Writable;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /*
 Represents a flashcard that can be flipped to display the front and back sides. When the
 flashcard is flipped, it is recorded that the card has been viewed. A card can be marked as
 correct if a user guessed the card's value before flipping the card to see the back.
+Listeners are notified whenever the card's viewed or correct state changes. A card's quiz
+state can be bound to a slot of a deck-level QuizState, in which case it is stored there
+instead of in the card, and a card's text can be moved into a CardTextStore, in which case it
+is read from the store whenever it is needed.
  */
 public class Flashcard implements Writable {
-    private static int totalFlashcards = 0;
-    private final String id;
+    private static final int FLIPPED = 1;
+    private static final int VIEWED = 2;
+    private static final int CORRECT = 4;
+    private final long id;
     private String front;
     private String back;
-    private boolean flipped;
-    private boolean viewed;
-    private boolean correct;
+    private int stateBits;
+    private CardStateListener listener;
+    private QuizState boundState;
+    private StoredText storedText;
 
     // Requires: front and back are non-empty strings
     // Effects: creates a flashcard with front and back sides. The card has not been
     // flipped or viewed and is marked as not correct. Each flashcard created has a
     // unique ID.
     public Flashcard(String front, String back) {
+        this(CardIdAllocator.getInstance().allocate(), front, back);
+    }
+
+    // Requires: front and back are non-empty strings, pool must not be null
+    // Effects: creates a flashcard as above whose front and back text is shared through pool
+    // with any other card that has the same text.
+    public Flashcard(String front, String back, TextPool pool) {
+        this(pool.intern(front), pool.intern(back));
+    }
+
+    // Requires: id > 0 and is not the id of another card; front and back are non-empty strings
+    // Effects: creates a flashcard with the given id (for example, one read from file) and
+    // front and back sides. The card has not been flipped or viewed and is marked as not
+    // correct. The id will not be given to any flashcard created later.
+    public Flashcard(long id, String front, String back) {
+        CardIdAllocator.getInstance().reserve(id);
+        this.id = id;
         this.front = front;
         this.back = back;
-        totalFlashcards++;
-        this.id = String.valueOf(totalFlashcards);
-        this.flipped = false;
-        this.viewed = false;
-        this.correct = false;
+    }
+
+    // Requires: id > 0 and is not the id of another card; store holds non-empty front and back
+    // text under handle
+    // Effects: creates a flashcard with the given id whose text is kept in store under handle and
+    // read from it whenever it is needed, so the card holds no copy of its text. The card has not
+    // been flipped or viewed and is marked as not correct.
+    public Flashcard(long id, CardTextStore store, long handle) {
+        this(id, null, null);
+        moveText(store, handle);
     }
 
     // Effects: If the card has not been flipped, its front side is displayed.
     // Otherwise, the back of the card is displayed.
     public String displayCard() {
-        if (flipped) {
-            return back;
+        if (isFlipped()) {
+            return getBack();
         }
-        return front;
+        return getFront();
     }
 
     // Modifies: this
     // Effects: flips the card over and sets the cards viewed status to true
     public void flipCard() {
-        flipped = !flipped;
-        viewed = true;
+        setState(!isFlipped(), true, isCorrect());
     }
 
     // Modifies: this
     // Effects: resets the card to the state it was in when created
     // (not flipped, not viewed, and incorrect)
     public void resetCard() {
-        this.flipped = false;
-        this.viewed = false;
-        this.correct = false;
+        setState(false, false, false);
+    }
+
+    // Requires: other must not be null
+    // Modifies: this
+    // Effects: merges the quiz progress of other into this card. This card becomes viewed
+    // and/or correct if either card was viewed and/or correct.
+    void mergeProgress(Flashcard other) {
+        setState(isFlipped(), isViewed() || other.isViewed(), isCorrect() || other.isCorrect());
+    }
+
+    // Requires: 0 <= slot < state.size()
+    // Modifies: this, state
+    // Effects: stores this card's quiz state in the given slot of state from now on, copying
+    // the card's current state into that slot
+    void bindState(QuizState state, int slot) {
+        state.set(slot, isFlipped(), isViewed(), isCorrect());
+        this.boundState = state;
+        this.stateBits = slot;
+    }
+
+    // Requires: this card's text is stored in store under handle
+    // Modifies: this
+    // Effects: reads this card's text from store from now on, and drops the card's own copy
+    void moveText(CardTextStore store, long handle) {
+        this.storedText = new StoredText(store, handle);
+        this.front = null;
+        this.back = null;
+    }
+
+    // Modifies: this
+    // Effects: copies this card's text out of its text store (if any) and keeps it in the card
+    // from now on. Returns the handle the text was stored under, or -1 if it was not in a store.
+    long restoreText() {
+        if (storedText == null) {
+            return -1;
+        }
+        this.front = storedText.getFront();
+        this.back = storedText.getBack();
+        long handle = storedText.handle;
+        this.storedText = null;
+        return handle;
+    }
+
+    // Effects: returns the store this card's text is kept in, or null if it is kept in the card
+    CardTextStore getTextStore() {
+        return storedText == null ? null : storedText.store;
+    }
+
+    // Requires: card's state is bound and 0 <= slot < bound state size
+    // Modifies: this
+    // Effects: changes the slot of the bound quiz state that holds this card's state
+    void moveSlot(int slot) {
+        this.stateBits = slot;
+    }
+
+    // Modifies: this
+    // Effects: copies this card's state out of its bound quiz state (if any) and stores it in
+    // the card from now on
+    void unbindState() {
+        if (boundState != null) {
+            int slot = stateBits;
+            this.stateBits = pack(boundState.isFlipped(slot), boundState.isViewed(slot), boundState.isCorrect(slot));
+            this.boundState = null;
+        }
+    }
+
+    // Requires: listener must not be null
+    // Modifies: this
+    // Effects: registers listener to be notified when this card's quiz state changes
+    public void addStateListener(CardStateListener listener) {
+        if (this.listener == null) {
+            this.listener = listener;
+        } else if (this.listener instanceof ListenerList) {
+            ((ListenerList) this.listener).listeners.add(listener);
+        } else {
+            this.listener = new ListenerList(this.listener, listener);
+        }
+    }
+
+    // Modifies: this
+    // Effects: stops notifying listener of changes to this card's quiz state
+    public void removeStateListener(CardStateListener listener) {
+        if (this.listener instanceof ListenerList) {
+            List<CardStateListener> listeners = ((ListenerList) this.listener).listeners;
+            listeners.remove(listener);
+            if (listeners.size() == 1) {
+                this.listener = listeners.get(0);
+            }
+        } else if (listener.equals(this.listener)) {
+            this.listener = null;
+        }
+    }
+
+    // Modifies: this
+    // Effects: sets the quiz state of the card, in the bound quiz state if there is one, and
+    // notifies listeners if the viewed or correct state of the card has changed
+    private void setState(boolean isFlipped, boolean isViewed, boolean isCorrect) {
+        boolean wasViewed = isViewed();
+        boolean wasCorrect = isCorrect();
+        if (boundState != null) {
+            boundState.set(stateBits, isFlipped, isViewed, isCorrect);
+        } else {
+            this.stateBits = pack(isFlipped, isViewed, isCorrect);
+        }
+        notifyListeners(wasViewed, wasCorrect);
+    }
+
+    // Effects: returns the bits that hold the given quiz state in a card whose state is not bound
+    private static int pack(boolean isFlipped, boolean isViewed, boolean isCorrect) {
+        return (isFlipped ? FLIPPED : 0) | (isViewed ? VIEWED : 0) | (isCorrect ? CORRECT : 0);
+    }
+
+    // Effects: notifies listeners if the viewed or correct state of the card has changed
+    private void notifyListeners(boolean wasViewed, boolean wasCorrect) {
+        if (listener == null || wasViewed == isViewed() && wasCorrect == isCorrect()) {
+            return;
+        }
+        listener.cardStateChanged(this, wasViewed, wasCorrect);
     }
 
     // Effects: returns String representation of Flashcard
     public String toString() {
-        return "Flashcard ID number: " + this.id + "\nFront: " + this.front
-                + "\nBack: " + this.back;
+        return "Flashcard ID number: " + this.id + "\nFront: " + getFront()
+                + "\nBack: " + getBack();
     }
 
     // Effects: returns flashcard as a JSON object
     @Override
     public JSONObject toJson() {
         JSONObject json = new JSONObject();
-        json.put("front", this.front);
-        json.put("back", this.back);
+        json.put("id", this.id);
+        json.put("front", getFront());
+        json.put("back", getBack());
         return json;
     }
 
     public String getId() {
+        return String.valueOf(id);
+    }
+
+    public long getIdNumber() {
         return id;
     }
 
     public boolean isFlipped() {
-        return flipped;
+        return boundState != null ? boundState.isFlipped(stateBits) : (stateBits & FLIPPED) != 0;
     }
 
     public boolean isViewed() {
-        return viewed;
+        return boundState != null ? boundState.isViewed(stateBits) : (stateBits & VIEWED) != 0;
     }
 
     public boolean isCorrect() {
-        return correct;
+        return boundState != null ? boundState.isCorrect(stateBits) : (stateBits & CORRECT) != 0;
     }
 
     public void setCorrect(boolean correct) {
-        this.correct = correct;
+        setState(isFlipped(), isViewed(), correct);
     }
 
     public String getFront() {
-        return front;
+        return storedText != null ? storedText.getFront() : front;
     }
 
     public String getBack() {
-        return back;
+        return storedText != null ? storedText.getBack() : back;
+    }
+
+    // Represents the listeners of a card that has more than one, notified in the order they were added
+    private static class ListenerList implements CardStateListener {
+        private final List<CardStateListener> listeners = new ArrayList<>(2);
+
+        ListenerList(CardStateListener first, CardStateListener second) {
+            listeners.add(first);
+            listeners.add(second);
+        }
+
+        @Override
+        public void cardStateChanged(Flashcard card, boolean wasViewed, boolean wasCorrect) {
+            for (CardStateListener listener : listeners) {
+                listener.cardStateChanged(card, wasViewed, wasCorrect);
+            }
+        }
+    }
+
+    // Represents the place a card's text is kept when it is not kept in the card
+    private static class StoredText {
+        private final CardTextStore store;
+        private final long handle;
+
+        StoredText(CardTextStore store, long handle) {
+            this.store = store;
+            this.handle = handle;
+        }
+
+        String getFront() {
+            return store.getFront(handle);
+        }
+
+        String getBack() {
+            return store.getBack(handle);
+        }
     }
 }
@@ -0,0 +1,92 @@
+package model;
+
+/*
+Represents one user's pass through a set of flashcards. The session keeps which cards have been
+flipped, viewed and marked as correct in its own QuizState, indexed by position in the card set,
+so it does not change the cards.
+ */
+public class QuizSession {
+    private final CardSet cards;
+    private final QuizState state;
+
+    // Effects: creates a session over cards in which no card has been flipped, viewed or
+    // marked as correct
+    public QuizSession(CardSet cards) {
+        this.cards = cards;
+        this.state = new QuizState(cards.size());
+    }
+
+    // Requires: 0 <= position < size()
+    // Effects: returns the back of the card at position if it is flipped in this session.
+    // Otherwise, returns its front.
+    public String displayCard(int position) {
+        Flashcard card = cards.get(position);
+        return state.isFlipped(position) ? card.getBack() : card.getFront();
+    }
+
+    // Requires: 0 <= position < size()
+    // Modifies: this
+    // Effects: flips the card at position over and records that it has been viewed
+    public void flipCard(int position) {
+        state.flip(position);
+    }
+
+    // Requires: 0 <= position < size()
+    // Modifies: this
+    // Effects: marks the card at position as correct or not correct
+    public void setCorrect(int position, boolean correct) {
+        state.setCorrect(position, correct);
+    }
+
+    // Effects: Returns the number of cards that were viewed in this session
+    public int getNumberViewed() {
+        return state.countViewed();
+    }
+
+    // Effects: Returns the number of cards that were marked as correct in this session
+    public int getNumberCorrect() {
+        return state.countCorrect();
+    }
+
+    // Effects: Returns the percentage (0-100) of cards that were viewed in this session.
+    // If there are no cards, 0 is returned.
+    public double getPercentViewed() {
+        if (cards.size() == 0) {
+            return 0;
+        }
+        int viewed = getNumberViewed();
+        EventLog.getInstance().logEvent(new Event("Flipped " + viewed
+                + " of " + cards.size() + " cards in " + cards.getName()));
+        return ((double) viewed / cards.size()) * 100;
+    }
+
+    // Effects: Returns the percentage (0-100) of viewed cards that were marked as correct in
+    // this session. If no cards have been viewed, 0 is returned.
+    public double getPercentCorrect() {
+        int viewed = getNumberViewed();
+        if (viewed == 0) {
+            return 0;
+        }
+        return ((double) getNumberCorrect() / viewed) * 100;
+    }
+
+    public boolean isFlipped(int position) {
+        return state.isFlipped(position);
+    }
+
+    public boolean isViewed(int position) {
+        return state.isViewed(position);
+    }
+
+    public boolean isCorrect(int position) {
+        return state.isCorrect(position);
+    }
+
+    public CardSet getCards() {
+        return cards;
+    }
+
+    public int size() {
+        return cards.size();
+    }
+}
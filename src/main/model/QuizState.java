@@ -0,0 +1,179 @@
+package model;
+
+import java.util.Arrays;
+
+/*
+Represents the quiz state (flipped, viewed, correct) of a sequence of flashcards, stored as
+columns of bits packed into long words and indexed by card position.
+ */
+public class QuizState {
+    private static final int WORD_BITS = 64;
+    private long[] flipped;
+    private long[] viewed;
+    private long[] correct;
+    private int size;
+
+    // Requires: size >= 0
+    // Effects: creates quiz state for size cards, all not flipped, not viewed and not correct
+    public QuizState(int size) {
+        int words = wordsFor(Math.max(size, WORD_BITS));
+        this.flipped = new long[words];
+        this.viewed = new long[words];
+        this.correct = new long[words];
+        this.size = size;
+    }
+
+    // Modifies: this
+    // Effects: adds a card at the end of the sequence in the given state and returns its position
+    public int add(boolean isFlipped, boolean isViewed, boolean isCorrect) {
+        if (size == flipped.length * WORD_BITS) {
+            int words = flipped.length * 2;
+            flipped = Arrays.copyOf(flipped, words);
+            viewed = Arrays.copyOf(viewed, words);
+            correct = Arrays.copyOf(correct, words);
+        }
+        size++;
+        set(size - 1, isFlipped, isViewed, isCorrect);
+        return size - 1;
+    }
+
+    // Requires: 0 <= position < size
+    // Modifies: this
+    // Effects: sets the state of the card at position
+    public void set(int position, boolean isFlipped, boolean isViewed, boolean isCorrect) {
+        setBit(flipped, position, isFlipped);
+        setBit(viewed, position, isViewed);
+        setBit(correct, position, isCorrect);
+    }
+
+    // Requires: 0 <= position < size
+    // Modifies: this
+    // Effects: flips the card at position and records that it has been viewed
+    public void flip(int position) {
+        flipped[position / WORD_BITS] ^= 1L << position;
+        viewed[position / WORD_BITS] |= 1L << position;
+    }
+
+    // Requires: 0 <= position < size
+    // Modifies: this
+    // Effects: marks the card at position as correct or not correct
+    public void setCorrect(int position, boolean isCorrect) {
+        setBit(correct, position, isCorrect);
+    }
+
+    // Requires: 0 <= position < size
+    // Modifies: this
+    // Effects: resets the card at position (not flipped, not viewed, not correct)
+    public void reset(int position) {
+        set(position, false, false, false);
+    }
+
+    // Modifies: this
+    // Effects: resets every card (not flipped, not viewed, not correct)
+    public void clear() {
+        int words = wordsFor(size);
+        Arrays.fill(flipped, 0, words, 0L);
+        Arrays.fill(viewed, 0, words, 0L);
+        Arrays.fill(correct, 0, words, 0L);
+    }
+
+    // Requires: 0 <= from < size and 0 <= to < size
+    // Modifies: this
+    // Effects: copies the state of the card at position from to position to
+    public void move(int from, int to) {
+        set(to, isFlipped(from), isViewed(from), isCorrect(from));
+    }
+
+    // Requires: 0 <= position < size
+    // Modifies: this
+    // Effects: removes the card at position, shifting the state of every later card down by one
+    public void remove(int position) {
+        for (int i = position + 1; i < size; i++) {
+            move(i, i - 1);
+        }
+        truncate(size - 1);
+    }
+
+    // Requires: 0 <= newSize <= size
+    // Modifies: this
+    // Effects: removes every card at a position >= newSize
+    public void truncate(int newSize) {
+        for (int i = newSize; i < size; i++) {
+            reset(i);
+        }
+        size = newSize;
+    }
+
+    // Effects: returns the first position >= from of a card that is viewed or correct, or -1 if
+    // there is none. Words with no such card are skipped 64 cards at a time.
+    public int nextMarked(int from) {
+        if (from >= size) {
+            return -1;
+        }
+        int word = from / WORD_BITS;
+        long bits = (viewed[word] | correct[word]) & (-1L << from);
+        while (bits == 0) {
+            if (++word >= wordsFor(size)) {
+                return -1;
+            }
+            bits = viewed[word] | correct[word];
+        }
+        int position = word * WORD_BITS + Long.numberOfTrailingZeros(bits);
+        return position < size ? position : -1;
+    }
+
+    // Effects: returns the number of viewed cards
+    public int countViewed() {
+        return count(viewed);
+    }
+
+    // Effects: returns the number of correct cards
+    public int countCorrect() {
+        return count(correct);
+    }
+
+    public boolean isFlipped(int position) {
+        return getBit(flipped, position);
+    }
+
+    public boolean isViewed(int position) {
+        return getBit(viewed, position);
+    }
+
+    public boolean isCorrect(int position) {
+        return getBit(correct, position);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Effects: returns the number of set bits in the words used by this state
+    private int count(long[] bits) {
+        int total = 0;
+        for (int i = 0; i < wordsFor(size); i++) {
+            total += Long.bitCount(bits[i]);
+        }
+        return total;
+    }
+
+    // Effects: returns the number of words needed to store bits for n cards
+    private static int wordsFor(int n) {
+        return (n + WORD_BITS - 1) / WORD_BITS;
+    }
+
+    // Effects: returns the bit at position
+    private static boolean getBit(long[] bits, int position) {
+        return (bits[position / WORD_BITS] & (1L << position)) != 0;
+    }
+
+    // Modifies: bits
+    // Effects: sets the bit at position to value
+    private static void setBit(long[] bits, int position, boolean value) {
+        if (value) {
+            bits[position / WORD_BITS] |= 1L << position;
+        } else {
+            bits[position / WORD_BITS] &= ~(1L << position);
+        }
+    }
+}
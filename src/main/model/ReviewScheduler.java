@@ -0,0 +1,172 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/*
+Represents a spaced-repetition scheduler for the cards of a deck. Every card has a
+CardSchedule, and the cards are kept in a priority queue ordered by the time they are next due.
+Only reviews change a card's schedule.
+ */
+public class ReviewScheduler {
+    private final Map<Long, CardSchedule> schedules;
+    private final PriorityQueue<DueEntry> dueQueue;
+    private final Consumer<CardSchedule> onChange;
+
+    // Effects: creates a scheduler with no cards
+    public ReviewScheduler() {
+        this(schedule -> { });
+    }
+
+    // Effects: creates a scheduler with no cards that passes each schedule changed by a review
+    // to onChange
+    ReviewScheduler(Consumer<CardSchedule> onChange) {
+        schedules = new HashMap<>();
+        dueQueue = new PriorityQueue<>();
+        this.onChange = onChange;
+    }
+
+    // Modifies: this
+    // Effects: adds a card that has never been reviewed to the scheduler; the card is due
+    // immediately. Does nothing if the card is already scheduled.
+    public void addCard(long cardId) {
+        if (!schedules.containsKey(cardId)) {
+            restore(new CardSchedule(cardId));
+        }
+    }
+
+    // Modifies: this
+    // Effects: adds schedule to the scheduler, replacing any schedule the card already had
+    public void restore(CardSchedule schedule) {
+        schedules.put(schedule.getCardId(), schedule);
+        enqueue(schedule);
+    }
+
+    // Modifies: this
+    // Effects: removes a card from the scheduler
+    public void removeCard(long cardId) {
+        schedules.remove(cardId);
+    }
+
+    // Modifies: this
+    // Effects: returns true if a card is due at time now
+    public boolean hasDue(long now) {
+        DueEntry next = peekValid();
+        return next != null && next.due <= now;
+    }
+
+    // Effects: returns the ids of the cards that are due at time now, the card that has been due
+    // the longest first
+    public long[] dueCards(long now) {
+        List<CardSchedule> due = new ArrayList<>();
+        for (CardSchedule schedule : schedules.values()) {
+            if (schedule.getDue() <= now) {
+                due.add(schedule);
+            }
+        }
+        due.sort(Comparator.comparingLong(CardSchedule::getDue));
+        long[] ids = new long[due.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = due.get(i).getCardId();
+        }
+        return ids;
+    }
+
+    // Modifies: this
+    // Effects: records that the card was reviewed at time now and answered correctly or not,
+    // and reschedules it. Does nothing if the card is not in the scheduler (for example, if it
+    // was removed from the deck during a quiz).
+    public void review(long cardId, boolean correct, long now) {
+        CardSchedule schedule = schedules.get(cardId);
+        if (schedule != null) {
+            schedule.review(correct, now);
+            enqueue(schedule);
+            onChange.accept(schedule);
+        }
+    }
+
+    // Modifies: this
+    // Effects: returns the time the next card is due, or Long.MAX_VALUE if there are no cards
+    public long getNextDue() {
+        DueEntry next = peekValid();
+        return next == null ? Long.MAX_VALUE : next.due;
+    }
+
+    // Effects: returns the number of cards that have been answered correctly at least once since
+    // they were last answered incorrectly
+    public int countLearned() {
+        int learned = 0;
+        for (CardSchedule schedule : schedules.values()) {
+            if (schedule.getRepetitions() > 0) {
+                learned++;
+            }
+        }
+        return learned;
+    }
+
+    // Effects: returns the schedule of a card, or null if the card is not in the scheduler
+    public CardSchedule getSchedule(long cardId) {
+        return schedules.get(cardId);
+    }
+
+    // Effects: returns the schedules of every card in the scheduler as an unmodifiable collection
+    public Collection<CardSchedule> getSchedules() {
+        return Collections.unmodifiableCollection(schedules.values());
+    }
+
+    // Effects: returns the number of cards in the scheduler
+    public int size() {
+        return schedules.size();
+    }
+
+    // Modifies: this
+    // Effects: adds an entry for schedule's current due time to the queue. Rebuilds the queue
+    // without outdated entries if they make up most of it.
+    private void enqueue(CardSchedule schedule) {
+        dueQueue.add(new DueEntry(schedule.getCardId(), schedule.getDue()));
+        if (dueQueue.size() > 2 * schedules.size() + 16) {
+            dueQueue.clear();
+            for (CardSchedule current : schedules.values()) {
+                dueQueue.add(new DueEntry(current.getCardId(), current.getDue()));
+            }
+        }
+    }
+
+    // Modifies: this
+    // Effects: discards outdated entries from the front of the queue and returns the first
+    // entry that is up to date, or null if the queue is empty
+    private DueEntry peekValid() {
+        while (!dueQueue.isEmpty()) {
+            DueEntry next = dueQueue.peek();
+            CardSchedule schedule = schedules.get(next.cardId);
+            if (schedule != null && schedule.getDue() == next.due) {
+                return next;
+            }
+            dueQueue.poll();
+        }
+        return null;
+    }
+
+    // Represents an entry in the due queue: a card and the time it was due when the entry was added
+    private static class DueEntry implements Comparable<DueEntry> {
+        private final long cardId;
+        private final long due;
+
+        DueEntry(long cardId, long due) {
+            this.cardId = cardId;
+            this.due = due;
+        }
+
+        @Override
+        public int compareTo(DueEntry other) {
+            return Long.compare(due, other.due);
+        }
+    }
+}
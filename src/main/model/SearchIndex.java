@@ -0,0 +1,201 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/*
+Represents a full-text search index over the front and back of flashcards. Text is split into
+lowercase tokens of letters and digits. An inverted index maps each token to the sorted ids of
+the cards that contain it, and a prefix trie over the tokens finds every token that starts with
+a search term. Cards are added to and removed from the index one at a time, so the index never
+has to be rebuilt.
+ */
+public class SearchIndex {
+    private static final long[] NO_IDS = new long[0];
+    private final Map<String, Posting> postings;
+    private final TokenTrie tokens;
+
+    // Effects: creates an empty search index
+    public SearchIndex() {
+        postings = new HashMap<>();
+        tokens = new TokenTrie();
+    }
+
+    // Modifies: this
+    // Effects: adds the tokens in the front and back of card to the index
+    public void add(Flashcard card) {
+        for (String token : tokensOf(card)) {
+            Posting posting = postings.get(token);
+            if (posting == null) {
+                posting = new Posting();
+                postings.put(token, posting);
+                tokens.add(token);
+            }
+            posting.add(card.getIdNumber());
+        }
+    }
+
+    // Modifies: this
+    // Effects: removes card from the index, forgetting tokens that no other card contains
+    public void remove(Flashcard card) {
+        for (String token : tokensOf(card)) {
+            Posting posting = postings.get(token);
+            if (posting != null && posting.remove(card.getIdNumber()) && posting.size == 0) {
+                postings.remove(token);
+                tokens.remove(token);
+            }
+        }
+    }
+
+    // Effects: returns the ids, in increasing order, of the cards that match every term in query.
+    // A card matches a term if its front or back has a token that starts with the term, ignoring
+    // case. Returns no ids if query has no terms.
+    public long[] search(String query) {
+        List<long[]> matches = new ArrayList<>();
+        for (String term : tokenize(query)) {
+            long[] ids = matching(term);
+            if (ids.length == 0) {
+                return NO_IDS;
+            }
+            matches.add(ids);
+        }
+        if (matches.isEmpty()) {
+            return NO_IDS;
+        }
+        matches.sort(Comparator.comparingInt(ids -> ids.length));
+        long[] found = matches.get(0);
+        for (int i = 1; i < matches.size() && found.length > 0; i++) {
+            found = intersect(found, matches.get(i));
+        }
+        return found;
+    }
+
+    // Effects: returns the number of distinct tokens in the index
+    public int getTokenCount() {
+        return tokens.size();
+    }
+
+    // Effects: returns the distinct lowercase tokens of letters and digits in text, in the order
+    // they first appear
+    public static List<String> tokenize(String text) {
+        Set<String> found = new LinkedHashSet<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean inToken = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (inToken && start < 0) {
+                start = i;
+            } else if (!inToken && start >= 0) {
+                found.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return new ArrayList<>(found);
+    }
+
+    // Effects: returns the distinct tokens in the front and back of card
+    private static Set<String> tokensOf(Flashcard card) {
+        Set<String> found = new LinkedHashSet<>(tokenize(card.getFront()));
+        found.addAll(tokenize(card.getBack()));
+        return found;
+    }
+
+    // Effects: returns the sorted ids of the cards with a token that starts with term
+    private long[] matching(String term) {
+        List<String> words = tokens.withPrefix(term);
+        if (words.size() == 1) {
+            Posting posting = postings.get(words.get(0));
+            return Arrays.copyOf(posting.ids, posting.size);
+        }
+        int total = 0;
+        for (String word : words) {
+            total += postings.get(word).size;
+        }
+        long[] ids = new long[total];
+        int at = 0;
+        for (String word : words) {
+            Posting posting = postings.get(word);
+            System.arraycopy(posting.ids, 0, ids, at, posting.size);
+            at += posting.size;
+        }
+        Arrays.sort(ids);
+        return distinct(ids);
+    }
+
+    // Requires: ids is sorted
+    // Effects: returns ids without repeated values
+    private static long[] distinct(long[] ids) {
+        int kept = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[kept++] = ids[i];
+            }
+        }
+        return kept == ids.length ? ids : Arrays.copyOf(ids, kept);
+    }
+
+    // Requires: first and second are sorted and have no repeated values
+    // Effects: returns the sorted ids that are in both first and second
+    private static long[] intersect(long[] first, long[] second) {
+        long[] both = new long[Math.min(first.length, second.length)];
+        int kept = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                both[kept++] = first[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(both, kept);
+    }
+
+    // Represents the ids of the cards containing a token, kept sorted. Cards are usually added in
+    // the order their ids were allocated, so most ids are appended at the end.
+    private static class Posting {
+        private long[] ids = new long[2];
+        private int size;
+
+        // Modifies: this
+        // Effects: adds id, keeping the ids sorted; does nothing if id is already present
+        void add(long id) {
+            int at = size;
+            if (size > 0 && ids[size - 1] >= id) {
+                at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                at = -at - 1;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        // Modifies: this
+        // Effects: removes id and returns true if it was present
+        boolean remove(long id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+    }
+}
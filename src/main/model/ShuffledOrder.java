@@ -0,0 +1,66 @@
+package model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+/*
+Represents a random ordering of the positions 0 to size - 1 that is generated lazily using
+an incremental Fisher-Yates shuffle. Each position drawn costs constant time, and only the
+positions that have been swapped so far are stored, so no copy of the positions is made
+up front. Orderings created with the same size and seed are always the same.
+ */
+public class ShuffledOrder implements PrimitiveIterator.OfInt {
+    private final int size;
+    private final long seed;
+    private final Random random;
+    private final Map<Integer, Integer> swapped;
+    private int drawn;
+
+    // Requires: size >= 0
+    // Effects: creates a random ordering of the positions 0 to size - 1 generated from seed
+    public ShuffledOrder(int size, long seed) {
+        this.size = size;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.swapped = new HashMap<>();
+        this.drawn = 0;
+    }
+
+    // Effects: returns true if there are positions that have not yet been drawn
+    @Override
+    public boolean hasNext() {
+        return drawn < size;
+    }
+
+    // Modifies: this
+    // Effects: draws and returns the next position in the ordering. Throws
+    //          NoSuchElementException if every position has been drawn.
+    @Override
+    public int nextInt() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int pick = drawn + random.nextInt(size - drawn);
+        int position = positionAt(pick);
+        swapped.put(pick, positionAt(drawn));
+        swapped.remove(drawn);
+        drawn++;
+        return position;
+    }
+
+    // Effects: returns the position currently stored at slot i of the (virtual) shuffled array
+    private int positionAt(int i) {
+        return swapped.getOrDefault(i, i);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,119 @@
+package model;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+Represents an off-heap arena that stores the front and back text of flashcards as UTF-8 bytes
+in direct byte buffers, outside of the Java heap. Text is only decoded back into Strings when
+it is read. The arena is append-only: text of cards that are released stays in the arena, but
+is no longer counted as used, until its owner copies the text still used into a new arena. Each
+card's text is stored as one record
+(front length, front bytes, back length, back bytes) and is identified by a handle made from
+the chunk the record is in and its offset within the chunk.
+ */
+public class TextArena implements CardTextStore {
+    private static final int DEFAULT_CHUNK_BYTES = 1 << 20;
+    private final int chunkBytes;
+    private final List<ByteBuffer> chunks;
+    private ByteBuffer current;
+    private long reservedBytes;
+    private long usedBytes;
+
+    // Effects: creates an empty arena that reserves off-heap memory 1 MB at a time
+    public TextArena() {
+        this(DEFAULT_CHUNK_BYTES);
+    }
+
+    // Requires: chunkBytes > 0
+    // Effects: creates an empty arena that reserves off-heap memory chunkBytes at a time
+    public TextArena(int chunkBytes) {
+        this.chunkBytes = chunkBytes;
+        this.chunks = new ArrayList<>();
+    }
+
+    // Modifies: this
+    // Effects: stores front and back in the arena and returns the handle they are stored under
+    public synchronized long add(String front, String back) {
+        byte[] frontBytes = front.getBytes(StandardCharsets.UTF_8);
+        byte[] backBytes = back.getBytes(StandardCharsets.UTF_8);
+        int recordBytes = 2 * Integer.BYTES + frontBytes.length + backBytes.length;
+        if (current == null || current.remaining() < recordBytes) {
+            current = ByteBuffer.allocateDirect(Math.max(chunkBytes, recordBytes));
+            chunks.add(current);
+            reservedBytes += current.capacity();
+        }
+        long handle = ((long) (chunks.size() - 1) << 32) | current.position();
+        current.putInt(frontBytes.length).put(frontBytes).putInt(backBytes.length).put(backBytes);
+        usedBytes += recordBytes;
+        return handle;
+    }
+
+    // Requires: handle was issued by this arena and has not been released
+    // Modifies: this
+    // Effects: marks the text stored under handle as no longer used
+    public synchronized void release(long handle) {
+        ByteBuffer chunk = chunks.get(chunkOf(handle));
+        int offset = offsetOf(handle);
+        int frontLength = chunk.getInt(offset);
+        int backLength = chunk.getInt(offset + Integer.BYTES + frontLength);
+        usedBytes -= 2 * Integer.BYTES + frontLength + backLength;
+    }
+
+    // Effects: returns true if the arena has reserved more than one chunk and less than half of the
+    // memory it has reserved holds text that is still used
+    public synchronized boolean isMostlyReleased() {
+        return reservedBytes > chunkBytes && usedBytes * 2 < reservedBytes;
+    }
+
+    // Effects: returns a new, empty arena that reserves memory the same number of bytes at a time
+    public TextArena emptyCopy() {
+        return new TextArena(chunkBytes);
+    }
+
+    @Override
+    public String getFront(long handle) {
+        return decode(chunks().get(chunkOf(handle)), offsetOf(handle));
+    }
+
+    @Override
+    public String getBack(long handle) {
+        ByteBuffer chunk = chunks().get(chunkOf(handle));
+        int offset = offsetOf(handle);
+        return decode(chunk, offset + Integer.BYTES + chunk.getInt(offset));
+    }
+
+    // Effects: returns the number of bytes of off-heap memory reserved by the arena
+    public synchronized long getReservedBytes() {
+        return reservedBytes;
+    }
+
+    // Effects: returns the number of bytes of off-heap memory holding text that is still used
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    // Effects: returns the chunks of the arena, safely published to the calling thread
+    private synchronized List<ByteBuffer> chunks() {
+        return chunks;
+    }
+
+    // Effects: decodes the length-prefixed UTF-8 text stored at offset in chunk
+    private static String decode(ByteBuffer chunk, int offset) {
+        byte[] bytes = new byte[chunk.getInt(offset)];
+        chunk.get(offset + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Effects: returns the index of the chunk a handle refers to
+    private static int chunkOf(long handle) {
+        return (int) (handle >>> 32);
+    }
+
+    // Effects: returns the offset within its chunk that a handle refers to
+    private static int offsetOf(long handle) {
+        return (int) handle;
+    }
+}
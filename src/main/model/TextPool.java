@@ -0,0 +1,86 @@
+package model;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/*
+Represents a pool of card text shared between flashcards (Flyweight Pattern). When the same
+text appears on many cards, possibly in different decks, the pool hands back one shared String
+instead of keeping a separate copy for every card. Entries are only weakly referenced, so text
+that is no longer used by any card is garbage collected. The pool keeps a running total of the
+estimated size of the duplicate copies it has replaced with shared text. The total only grows:
+it is not reduced when the cards holding shared text are deleted, so it measures the work the
+pool has done rather than the memory it saves at any one time.
+ */
+public class TextPool {
+    // estimated heap size of an empty String, including its backing array
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final TextPool shared = new TextPool();
+    private final Map<String, WeakReference<String>> pool;
+    private long lookups;
+    private long hits;
+    private long cumulativeBytesSaved;
+
+    // Effects: creates an empty text pool
+    public TextPool() {
+        pool = new WeakHashMap<>();
+    }
+
+    // Effects: returns the text pool shared by the whole application
+    public static TextPool getShared() {
+        return shared;
+    }
+
+    // Requires: text must not be null
+    // Modifies: this
+    // Effects: returns the pooled String equal to text, adding text to the pool if no equal
+    // String is pooled yet
+    public synchronized String intern(String text) {
+        lookups++;
+        WeakReference<String> ref = pool.get(text);
+        String pooled = ref == null ? null : ref.get();
+        if (pooled == null) {
+            pool.put(text, new WeakReference<>(text));
+            return text;
+        }
+        hits++;
+        if (pooled != text) {
+            cumulativeBytesSaved += estimateSize(text);
+        }
+        return pooled;
+    }
+
+    // Effects: returns the number of distinct pieces of text currently pooled
+    public synchronized int size() {
+        return pool.size();
+    }
+
+    // Effects: returns the number of times text was looked up in the pool
+    public synchronized long getLookups() {
+        return lookups;
+    }
+
+    // Effects: returns the number of lookups that found text that was already pooled
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    // Effects: returns the estimated number of bytes of duplicate text replaced by pooled text since
+    // the pool was created. This is a running total that never goes down, so it can be more than
+    // the heap saved now if cards holding the shared text have since been dropped.
+    public synchronized long getCumulativeBytesSaved() {
+        return cumulativeBytesSaved;
+    }
+
+    // Effects: returns an estimate of the heap used by text. Text made only of Latin-1
+    // characters is stored with one byte per character, other text with two.
+    static long estimateSize(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0xFF) {
+                return STRING_OVERHEAD_BYTES + 2L * text.length();
+            }
+        }
+        return STRING_OVERHEAD_BYTES + text.length();
+    }
+}
@@ -0,0 +1,155 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+Represents a set of tokens stored as a prefix trie, so that every token starting with a given
+prefix can be found without scanning the whole set. Each node keeps its children in arrays
+sorted by character, so tokens with a prefix are returned in sorted order.
+ */
+public class TokenTrie {
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private final Node root;
+    private int size;
+
+    // Effects: creates an empty trie
+    public TokenTrie() {
+        root = new Node();
+        size = 0;
+    }
+
+    // Modifies: this
+    // Effects: adds token to the trie. Returns true if it was not already in the trie.
+    public boolean add(String token) {
+        Node node = root;
+        for (int i = 0; i < token.length(); i++) {
+            node = node.childOrAdd(token.charAt(i));
+        }
+        if (node.terminal) {
+            return false;
+        }
+        node.terminal = true;
+        size++;
+        return true;
+    }
+
+    // Modifies: this
+    // Effects: removes token from the trie, along with any nodes that no longer lead to a token.
+    // Returns true if token was in the trie.
+    public boolean remove(String token) {
+        Node[] path = new Node[token.length() + 1];
+        path[0] = root;
+        for (int i = 0; i < token.length(); i++) {
+            path[i + 1] = path[i].child(token.charAt(i));
+            if (path[i + 1] == null) {
+                return false;
+            }
+        }
+        Node node = path[token.length()];
+        if (!node.terminal) {
+            return false;
+        }
+        node.terminal = false;
+        size--;
+        for (int i = token.length(); i > 0 && !path[i].terminal && path[i].keys.length == 0; i--) {
+            path[i - 1].removeChild(token.charAt(i - 1));
+        }
+        return true;
+    }
+
+    // Effects: returns true if token is in the trie
+    public boolean contains(String token) {
+        Node node = find(token);
+        return node != null && node.terminal;
+    }
+
+    // Effects: returns the tokens in the trie that start with prefix, in sorted order
+    public List<String> withPrefix(String prefix) {
+        List<String> found = new ArrayList<>();
+        Node node = find(prefix);
+        if (node != null) {
+            collect(node, new StringBuilder(prefix), found);
+        }
+        return found;
+    }
+
+    // Effects: returns the number of tokens in the trie
+    public int size() {
+        return size;
+    }
+
+    // Effects: returns the node reached by following prefix from the root, or null if there is none
+    private Node find(String prefix) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    // Modifies: text, found
+    // Effects: adds the tokens below node to found in sorted order, where text holds the characters
+    // on the path to node
+    private static void collect(Node node, StringBuilder text, List<String> found) {
+        if (node.terminal) {
+            found.add(text.toString());
+        }
+        for (int i = 0; i < node.keys.length; i++) {
+            text.append(node.keys[i]);
+            collect(node.children[i], text, found);
+            text.setLength(text.length() - 1);
+        }
+    }
+
+    // Represents a node in the trie, with its children sorted by character
+    private static class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private boolean terminal;
+
+        // Effects: returns the child for key c, or null if there is none
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        // Modifies: this
+        // Effects: returns the child for key c, adding it if there is none
+        Node childOrAdd(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -i - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[keys.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, keys.length - at);
+            newKeys[at] = c;
+            newChildren[at] = new Node();
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[at];
+        }
+
+        // Requires: this has a child for key c
+        // Modifies: this
+        // Effects: removes the child for key c
+        void removeChild(char c) {
+            int at = Arrays.binarySearch(keys, c);
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[keys.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(keys, at + 1, newKeys, at, keys.length - at - 1);
+            System.arraycopy(children, at + 1, newChildren, at, keys.length - at - 1);
+            keys = newKeys.length == 0 ? NO_KEYS : newKeys;
+            children = newChildren.length == 0 ? NO_CHILDREN : newChildren;
+        }
+    }
+}
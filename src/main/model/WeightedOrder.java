@@ -0,0 +1,77 @@
+package model;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+/*
+Represents an order for a quiz that shows cards the user keeps getting wrong more often. Each
+draw picks a position in a card set at random, with replacement, in proportion to a weight
+given to its card, so a quiz has as many draws as there are cards but may show a card more
+than once. Weights start from each card's answer history in the review scheduler (cards whose
+ease has dropped from wrong answers weigh more) and are updated as the user answers cards
+during the quiz. Draws take expected constant time using a WeightedSampler.
+ */
+public class WeightedOrder implements PrimitiveIterator.OfInt {
+    public static final double MIN_WEIGHT = 1.0 / 64;
+    public static final double MAX_WEIGHT = 64;
+    private final WeightedSampler sampler;
+    private int remaining;
+
+    // Effects: creates an order over the positions of cards, weighted by the history of each card
+    //          in scheduler, using random to draw
+    public WeightedOrder(CardSet cards, ReviewScheduler scheduler, Random random) {
+        double[] weights = new double[cards.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = historyWeight(scheduler.getSchedule(cards.get(i).getIdNumber()));
+        }
+        this.sampler = new WeightedSampler(weights, random);
+        this.remaining = weights.length;
+    }
+
+    // Effects: returns true if the quiz has draws left
+    @Override
+    public boolean hasNext() {
+        return remaining > 0;
+    }
+
+    // Modifies: this
+    // Effects: draws and returns the position of the next card to show. Throws
+    //          NoSuchElementException if the quiz has no draws left.
+    @Override
+    public int nextInt() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        remaining--;
+        return sampler.sample();
+    }
+
+    // Requires: 0 <= position < number of cards in the order
+    // Modifies: this
+    // Effects: doubles the weight of the card at position if it was answered incorrectly, and
+    //          halves it if it was answered correctly, keeping it between MIN_WEIGHT and
+    //          MAX_WEIGHT
+    public void recordAnswer(int position, boolean correct) {
+        double weight = sampler.getWeight(position) * (correct ? 0.5 : 2);
+        sampler.setWeight(position, Math.max(MIN_WEIGHT, Math.min(MAX_WEIGHT, weight)));
+    }
+
+    // Requires: 0 <= position < number of cards in the order
+    // Effects: returns the current weight of the card at position
+    public double getWeight(int position) {
+        return sampler.getWeight(position);
+    }
+
+    // Effects: returns the starting weight of a card with the given schedule: 1 for a card that
+    //          has never been reviewed (or has no schedule), more for cards whose ease is lower
+    //          than the initial ease, and less for cards whose ease is higher
+    static double historyWeight(CardSchedule schedule) {
+        if (schedule == null) {
+            return 1;
+        }
+        double offset = 0.5 - CardSchedule.MINIMUM_EASE;
+        double weight = (CardSchedule.INITIAL_EASE + offset) / (schedule.getEase() + offset);
+        return Math.max(MIN_WEIGHT, Math.min(MAX_WEIGHT, weight));
+    }
+}
@@ -0,0 +1,190 @@
+package model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/*
+Represents a sampler that draws the indices 0 to size - 1 at random, with replacement, in
+proportion to a weight given to each index. Indices are grouped into classes of weights that
+are within a factor of two of each other. A class is chosen using an alias table built over
+the classes, then an index in the class is chosen uniformly and accepted with probability
+weight / (upper bound of its class), which is at least one half. Each draw therefore takes
+expected constant time. Changing a weight moves one index between classes in constant time;
+only the small alias table over the classes is rebuilt, and the weights are never rescanned.
+ */
+public class WeightedSampler {
+    public static final double MIN_WEIGHT = 0x1p-30;
+    public static final double MAX_WEIGHT = 0x1p30;
+    private static final int MIN_EXPONENT = Math.getExponent(MIN_WEIGHT);
+    private static final int CLASSES = Math.getExponent(MAX_WEIGHT) - MIN_EXPONENT + 1;
+    private final Random random;
+    private final double[] weights;
+    private final int[] slots;
+    private final int[][] members;
+    private final int[] counts;
+    private int[] tableClasses;
+    private double[] tableProbabilities;
+    private int[] tableAliases;
+
+    // Requires: every weight is between MIN_WEIGHT and MAX_WEIGHT
+    // Effects: creates a sampler over the indices of weights, using random to draw
+    public WeightedSampler(double[] weights, Random random) {
+        this.random = random;
+        this.weights = new double[weights.length];
+        this.slots = new int[weights.length];
+        this.members = new int[CLASSES][];
+        this.counts = new int[CLASSES];
+        for (int i = 0; i < weights.length; i++) {
+            this.weights[i] = weights[i];
+            addToClass(i);
+        }
+    }
+
+    // Requires: 0 <= index < size() and weight is between MIN_WEIGHT and MAX_WEIGHT
+    // Modifies: this
+    // Effects: sets the weight of index
+    public void setWeight(int index, double weight) {
+        int oldClass = classOf(weights[index]);
+        weights[index] = weight;
+        if (classOf(weight) != oldClass) {
+            removeFromClass(index, oldClass);
+            addToClass(index);
+        }
+    }
+
+    // Modifies: this
+    // Effects: draws an index with probability proportional to its weight. Throws
+    //          NoSuchElementException if the sampler has no indices.
+    public int sample() {
+        if (weights.length == 0) {
+            throw new NoSuchElementException();
+        }
+        if (tableClasses == null) {
+            buildTable();
+        }
+        while (true) {
+            int column = random.nextInt(tableClasses.length);
+            int weightClass = random.nextDouble() < tableProbabilities[column]
+                    ? tableClasses[column] : tableClasses[tableAliases[column]];
+            int index = members[weightClass][random.nextInt(counts[weightClass])];
+            if (random.nextDouble() * upperBound(weightClass) < weights[index]) {
+                return index;
+            }
+        }
+    }
+
+    // Requires: 0 <= index < size()
+    // Effects: returns the weight of index
+    public double getWeight(int index) {
+        return weights[index];
+    }
+
+    // Effects: returns the number of indices in the sampler
+    public int size() {
+        return weights.length;
+    }
+
+    // Modifies: this
+    // Effects: adds index to the end of the class of its weight
+    private void addToClass(int index) {
+        int weightClass = classOf(weights[index]);
+        if (members[weightClass] == null) {
+            members[weightClass] = new int[4];
+        } else if (counts[weightClass] == members[weightClass].length) {
+            members[weightClass] = Arrays.copyOf(members[weightClass], counts[weightClass] * 2);
+        }
+        slots[index] = counts[weightClass];
+        members[weightClass][counts[weightClass]++] = index;
+        tableClasses = null;
+    }
+
+    // Modifies: this
+    // Effects: removes index from weightClass by moving the last member of the class into its slot
+    private void removeFromClass(int index, int weightClass) {
+        int last = members[weightClass][--counts[weightClass]];
+        members[weightClass][slots[index]] = last;
+        slots[last] = slots[index];
+        tableClasses = null;
+    }
+
+    // Modifies: this
+    // Effects: builds an alias table (Vose's method) over the non-empty classes, where each class
+    //          is chosen in proportion to its number of members times its upper bound
+    private void buildTable() {
+        int classes = 0;
+        for (int count : counts) {
+            classes += count > 0 ? 1 : 0;
+        }
+        tableClasses = new int[classes];
+        double[] mass = new double[classes];
+        double total = 0;
+        for (int c = 0, column = 0; c < CLASSES; c++) {
+            if (counts[c] > 0) {
+                tableClasses[column] = c;
+                mass[column] = counts[c] * upperBound(c);
+                total += mass[column++];
+            }
+        }
+        for (int column = 0; column < classes; column++) {
+            mass[column] = mass[column] * classes / total;
+        }
+        fillAliases(mass);
+    }
+
+    // Modifies: this
+    // Effects: fills the probability and alias columns of the table from mass, where the masses
+    //          of the columns add up to the number of columns
+    private void fillAliases(double[] mass) {
+        int columns = mass.length;
+        tableProbabilities = new double[columns];
+        tableAliases = new int[columns];
+        int[] work = new int[columns];
+        int small = partition(mass, work);
+        int large = small;
+        while (small > 0 && large < columns) {
+            int less = work[--small];
+            int more = work[large];
+            tableProbabilities[less] = mass[less];
+            tableAliases[less] = more;
+            mass[more] += mass[less] - 1;
+            if (mass[more] < 1) {
+                large++;
+                work[small++] = more;
+            }
+        }
+        for (int i = 0; i < small; i++) {
+            tableProbabilities[work[i]] = 1;
+        }
+        for (int i = large; i < columns; i++) {
+            tableProbabilities[work[i]] = 1;
+        }
+    }
+
+    // Modifies: work
+    // Effects: stores the columns with less than average mass at the front of work and the others
+    //          at the back, and returns the number of columns with less than average mass
+    private static int partition(double[] mass, int[] work) {
+        int small = 0;
+        int large = mass.length;
+        for (int column = 0; column < mass.length; column++) {
+            if (mass[column] < 1) {
+                work[small++] = column;
+            } else {
+                work[--large] = column;
+            }
+        }
+        return small;
+    }
+
+    // Effects: returns the class of weight, where class c holds weights in [2^e, 2^(e+1))
+    //          for e = c + MIN_EXPONENT
+    private static int classOf(double weight) {
+        return Math.getExponent(weight) - MIN_EXPONENT;
+    }
+
+    // Effects: returns the exclusive upper bound on the weights in weightClass
+    private static double upperBound(int weightClass) {
+        return Math.scalb(1.0, weightClass + MIN_EXPONENT + 1);
+    }
+}
@@ -0,0 +1,224 @@
+package persistence;
+
+import model.CardSchedule;
+import model.Deck;
+import model.DeckChangeListener;
+import model.Flashcard;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+Represents a saver that saves the changes made to a deck to its file in the background. The
+changes are recorded by the deck's journal as they are made; the saver waits until no change has
+been made for a quiet period and then appends all the changes recorded so far in one write, so a
+burst of edits, such as adding many cards, is saved once rather than once per change. Saves run
+on a single background thread of the saver's own, so the thread that changes the deck, such as
+the Swing event dispatch thread or a console loop, never waits for the disk. If a save fails,
+the changes stay recorded and are saved by the next attempt, made after the next quiet period.
+ */
+public class AutoSaver implements DeckChangeListener {
+    public static final long DEFAULT_QUIET_MILLIS = 2000;
+    private final DeckJournal journal;
+    private final long quietNanos;
+    private final ScheduledThreadPoolExecutor executor;
+    private final AtomicBoolean scheduled;
+    private volatile boolean closed;
+    private volatile Deck deck;
+    private volatile long lastChange;
+    private volatile Exception lastError;
+
+    // Requires: quietMillis > 0
+    // Effects: creates a saver that saves the changes recorded by journal once no change has been
+    // made for quietMillis milliseconds, and that is not watching a deck
+    public AutoSaver(DeckJournal journal, long quietMillis) {
+        this.journal = journal;
+        this.quietNanos = TimeUnit.MILLISECONDS.toNanos(quietMillis);
+        this.scheduled = new AtomicBoolean();
+        this.executor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "Autosave " + journal.getSource());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    // Requires: journal is tracking deck
+    // Modifies: this, deck
+    // Effects: starts saving the changes made to deck in the background, and stops watching the deck
+    // watched before
+    public void track(Deck deck) {
+        if (this.deck != null) {
+            this.deck.removeChangeListener(this);
+        }
+        this.deck = deck;
+        deck.addChangeListener(this);
+    }
+
+    // Modifies: this
+    // Effects: schedules a save once no change has been made for the quiet period
+    @Override
+    public void cardAdded(Deck deck, Flashcard card) {
+        changed();
+    }
+
+    // Modifies: this
+    // Effects: schedules a save once no change has been made for the quiet period
+    @Override
+    public void cardRemoved(Deck deck, Flashcard card) {
+        changed();
+    }
+
+    // Modifies: this
+    // Effects: schedules a save once no change has been made for the quiet period
+    @Override
+    public void scheduleChanged(Deck deck, CardSchedule schedule) {
+        changed();
+    }
+
+    // Effects: saves the changes recorded so far on the background thread, waiting for the save to
+    // finish
+    // throws IOException if an error occurs writing to file, and InterruptedException if the
+    // calling thread is interrupted while waiting
+    public void flush() throws IOException, InterruptedException {
+        try {
+            executor.submit(() -> {
+                journal.saveChanges();
+                return null;
+            }).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Unable to save changes to " + journal.getSource(), e.getCause());
+        }
+    }
+
+    // Modifies: this
+    // Effects: saves the changes recorded so far, waiting for the save to finish, stops watching the
+    // deck and stops the background thread. Does nothing if the saver is closed already.
+    // throws IOException if an error occurs writing to file, and InterruptedException if the
+    // calling thread is interrupted while waiting
+    public void close() throws IOException, InterruptedException {
+        if (!stopWatching()) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            executor.shutdownNow();
+            scheduled.set(false);
+        }
+    }
+
+    // Modifies: this, deck
+    // Effects: stops watching the deck and stops the journal recording its changes, then saves the
+    // changes recorded so far on the background thread and stops it, without waiting for the save.
+    // Used when the deck's file is no longer the one being edited. Does nothing if the saver is
+    // closed already.
+    public void closeLater() {
+        if (!stopWatching()) {
+            return;
+        }
+        journal.stopRecording();
+        executor.execute(() -> {
+            scheduled.set(false);
+            try {
+                journal.saveChanges();
+                lastError = null;
+            } catch (IOException | RuntimeException e) {
+                lastError = e;
+            }
+            executor.shutdown();
+        });
+    }
+
+    // Modifies: this, deck
+    // Effects: stops watching the deck, stops the journal tracking it, forgetting the changes not yet
+    // saved, and stops the background thread, so nothing more is written to the journal's file.
+    // Used when the deck has been saved to another file. Does nothing if the saver is closed already.
+    public void discard() {
+        if (!stopWatching()) {
+            return;
+        }
+        journal.untrack();
+        executor.shutdownNow();
+        scheduled.set(false);
+    }
+
+    // Effects: returns true if the saver has been closed
+    public boolean isClosed() {
+        return closed;
+    }
+
+    // Effects: returns true if a save is waiting for the quiet period to pass
+    public boolean isSaveScheduled() {
+        return scheduled.get();
+    }
+
+    // Effects: returns the error raised by the last background save, or null if it succeeded or no
+    // save has been made
+    public Exception getLastError() {
+        return lastError;
+    }
+
+    public DeckJournal getJournal() {
+        return journal;
+    }
+
+    // Modifies: this, deck
+    // Effects: marks the saver closed and stops watching the deck. Returns false if the saver was
+    // closed already.
+    private synchronized boolean stopWatching() {
+        if (closed) {
+            return false;
+        }
+        closed = true;
+        if (deck != null) {
+            deck.removeChangeListener(this);
+        }
+        return true;
+    }
+
+    // Modifies: this
+    // Effects: notes the time of a change and schedules a save after the quiet period, unless one is
+    // scheduled already
+    private void changed() {
+        lastChange = System.nanoTime();
+        schedule(quietNanos);
+    }
+
+    // Modifies: this
+    // Effects: schedules saveWhenQuiet to run after delayNanos, unless it is scheduled already
+    private void schedule(long delayNanos) {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.schedule(this::saveWhenQuiet, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Modifies: this
+    // Effects: on the background thread, waits out the rest of the quiet period if a change has been
+    // made since the save was scheduled, then saves. If the deck still has unsaved changes after
+    // the save, because the save failed or changes were made while it ran, schedules another.
+    private void saveWhenQuiet() {
+        long remaining = quietNanos - (System.nanoTime() - lastChange);
+        if (remaining > 0) {
+            executor.schedule(this::saveWhenQuiet, remaining, TimeUnit.NANOSECONDS);
+            return;
+        }
+        scheduled.set(false);
+        try {
+            journal.saveChanges();
+            lastError = null;
+        } catch (IOException | RuntimeException e) {
+            lastError = e;
+        }
+        Deck watched = deck;
+        if (!closed && watched != null && watched.isDirty() && journal.isTracking(watched)) {
+            schedule(quietNanos);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package persistence;
+
+import model.CardSchedule;
+import model.Deck;
+import model.Flashcard;
+import model.TextPool;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+Represents a compact binary deck format that is read by mapping the file into memory. A file
+starts with the magic number and format version, followed by:
+ - the header record: name, card count, learned count, next due time, string count and
+   schedule count
+ - the string table: every distinct front and back text once, as UTF-8
+ - one record per card: id, and the positions of its front and back in the string table
+ - one record per review schedule: card id, ease, interval, repetitions and due time
+ - the offset table: the file position of every string and then of every card record, as
+   four-byte integers, followed by the file position of the offset table itself
+The offset table lets MappedDeck find any card without reading the cards before it. Integers
+in the header and records are written as unsigned varints (seven bits per byte, low bits first) and the ease as
+the eight bytes of the double. Strings and records are prefixed by their length in bytes, so a
+reader can skip fields added to a record by a later version of the format. Files must be
+smaller than 2 GB. Version 1 files, which have no offset table, can still be read. Journals of binary
+decks are kept and replayed the same way as those of JSON decks.
+ */
+public class BinaryDeckCodec implements DeckCodec {
+    public static final String EXTENSION = ".fdeck";
+    public static final int MAGIC = 0x46444B31;
+    public static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private final TextPool textPool;
+
+    // Effects: creates a binary codec that does not pool card text
+    public BinaryDeckCodec() {
+        this(null);
+    }
+
+    // Effects: creates a binary codec that shares the text of cards it reads through textPool, if
+    // it is not null
+    public BinaryDeckCodec(TextPool textPool) {
+        this.textPool = textPool;
+    }
+
+    // Effects: reads the deck saved in source, then replays the changes in its journal
+    // throws IOException if an error occurs reading data from file or the file does not hold a
+    // binary deck
+    @Override
+    public Deck read(String source) throws IOException {
+        ByteBuffer buffer = map(source);
+        try {
+            Header header = readHeader(buffer);
+            Deck deck = new Deck(header.name);
+            deck.addAll(readCards(buffer, header));
+            for (int i = 0; i < header.scheduleCount; i++) {
+                CardSchedule schedule = readSchedule(buffer);
+                if (deck.getCard(String.valueOf(schedule.getCardId())) != null) {
+                    deck.getScheduler().restore(schedule);
+                }
+            }
+            new JsonReader(source, textPool).replayJournal(deck);
+            deck.markSaved();
+            return deck;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated or damaged binary deck: " + source, e);
+        }
+    }
+
+    // Effects: reads only the header record of the deck saved in source and returns it, counting
+    // the cards added and removed in its journal
+    // throws IOException if an error occurs reading data from file or the file does not hold a
+    // binary deck
+    @Override
+    public DeckHeader readHeader(String source) throws IOException {
+        Header header = readHeader(map(source));
+        return new DeckHeader(source, header.name, header.cardCount + DeckJournal.cardCountChange(source),
+                header.learnedCount, header.nextDue, DeckJournal.lastModified(source));
+    }
+
+    // Effects: writes deck to destination in the binary format
+    // throws IOException if an error occurs writing to file or the deck does not fit in 2 GB
+    @Override
+    public void write(Deck deck, String destination) throws IOException {
+        List<Flashcard> cards = deck.getCardView();
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        for (Flashcard card : cards) {
+            strings.putIfAbsent(card.getFront(), strings.size());
+            strings.putIfAbsent(card.getBack(), strings.size());
+        }
+        Collection<CardSchedule> schedules = deck.hasScheduler()
+                ? deck.getScheduler().getSchedules() : Collections.emptyList();
+        try (CountingStream out = new CountingStream(new BufferedOutputStream(
+                Files.newOutputStream(Paths.get(destination)), BUFFER_SIZE))) {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            writeHeader(out, record, deck, strings.size(), schedules.size());
+            int[] offsets = new int[strings.size() + cards.size()];
+            int next = 0;
+            for (String text : strings.keySet()) {
+                offsets[next++] = out.position();
+                writeString(out, text);
+            }
+            writeCards(out, record, cards, strings, offsets, next);
+            writeSchedules(out, record, schedules);
+            writeOffsets(out, offsets);
+            out.position();
+        }
+    }
+
+    // Effects: writes the magic number, the format version and the header record of deck to out,
+    // using record as scratch space
+    private static void writeHeader(OutputStream out, ByteArrayOutputStream record, Deck deck, int stringCount,
+                                    int scheduleCount) throws IOException {
+        writeInt(out, MAGIC);
+        out.write(VERSION);
+        writeString(record, deck.getName());
+        writeVarint(record, deck.getDeckSize());
+        writeVarint(record, deck.getLearnedCount());
+        writeVarint(record, deck.getNextDue());
+        writeVarint(record, stringCount);
+        writeVarint(record, scheduleCount);
+        writeRecord(out, record);
+    }
+
+    // Modifies: offsets
+    // Effects: writes one record for each card to out, using record as scratch space, and records
+    // the position of each record in offsets starting at index first
+    private static void writeCards(CountingStream out, ByteArrayOutputStream record, List<Flashcard> cards,
+                                   Map<String, Integer> strings, int[] offsets, int first) throws IOException {
+        int next = first;
+        for (Flashcard card : cards) {
+            offsets[next++] = out.position();
+            writeVarint(record, card.getIdNumber());
+            writeVarint(record, strings.get(card.getFront()));
+            writeVarint(record, strings.get(card.getBack()));
+            writeRecord(out, record);
+        }
+    }
+
+    // Effects: writes one record for each schedule to out, using record as scratch space
+    private static void writeSchedules(OutputStream out, ByteArrayOutputStream record,
+                                       Collection<CardSchedule> schedules) throws IOException {
+        for (CardSchedule schedule : schedules) {
+            writeVarint(record, schedule.getCardId());
+            writeLong(record, Double.doubleToLongBits(schedule.getEase()));
+            writeVarint(record, schedule.getIntervalDays());
+            writeVarint(record, schedule.getRepetitions());
+            writeVarint(record, schedule.getDue());
+            writeRecord(out, record);
+        }
+    }
+
+    // Effects: writes offsets to out as the offset table, followed by the position of the table
+    private static void writeOffsets(CountingStream out, int[] offsets) throws IOException {
+        int table = out.position();
+        for (int offset : offsets) {
+            writeInt(out, offset);
+        }
+        writeInt(out, table);
+    }
+
+    // Modifies: record
+    // Effects: writes the length of record and then its bytes to out, and empties record
+    private static void writeRecord(OutputStream out, ByteArrayOutputStream record) throws IOException {
+        writeVarint(out, record.size());
+        record.writeTo(out);
+        record.reset();
+    }
+
+    // Effects: writes text to out as its length in bytes followed by its UTF-8 bytes
+    private static void writeString(OutputStream out, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    // Effects: writes value to out as an unsigned varint
+    static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    // Effects: writes value to out as four bytes, high byte first
+    private static void writeInt(OutputStream out, int value) throws IOException {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write(value >>> shift);
+        }
+    }
+
+    // Effects: writes value to out as eight bytes, high byte first
+    private static void writeLong(OutputStream out, long value) throws IOException {
+        writeInt(out, (int) (value >>> 32));
+        writeInt(out, (int) value);
+    }
+
+    // Effects: maps the whole of source into memory for reading and returns the mapped buffer.
+    // The mapping stays valid after the file is closed.
+    // throws IOException if source cannot be read or is 2 GB or larger
+    static ByteBuffer map(String source) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(source), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary deck is too large to map: " + source);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    // Modifies: buffer
+    // Effects: checks the magic number and version at the start of buffer, then reads the header
+    // record and returns it, leaving buffer at the start of the string table
+    // throws IOException if buffer does not start with a binary deck of a version this codec reads,
+    // or the header record is truncated or has counts that cannot fit in the rest of buffer
+    static Header readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 5 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary deck");
+        }
+        int version = buffer.get() & 0xFF;
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported binary deck version " + version);
+        }
+        try {
+            int end = recordEnd(buffer);
+            Header header = new Header();
+            header.version = version;
+            header.name = readString(buffer);
+            header.cardCount = readCount(buffer, end);
+            header.learnedCount = (int) readVarint(buffer);
+            header.nextDue = readVarint(buffer);
+            header.stringCount = readCount(buffer, end);
+            header.scheduleCount = readCount(buffer, end);
+            buffer.position(end);
+            return header;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IOException("Damaged binary deck header", e);
+        }
+    }
+
+    // Modifies: buffer
+    // Effects: reads a count of records from the header record, which ends at end, and returns it.
+    // Every record takes at least one byte, so a count larger than the bytes after the header is
+    // damaged.
+    private static int readCount(ByteBuffer buffer, int end) {
+        long count = readVarint(buffer);
+        if (count > buffer.limit() - (long) end) {
+            throw new IllegalArgumentException("Record count " + count + " does not fit in the file");
+        }
+        return (int) count;
+    }
+
+    // Modifies: buffer
+    // Effects: reads the string table and then the card records described by header from buffer,
+    // and returns the cards
+    private List<Flashcard> readCards(ByteBuffer buffer, Header header) {
+        String[] strings = new String[header.stringCount];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = pooled(readString(buffer));
+        }
+        List<Flashcard> cards = new ArrayList<>(header.cardCount);
+        for (int i = 0; i < header.cardCount; i++) {
+            cards.add(readCard(buffer, strings));
+        }
+        return cards;
+    }
+
+    // Modifies: buffer
+    // Effects: reads a card record from buffer and returns the card, looking its text up in strings
+    private static Flashcard readCard(ByteBuffer buffer, String[] strings) {
+        int end = recordEnd(buffer);
+        long id = readVarint(buffer);
+        String front = strings[(int) readVarint(buffer)];
+        String back = strings[(int) readVarint(buffer)];
+        buffer.position(end);
+        return new Flashcard(id, front, back);
+    }
+
+    // Modifies: buffer
+    // Effects: reads a schedule record from buffer and returns the schedule
+    private static CardSchedule readSchedule(ByteBuffer buffer) {
+        int end = recordEnd(buffer);
+        CardSchedule schedule = new CardSchedule(readVarint(buffer), Double.longBitsToDouble(buffer.getLong()),
+                (int) readVarint(buffer), (int) readVarint(buffer), readVarint(buffer));
+        buffer.position(end);
+        return schedule;
+    }
+
+    // Modifies: buffer
+    // Effects: reads the length of the record that starts at buffer's position and returns the
+    // position just after the record. Throws BufferUnderflowException if the record would run
+    // past the end of buffer.
+    static int recordEnd(ByteBuffer buffer) {
+        int length = readLength(buffer);
+        return buffer.position() + length;
+    }
+
+    // Modifies: buffer
+    // Effects: reads a length-prefixed UTF-8 string from buffer and returns it. Throws
+    // BufferUnderflowException if the string would run past the end of buffer.
+    static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[readLength(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Modifies: buffer
+    // Effects: reads a length in bytes from buffer and returns it. Throws BufferUnderflowException
+    // if the length is negative or fewer bytes than that remain in buffer.
+    private static int readLength(ByteBuffer buffer) {
+        long length = readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        return (int) length;
+    }
+
+    // Modifies: buffer
+    // Effects: reads an unsigned varint from buffer and returns it
+    static long readVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte next = buffer.get();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is longer than ten bytes");
+    }
+
+    // Effects: returns the pooled copy of text if this codec has a text pool. Otherwise, returns text.
+    private String pooled(String text) {
+        return textPool == null ? text : textPool.intern(text);
+    }
+
+    // Represents the format version of a file and the fields of its header record
+    static class Header {
+        int version;
+        String name;
+        int cardCount;
+        int learnedCount;
+        long nextDue;
+        int stringCount;
+        int scheduleCount;
+    }
+
+    // Represents an output stream that counts the bytes written through it
+    private static class CountingStream extends FilterOutputStream {
+        private long position;
+
+        // Effects: creates a stream that writes to out and has written no bytes
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            position++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            position += length;
+        }
+
+        // Effects: returns the number of bytes written so far
+        // throws IOException if more bytes have been written than a file position in the offset
+        // table can hold
+        int position() throws IOException {
+            if (position > Integer.MAX_VALUE) {
+                throw new IOException("Binary deck is larger than 2 GB");
+            }
+            return (int) position;
+        }
+    }
+}
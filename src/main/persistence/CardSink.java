@@ -0,0 +1,14 @@
+package persistence;
+
+import model.Flashcard;
+
+import java.util.List;
+
+// Interface representing where an importer puts the cards it makes, such as a deck. Chunks of
+// cards are passed in file order, on the thread that runs the import.
+public interface CardSink {
+
+    // Effects: adds cards, in order, and returns the number that were added
+    // throws InterruptedException if the calling thread is interrupted while adding
+    int add(List<Flashcard> cards) throws InterruptedException;
+}
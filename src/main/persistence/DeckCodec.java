@@ -0,0 +1,42 @@
+package persistence;
+
+import model.Deck;
+import model.TextPool;
+
+import java.io.IOException;
+
+// Interface representing a file format that decks can be read from and written to. Where Writable
+// describes how one object is turned into JSON, a codec describes how a whole deck is saved, so
+// the rest of the program can read and write decks without knowing which format a file uses.
+public interface DeckCodec {
+
+    // Effects: reads the deck saved in source and returns it
+    // throws IOException if an error occurs reading data from file
+    Deck read(String source) throws IOException;
+
+    // Effects: reads only the name and counts of the deck saved in source and returns them
+    // throws IOException if an error occurs reading data from file
+    DeckHeader readHeader(String source) throws IOException;
+
+    // Effects: writes deck to destination, replacing what was there
+    // throws IOException if an error occurs writing to file
+    void write(Deck deck, String destination) throws IOException;
+
+    // Effects: returns the codec for the format of the file at path, chosen by its extension:
+    // binary for BinaryDeckCodec.EXTENSION, JSON otherwise. The text of cards read by the codec
+    // is shared through textPool, if it is not null.
+    static DeckCodec forFile(String path, TextPool textPool) {
+        if (path.endsWith(BinaryDeckCodec.EXTENSION)) {
+            return new BinaryDeckCodec(textPool);
+        }
+        return new JsonDeckCodec(textPool);
+    }
+
+    // Effects: reads the deck saved in source and writes it to destination, each in the format
+    // given by its extension
+    // throws IOException if an error occurs reading or writing data
+    static void convert(String source, String destination) throws IOException {
+        Deck deck = forFile(source, null).read(source);
+        forFile(destination, null).write(deck, destination);
+    }
+}
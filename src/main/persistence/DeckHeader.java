@@ -0,0 +1,68 @@
+package persistence;
+
+import model.Deck;
+
+/*
+Represents the summary of a deck saved in a file: the file it was read from, the deck's name,
+number of cards and review stats, and when the file was last modified. A header can be read
+from file without reading the deck's cards.
+ */
+public class DeckHeader {
+    private final String source;
+    private final String name;
+    private final int cardCount;
+    private final int learnedCount;
+    private final long nextDue;
+    private final long lastModified;
+
+    // Effects: creates the header of the deck saved in source
+    DeckHeader(String source, String name, int cardCount, int learnedCount, long nextDue, long lastModified) {
+        this.source = source;
+        this.name = name;
+        this.cardCount = cardCount;
+        this.learnedCount = learnedCount;
+        this.nextDue = nextDue;
+        this.lastModified = lastModified;
+    }
+
+    // Effects: creates the header of deck, which was saved in source at time lastModified
+    static DeckHeader of(String source, Deck deck, long lastModified) {
+        return new DeckHeader(source, deck.getName(), deck.getDeckSize(), deck.getLearnedCount(),
+                deck.getNextDue(), lastModified);
+    }
+
+    // Effects: returns true if a card in the deck is due for review at time now
+    public boolean isDue(long now) {
+        return nextDue <= now;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCardCount() {
+        return cardCount;
+    }
+
+    public int getLearnedCount() {
+        return learnedCount;
+    }
+
+    public long getNextDue() {
+        return nextDue;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    // Effects: returns the deck's name, number of cards and number of learned cards
+    @Override
+    public String toString() {
+        return name + " (" + cardCount + " cards, " + learnedCount + " learned)";
+    }
+}
@@ -0,0 +1,394 @@
+package persistence;
+
+import model.CardSchedule;
+import model.Deck;
+import model.DeckChangeListener;
+import model.Flashcard;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/*
+Represents an append-only journal of changes to a deck saved in a file. The journal file next to
+the deck file holds one JSON object per line for each card added, card removed, or review
+schedule changed since the deck file was written. Saving appends only the changes recorded since
+the last save, and the journal is compacted into a new deck file once it grows past half the
+size of the deck.
+ */
+public class DeckJournal implements DeckChangeListener {
+    public static final int MIN_COMPACT_ENTRIES = 1024;
+    private final String source;
+    private final List<JSONObject> pending;
+    private Deck deck;
+    private int cardCount;
+    private int pendingChangeCount;
+    private int journalEntries;
+    private volatile long lastWritten;
+
+    // Effects: creates a journal for the deck saved in source that is not tracking a deck
+    public DeckJournal(String source) {
+        this.source = source;
+        this.pending = new ArrayList<>();
+    }
+
+    // Effects: returns the path of the journal of the deck saved in source
+    public static String journalPath(String source) {
+        return source + ".journal";
+    }
+
+    // Effects: returns the last time (in milliseconds since the epoch) the deck saved in source or
+    // its journal was modified
+    // throws IOException if the deck file cannot be read
+    public static long lastModified(String source) throws IOException {
+        long modified = Files.getLastModifiedTime(Paths.get(source)).toMillis();
+        Path journal = Paths.get(journalPath(source));
+        if (Files.exists(journal)) {
+            modified = Math.max(modified, Files.getLastModifiedTime(journal).toMillis());
+        }
+        return modified;
+    }
+
+    // Effects: passes each complete entry in the journal of the deck saved in source to consumer, in
+    // the order they were saved. Does nothing if the deck has no journal.
+    // throws IOException if an error occurs reading the journal
+    static void forEachEntry(String source, Consumer<JSONObject> consumer) throws IOException {
+        Path journal = Paths.get(journalPath(source));
+        if (!Files.exists(journal)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                JSONObject entry;
+                try {
+                    entry = new JSONObject(line);
+                } catch (JSONException e) {
+                    return;
+                }
+                consumer.accept(entry);
+            }
+        }
+    }
+
+    // Effects: returns the number of cards added less the number of cards removed in the journal
+    // of the deck saved in source
+    // throws IOException if an error occurs reading the journal
+    static int cardCountChange(String source) throws IOException {
+        int[] change = {0};
+        forEachEntry(source, entry -> {
+            if (entry.optString("op").equals("add")) {
+                change[0]++;
+            } else if (entry.optString("op").equals("remove")) {
+                change[0]--;
+            }
+        });
+        return change[0];
+    }
+
+    // Requires: deck is the deck saved in source, as just read or written
+    // Modifies: this, deck
+    // Effects: starts recording the changes made to deck, and stops recording changes to the deck
+    // tracked before
+    // throws IOException if the existing journal cannot be read
+    public synchronized void track(Deck deck) throws IOException {
+        Path journal = Paths.get(journalPath(source));
+        int entries = 0;
+        if (Files.exists(journal)) {
+            try (Stream<String> lines = Files.lines(journal, StandardCharsets.UTF_8)) {
+                entries = (int) lines.count();
+            }
+        }
+        startTracking(deck);
+        journalEntries = entries;
+    }
+
+    // Modifies: this, deck
+    // Effects: stops recording the changes made to the tracked deck and forgets the changes to it
+    // not yet saved. This journal no longer tracks a deck.
+    public void untrack() {
+        synchronized (pending) {
+            stopRecording();
+            pending.clear();
+            deck = null;
+        }
+    }
+
+    // Modifies: this, deck
+    // Effects: stops recording the changes made to the tracked deck. The changes recorded so far
+    // are kept and can still be saved by saveChanges.
+    public void stopRecording() {
+        synchronized (pending) {
+            if (deck != null) {
+                deck.removeChangeListener(this);
+            }
+        }
+    }
+
+    // Effects: returns true if this journal is recording the changes made to deck
+    public boolean isTracking(Deck deck) {
+        synchronized (pending) {
+            return this.deck == deck;
+        }
+    }
+
+    // Modifies: this, deck
+    // Effects: saves deck to source. If deck is the tracked deck, appends the changes made since
+    // it was last saved to the journal, or compacts the journal if it has grown too long.
+    // Otherwise, writes deck to a new snapshot and starts tracking it.
+    // throws IOException if an error occurs writing to file
+    public synchronized void save(Deck deck) throws IOException {
+        int changeCount = deck.getChangeCount();
+        if (!isTracking(deck) || journalEntries + getPendingCount() > compactThreshold()) {
+            compact(deck);
+        } else {
+            saveChanges();
+        }
+        deck.markSaved(changeCount);
+    }
+
+    // Modifies: this, deck
+    // Effects: appends the changes recorded since the tracked deck was last saved to the journal,
+    // marks them saved in the deck, and compacts the journal from file if it has grown too long.
+    // May be called from any thread. Does nothing if no changes have been recorded.
+    // throws IOException if an error occurs reading or writing a file; the changes that could not
+    // be appended stay recorded
+    public synchronized void saveChanges() throws IOException {
+        Deck saved;
+        int changeCount;
+        List<JSONObject> entries;
+        synchronized (pending) {
+            if (deck == null || pending.isEmpty()) {
+                return;
+            }
+            saved = deck;
+            changeCount = pendingChangeCount;
+            entries = new ArrayList<>(pending);
+            pending.clear();
+        }
+        try {
+            append(entries);
+        } catch (IOException e) {
+            restore(saved, entries);
+            throw e;
+        }
+        saved.markSaved(changeCount);
+        if (journalEntries > compactThreshold()) {
+            compactSaved();
+        }
+        lastWritten = lastModified(source);
+    }
+
+    // Modifies: this, deck
+    // Effects: writes deck to a new snapshot in source, in the format given by the extension of
+    // source, replacing the old snapshot in one step, deletes the journal, and starts tracking deck
+    // if it is not tracked already
+    // throws IOException if an error occurs writing to file
+    public synchronized void compact(Deck deck) throws IOException {
+        int changeCount = deck.getChangeCount();
+        writeSnapshot(deck);
+        if (isTracking(deck)) {
+            synchronized (pending) {
+                pending.clear();
+                cardCount = deck.getDeckSize();
+            }
+        } else {
+            startTracking(deck);
+        }
+        deck.markSaved(changeCount);
+    }
+
+    // Modifies: this
+    // Effects: records that card was added to the tracked deck
+    @Override
+    public void cardAdded(Deck deck, Flashcard card) {
+        record(deck, card.toJson().put("op", "add"), 1);
+    }
+
+    // Modifies: this
+    // Effects: records that card was removed from the tracked deck
+    @Override
+    public void cardRemoved(Deck deck, Flashcard card) {
+        record(deck, new JSONObject().put("op", "remove").put("id", card.getIdNumber()), -1);
+    }
+
+    // Modifies: this
+    // Effects: records the new review schedule of a card in the tracked deck
+    @Override
+    public void scheduleChanged(Deck deck, CardSchedule schedule) {
+        record(deck, schedule.toJson().put("op", "schedule"), 0);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    // Effects: returns the number of changes that have not been saved
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    // Effects: returns the time (as returned by lastModified) the deck file or journal was last
+    // written by this journal, or 0 if it has not written them
+    public long getLastWritten() {
+        return lastWritten;
+    }
+
+    // Effects: returns the number of changes saved in the journal since the last snapshot
+    public synchronized int getJournalCount() {
+        return journalEntries;
+    }
+
+    // Modifies: this
+    // Effects: records entry for a change to the tracked deck that changed its size by cardChange
+    private void record(Deck deck, JSONObject entry, int cardChange) {
+        synchronized (pending) {
+            pending.add(entry);
+            cardCount += cardChange;
+            pendingChangeCount = deck.getChangeCount();
+        }
+    }
+
+    // Modifies: this, deck
+    // Effects: starts recording the changes made to deck, and stops recording changes to the deck
+    // tracked before, forgetting the changes to it not yet saved
+    private void startTracking(Deck deck) {
+        synchronized (pending) {
+            untrack();
+            this.deck = deck;
+            cardCount = deck.getDeckSize();
+            deck.addChangeListener(this);
+        }
+    }
+
+    // Modifies: this
+    // Effects: records entries, changes to saved that could not be saved, again, ahead of any changes
+    // recorded since, if saved is still the tracked deck
+    private void restore(Deck saved, List<JSONObject> entries) {
+        synchronized (pending) {
+            if (deck == saved) {
+                pending.addAll(0, entries);
+            }
+        }
+    }
+
+    // Modifies: this
+    // Effects: cuts off an incomplete last entry, then appends entries to the journal and forces
+    // them to disk. If they cannot all be written, the journal is cut back to its old length.
+    // throws IOException if an error occurs writing to file
+    private void append(List<JSONObject> entries) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(journalPath(source)), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long end = completeLength(channel);
+            channel.truncate(end);
+            try {
+                Writer writer = new BufferedWriter(Channels.newWriter(channel.position(end), StandardCharsets.UTF_8));
+                for (JSONObject entry : entries) {
+                    writer.write(entry.toString());
+                    writer.write('\n');
+                }
+                writer.flush();
+                channel.force(false);
+            } catch (IOException e) {
+                channel.truncate(end);
+                throw e;
+            }
+        }
+        journalEntries += entries.size();
+    }
+
+    // Effects: returns the length of the journal open in channel up to and including its last line
+    // break, leaving out an incomplete last entry
+    // throws IOException if an error occurs reading
+    private static long completeLength(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long end = channel.size();
+        while (end > 0) {
+            int length = (int) Math.min(buffer.capacity(), end);
+            buffer.clear().limit(length);
+            while (buffer.hasRemaining() && channel.read(buffer, end - length + buffer.position()) >= 0) {
+                // keep reading until the block is full
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return end - length + i + 1;
+                }
+            }
+            end -= length;
+        }
+        return 0;
+    }
+
+    // Modifies: this
+    // Effects: compacts the journal by reading the deck back from its snapshot and journal and
+    // writing it to a new snapshot
+    // throws IOException if an error occurs reading or writing a file
+    private void compactSaved() throws IOException {
+        Deck saved;
+        try {
+            saved = DeckCodec.forFile(source, null).read(source);
+        } catch (JSONException e) {
+            throw new IOException("Unable to read deck to compact its journal: " + source, e);
+        }
+        writeSnapshot(saved);
+    }
+
+    // Modifies: this
+    // Effects: replaces source with deck, written in the format given by the extension of source,
+    // in one durable step, and deletes the journal. If the deck cannot be written, source is left
+    // as it was.
+    // throws IOException if an error occurs writing to file
+    private void writeSnapshot(Deck deck) throws IOException {
+        Path temporary = Paths.get(source + ".tmp");
+        try {
+            DeckCodec.forFile(source, null).write(deck, temporary.toString());
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Path file = Paths.get(source).toAbsolutePath();
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(Paths.get(journalPath(source)));
+        forceDirectory(file.getParent());
+        journalEntries = 0;
+        lastWritten = lastModified(source);
+    }
+
+    // Effects: forces the entries of directory to disk, so a rename or delete in it survives a
+    // crash. Does nothing where directories cannot be opened, such as on Windows, which makes
+    // renames durable without this.
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // the directory cannot be opened on this platform
+        }
+    }
+
+    // Effects: returns the number of journal entries after which the next save compacts the journal
+    private int compactThreshold() {
+        synchronized (pending) {
+            return Math.max(MIN_COMPACT_ENTRIES, cardCount / 2);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package persistence;
+
+import model.Deck;
+import model.TextPool;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+Represents a library of the decks saved in a directory. Scanning the directory reads only the
+header (name, number of cards and review stats) of each deck file, and files that have not
+changed since the last scan are not read again. Full decks are read on demand and kept in
+memory until the estimated memory used by the loaded decks exceeds the library's budget, at
+which point the least recently used decks are evicted. Loaded decks can still be changed, so
+their sizes are estimated again each time a deck is loaded or saved. Evicted decks are not saved;
+they are read from file again the next time they are loaded.
+ */
+public class DeckLibrary {
+    public static final long CARD_OVERHEAD_BYTES = 160;
+    private final Path directory;
+    private final long memoryBudget;
+    private final TextPool textPool;
+    private final Map<String, DeckHeader> headers;
+    private final LinkedHashMap<String, Deck> loaded;
+    private final Map<String, Long> loadedBytes;
+    private long usedBytes;
+
+    // Requires: memoryBudget >= 0
+    // Effects: creates an empty library of the decks in directory that keeps loaded decks in
+    // memory up to an estimated memoryBudget bytes. The text of loaded cards is shared through
+    // textPool, if it is not null.
+    public DeckLibrary(String directory, long memoryBudget, TextPool textPool) {
+        this.directory = Paths.get(directory);
+        this.memoryBudget = memoryBudget;
+        this.textPool = textPool;
+        this.headers = new TreeMap<>();
+        this.loaded = new LinkedHashMap<>(16, 0.75f, true);
+        this.loadedBytes = new HashMap<>();
+    }
+
+    // Modifies: this
+    // Effects: reads the header of every JSON or binary deck file in the directory that is new or
+    // has changed since the last scan, and forgets files that no longer exist. Files that do not
+    // hold a deck or cannot be read are skipped. Throws IOException if the directory cannot be read.
+    public void scan() throws IOException {
+        Map<String, DeckHeader> previous = new HashMap<>(headers);
+        headers.clear();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.{json,fdeck}")) {
+            for (Path file : files) {
+                String key = key(file.toString());
+                DeckHeader header = previous.get(key);
+                if (header == null || header.getLastModified() != DeckJournal.lastModified(file.toString())) {
+                    header = readHeader(file.toString());
+                }
+                if (header != null) {
+                    headers.put(key, header);
+                }
+            }
+        }
+    }
+
+    // Effects: returns the headers of the decks found by the last scan, ordered by file path
+    public List<DeckHeader> getHeaders() {
+        return Collections.unmodifiableList(new ArrayList<>(headers.values()));
+    }
+
+    // Effects: returns the header of the deck saved in source, or null if it is not in the library
+    public DeckHeader getHeader(String source) {
+        return headers.get(key(source));
+    }
+
+    // Modifies: this
+    // Effects: returns the deck saved in source, reading it from file if it is not loaded, and
+    // marks it as the most recently used deck. Evicts the least recently used other decks while
+    // the loaded decks use more than the memory budget.
+    // throws IOException if an error occurs reading data from file
+    public Deck load(String source) throws IOException {
+        String key = key(source);
+        Deck deck = loaded.get(key);
+        if (deck == null) {
+            deck = DeckCodec.forFile(source, textPool).read(source);
+        }
+        remember(key, deck);
+        return deck;
+    }
+
+    // Modifies: this
+    // Effects: reads the decks saved in sources that are not loaded yet in parallel using loader,
+    // keeps each deck read loaded as if it had been loaded with load, and returns the report of
+    // the decks read and the files that failed. Decks that were already loaded are not read again
+    // and are not in the report. If listener is not null, it is told as each file is read or fails.
+    // throws InterruptedException if the calling thread is interrupted while waiting
+    public DeckLoadReport loadAll(Collection<String> sources, DeckLoader loader, DeckLoadListener listener)
+            throws InterruptedException {
+        List<String> unloaded = new ArrayList<>();
+        for (String source : sources) {
+            if (!isLoaded(source)) {
+                unloaded.add(source);
+            }
+        }
+        DeckLoadReport report = loader.loadAll(unloaded, listener);
+        for (Map.Entry<String, Deck> entry : report.getDecks().entrySet()) {
+            remember(key(entry.getKey()), entry.getValue());
+        }
+        return report;
+    }
+
+    // Modifies: this
+    // Effects: records that deck has just been saved to source: updates its header and keeps it
+    // loaded as the most recently used deck
+    // throws IOException if the saved file cannot be read
+    public void saved(String source, Deck deck) throws IOException {
+        String key = key(source);
+        headers.put(key, DeckHeader.of(source, deck, DeckJournal.lastModified(source)));
+        remember(key, deck);
+    }
+
+    // Effects: returns true if the deck saved in source is loaded
+    public boolean isLoaded(String source) {
+        return loaded.containsKey(key(source));
+    }
+
+    // Effects: returns the number of decks loaded
+    public int getLoadedCount() {
+        return loaded.size();
+    }
+
+    // Effects: returns the estimated number of bytes used by the loaded decks, as of the last time a
+    // deck was loaded or saved
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    // Effects: returns an estimate of the number of bytes used by deck: the size of its card text
+    // plus a fixed overhead for each card
+    static long estimateBytes(Deck deck) {
+        return deck.getHeapTextBytes() + deck.getOffHeapTextBytes() + deck.getDeckSize() * CARD_OVERHEAD_BYTES;
+    }
+
+    // Modifies: this
+    // Effects: keeps deck loaded under key as the most recently used deck, estimates the size of
+    // every loaded deck again, then evicts the least recently used other decks while the loaded
+    // decks use more than the memory budget
+    private void remember(String key, Deck deck) {
+        loaded.put(key, deck);
+        usedBytes = 0;
+        for (Map.Entry<String, Deck> entry : loaded.entrySet()) {
+            long bytes = estimateBytes(entry.getValue());
+            loadedBytes.put(entry.getKey(), bytes);
+            usedBytes += bytes;
+        }
+        Iterator<String> leastRecent = loaded.keySet().iterator();
+        while (usedBytes > memoryBudget && leastRecent.hasNext()) {
+            String next = leastRecent.next();
+            if (!next.equals(key)) {
+                usedBytes -= loadedBytes.remove(next);
+                leastRecent.remove();
+            }
+        }
+    }
+
+    // Effects: returns the header of the deck in file source, or null if it does not hold a deck
+    // or cannot be read
+    private static DeckHeader readHeader(String source) {
+        try {
+            return DeckCodec.forFile(source, null).readHeader(source);
+        } catch (JSONException | IOException e) {
+            return null;
+        }
+    }
+
+    // Effects: returns the key used for the file source, so that different paths to the same file
+    // have the same key
+    private static String key(String source) {
+        return Paths.get(source).toAbsolutePath().normalize().toString();
+    }
+}
@@ -0,0 +1,16 @@
+package persistence;
+
+import model.Deck;
+
+// Interface representing an object that is told about the progress of loading many decks at once.
+// Methods are called on the thread that started the load, one file at a time.
+public interface DeckLoadListener {
+
+    // Effects: called when the deck saved in source has been read; completed of total files have
+    // now been read or have failed
+    void deckLoaded(String source, Deck deck, int completed, int total);
+
+    // Effects: called when the deck saved in source could not be read because of error; completed
+    // of total files have now been read or have failed
+    void deckFailed(String source, Exception error, int completed, int total);
+}
@@ -0,0 +1,42 @@
+package persistence;
+
+import model.Deck;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Represents the outcome of loading many decks at once: the decks that were read and the error
+// for each file that could not be read, both in the order the files were given
+public class DeckLoadReport {
+    private final Map<String, Deck> decks;
+    private final Map<String, Exception> failures;
+
+    // Effects: creates a report of the decks read and the failures, in the order of sources
+    DeckLoadReport(Iterable<String> sources, Map<String, Deck> decks, Map<String, Exception> failures) {
+        this.decks = new LinkedHashMap<>();
+        this.failures = new LinkedHashMap<>();
+        for (String source : sources) {
+            if (decks.containsKey(source)) {
+                this.decks.put(source, decks.get(source));
+            } else if (failures.containsKey(source)) {
+                this.failures.put(source, failures.get(source));
+            }
+        }
+    }
+
+    // Effects: returns the decks that were read, by file path
+    public Map<String, Deck> getDecks() {
+        return Collections.unmodifiableMap(decks);
+    }
+
+    // Effects: returns the error for each file that could not be read, by file path
+    public Map<String, Exception> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    // Effects: returns true if any file could not be read
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+}
@@ -0,0 +1,95 @@
+package persistence;
+
+import model.Deck;
+import model.TextPool;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+Represents a loader that reads many deck files at once. Files are read and parsed in parallel on
+a fixed pool of worker threads, so at most parallelism files are parsed at the same time. Each
+file is read with the codec for its extension. A file that cannot be read does not stop the
+others: its error is reported and kept in the load report. Progress is reported to a listener on
+the calling thread as each file finishes.
+ */
+public class DeckLoader {
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private final int parallelism;
+    private final TextPool textPool;
+
+    // Effects: creates a loader that parses as many files at once as there are processors and
+    // shares the text of the cards it reads through textPool, if it is not null
+    public DeckLoader(TextPool textPool) {
+        this(DEFAULT_PARALLELISM, textPool);
+    }
+
+    // Requires: parallelism > 0
+    // Effects: creates a loader that parses at most parallelism files at once and shares the text
+    // of the cards it reads through textPool, if it is not null
+    public DeckLoader(int parallelism, TextPool textPool) {
+        this.parallelism = parallelism;
+        this.textPool = textPool;
+    }
+
+    // Effects: reads the decks saved in sources in parallel and returns the decks read and the
+    // error for each file that could not be read. Files given more than once are read once. If
+    // listener is not null, it is told as each file is read or fails.
+    // throws InterruptedException if the calling thread is interrupted while waiting; files still
+    // being read are then abandoned
+    public DeckLoadReport loadAll(Collection<String> sources, DeckLoadListener listener)
+            throws InterruptedException {
+        Set<String> files = new LinkedHashSet<>(sources);
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, files.size())));
+        CompletionService<Deck> finished = new ExecutorCompletionService<>(workers);
+        Map<Future<Deck>, String> pending = new HashMap<>();
+        Map<String, Deck> decks = new HashMap<>();
+        Map<String, Exception> failures = new HashMap<>();
+        try {
+            for (String source : files) {
+                pending.put(finished.submit(() -> DeckCodec.forFile(source, textPool).read(source)), source);
+            }
+            for (int completed = 1; completed <= files.size(); completed++) {
+                Future<Deck> next = finished.take();
+                String source = pending.get(next);
+                try {
+                    decks.put(source, next.get());
+                    if (listener != null) {
+                        listener.deckLoaded(source, decks.get(source), completed, files.size());
+                    }
+                } catch (ExecutionException e) {
+                    failures.put(source, failure(e));
+                    if (listener != null) {
+                        listener.deckFailed(source, failures.get(source), completed, files.size());
+                    }
+                }
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return new DeckLoadReport(files, decks, failures);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    // Effects: returns the exception that made a file fail to load. Errors are thrown again
+    // rather than reported, since the program cannot carry on after them.
+    private static Exception failure(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return cause instanceof Exception ? (Exception) cause : e;
+    }
+}
@@ -0,0 +1,12 @@
+package persistence;
+
+import model.DeckDiff;
+
+// Interface representing an object that is told when a watched deck file is changed by another
+// program. Methods are called through the executor given to the watcher.
+public interface DeckWatchListener {
+
+    // Effects: called when the deck saved in source has changed on disk; diff holds the cards added
+    // and removed since the file was last read
+    void deckChanged(String source, DeckDiff diff);
+}
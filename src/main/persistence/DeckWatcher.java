@@ -0,0 +1,156 @@
+package persistence;
+
+import model.Deck;
+import model.DeckDiff;
+import model.TextPool;
+import org.json.JSONException;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/*
+Represents a watcher that notices when a deck file, or its journal, is changed by another program
+while the deck is open, and passes the cards added and removed to a listener as a DeckDiff. The
+directory holding the file is watched on a background thread of the watcher's own. The watcher
+keeps only the number of cards with each content of the last version read or written by this
+program, not the cards themselves.
+ */
+public class DeckWatcher {
+    public static final long SETTLE_MILLIS = 200;
+    private final String source;
+    private final DeckJournal journal;
+    private final TextPool textPool;
+    private final Executor delivery;
+    private final DeckWatchListener listener;
+    private final WatchService watchService;
+    private final Thread thread;
+    private Map<Long, Integer> lastRead;
+    private volatile boolean closed;
+
+    // Effects: creates a watcher of the deck saved in source that tells listener about changes through
+    // delivery, except those written through journal, if it is not null. Decks are read sharing
+    // their text through textPool, if it is not null. Watching starts when start is called.
+    // throws IOException if the directory holding source cannot be watched
+    public DeckWatcher(String source, DeckJournal journal, TextPool textPool, Executor delivery,
+                       DeckWatchListener listener) throws IOException {
+        this.source = source;
+        this.journal = journal;
+        this.textPool = textPool;
+        this.delivery = delivery;
+        this.listener = listener;
+        Path directory = Paths.get(source).toAbsolutePath().getParent();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        this.thread = new Thread(this::watch, "Deck watcher " + source);
+        this.thread.setDaemon(true);
+    }
+
+    // Modifies: this
+    // Effects: reads the deck as it is now on the background thread, then starts watching for changes
+    public void start() {
+        thread.start();
+    }
+
+    // Modifies: this
+    // Effects: stops watching without waiting for a read in progress to finish. The listener is not
+    // told about changes after this returns, even ones found before.
+    public void close() {
+        closed = true;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            // the watch service is closed either way
+        }
+    }
+
+    // Effects: returns true if the watcher has been closed
+    public boolean isClosed() {
+        return closed;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    // Modifies: this
+    // Effects: on the background thread, reads the deck and then waits for changes to it until the
+    // watcher is closed
+    private void watch() {
+        check(false);
+        try {
+            while (true) {
+                if (isDeckEvent(watchService.take())) {
+                    settle();
+                    check(true);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the watcher has been closed
+        }
+    }
+
+    // Effects: waits until no event for the deck has arrived for SETTLE_MILLIS, so a file written in
+    // several steps is read once it is complete
+    // throws InterruptedException if the watcher is closed while waiting
+    private void settle() throws InterruptedException {
+        WatchKey key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+        while (key != null) {
+            isDeckEvent(key);
+            key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Modifies: key
+    // Effects: returns true if any event in key is for the deck file or its journal, or events may
+    // have been lost, and makes key ready for more events
+    private boolean isDeckEvent(WatchKey key) {
+        String name = Paths.get(source).getFileName().toString();
+        String journalName = Paths.get(DeckJournal.journalPath(source)).getFileName().toString();
+        boolean found = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            found |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                    || context != null && (context.toString().equals(name) || context.toString().equals(journalName));
+        }
+        key.reset();
+        return found;
+    }
+
+    // Modifies: this
+    // Effects: reads the deck and remembers the number of cards with each content. If notify and the
+    // file was not last written through the journal, passes the cards added and removed since the
+    // last version read to the listener, unless there are none. A deck that cannot be read, for
+    // example because it is being written, is skipped; it is read again at the next change.
+    private void check(boolean notify) {
+        try {
+            long modified = DeckJournal.lastModified(source);
+            Deck latest = DeckCodec.forFile(source, textPool).read(source);
+            boolean ownWrite = journal != null && modified == journal.getLastWritten()
+                    && DeckJournal.lastModified(source) == modified;
+            if (notify && !ownWrite && lastRead != null) {
+                DeckDiff diff = DeckDiff.between(lastRead, latest.getCardView());
+                if (!diff.isEmpty()) {
+                    delivery.execute(() -> {
+                        if (!closed) {
+                            listener.deckChanged(source, diff);
+                        }
+                    });
+                }
+            }
+            lastRead = DeckDiff.countContent(latest.getCardView());
+        } catch (IOException | JSONException e) {
+            // the deck is read again at its next change
+        }
+    }
+}
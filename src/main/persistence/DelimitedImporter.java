@@ -0,0 +1,293 @@
+package persistence;
+
+import model.Deck;
+import model.Flashcard;
+import model.TextPool;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+Represents an importer that adds a card to a deck for each row of a delimited text file, such
+as a CSV or TSV spreadsheet export. Fields may be quoted with double quotes, in which case they
+can hold delimiters, line breaks and doubled quotes (""). The text of each card is taken from
+two configurable columns, and a first row of column names can be skipped.
+The file is read as a stream and split into chunks of whole rows, which are parsed into cards in
+parallel on a fixed pool of worker threads while the next chunks are read. Parsed chunks are
+added to the deck in file order through its bulk add path. Only a few chunks are held in memory
+at a time, so memory use does not grow with the size of the file. Rows that cannot be made into
+a card are reported by line number and skipped, without stopping the import. A quoted field may
+run over at most MAX_ROW_LINES lines; a quote that is not closed within them, such as a stray
+quote, is reported at the line of its row, and reading goes on from the next line, so one bad
+quote does not swallow the rest of the file.
+ */
+public class DelimitedImporter {
+    public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    static final int CHUNK_LINES = 8192;
+    static final int MAX_ROW_LINES = 100;
+    private static final char QUOTE = '"';
+    private final char delimiter;
+    private final int frontColumn;
+    private final int backColumn;
+    private final boolean hasHeader;
+    private final int parallelism;
+    private final TextPool textPool;
+
+    // Requires: frontColumn >= 0, backColumn >= 0 and frontColumn != backColumn
+    // Effects: creates an importer for files whose fields are separated by delimiter, that makes
+    // a card from the fields in frontColumn and backColumn (counted from 0) of each row, and skips
+    // the first row if hasHeader. Rows are parsed on as many threads as there are processors.
+    public DelimitedImporter(char delimiter, int frontColumn, int backColumn, boolean hasHeader) {
+        this(delimiter, frontColumn, backColumn, hasHeader, DEFAULT_PARALLELISM, null);
+    }
+
+    // Requires: frontColumn >= 0, backColumn >= 0, frontColumn != backColumn and parallelism > 0
+    // Effects: creates an importer as above that parses rows on at most parallelism threads and
+    // shares the text of the cards it makes through textPool, if it is not null
+    public DelimitedImporter(char delimiter, int frontColumn, int backColumn, boolean hasHeader,
+                             int parallelism, TextPool textPool) {
+        this.delimiter = delimiter;
+        this.frontColumn = frontColumn;
+        this.backColumn = backColumn;
+        this.hasHeader = hasHeader;
+        this.parallelism = parallelism;
+        this.textPool = textPool;
+    }
+
+    // Effects: returns the delimiter usually used in the file at path: a tab for .tsv and .tab
+    // files, and a comma otherwise
+    public static char delimiterFor(String path) {
+        String lower = path.toLowerCase();
+        return lower.endsWith(".tsv") || lower.endsWith(".tab") ? '\t' : ',';
+    }
+
+    // Modifies: deck
+    // Effects: adds a card to deck for each row of the UTF-8 file source and returns a report of
+    // the rows read, the cards added and the rows that could not be imported
+    // throws IOException if an error occurs reading the file, and InterruptedException if the
+    // calling thread is interrupted while waiting for rows to be parsed
+    public ImportReport importFile(Deck deck, String source) throws IOException, InterruptedException {
+        return importFile(source, deck::addAll);
+    }
+
+    // Modifies: sink
+    // Effects: makes a card for each row of the UTF-8 file source and passes them to sink in chunks,
+    // in file order, then returns a report of the rows read, the cards sink added and the rows that
+    // could not be imported
+    // throws IOException if an error occurs reading the file, and InterruptedException if the
+    // calling thread is interrupted while waiting for rows to be parsed or for sink
+    public ImportReport importFile(String source, CardSink sink) throws IOException, InterruptedException {
+        try (Reader reader = Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            return importFrom(reader, sink);
+        }
+    }
+
+    // Modifies: deck
+    // Effects: adds a card to deck for each row read from reader, as importFile does
+    // throws IOException if an error occurs reading, and InterruptedException if the calling
+    // thread is interrupted while waiting for rows to be parsed
+    public ImportReport importFrom(Deck deck, Reader reader) throws IOException, InterruptedException {
+        return importFrom(reader, deck::addAll);
+    }
+
+    // Modifies: sink
+    // Effects: makes a card for each row read from reader and passes them to sink, as importFile does
+    // throws IOException if an error occurs reading, and InterruptedException if the calling thread
+    // is interrupted while waiting for rows to be parsed or for sink
+    public ImportReport importFrom(Reader reader, CardSink sink) throws IOException, InterruptedException {
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        Deque<Future<ParsedChunk>> parsing = new ArrayDeque<>();
+        ImportReport report = new ImportReport();
+        try {
+            for (Chunk chunk = readChunk(lines, 1); chunk != null; chunk = readChunk(lines, chunk.nextLine())) {
+                Chunk next = chunk;
+                parsing.add(workers.submit(() -> parse(next)));
+                if (parsing.size() > 2 * parallelism) {
+                    addParsed(sink, parsing.remove(), report);
+                }
+            }
+            while (!parsing.isEmpty()) {
+                addParsed(sink, parsing.remove(), report);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return report;
+    }
+
+    // Modifies: sink, report
+    // Effects: waits for chunk to be parsed, passes its cards to sink and records the outcome in report
+    // throws InterruptedException if the calling thread is interrupted while waiting
+    private static void addParsed(CardSink sink, Future<ParsedChunk> chunk, ImportReport report)
+            throws InterruptedException {
+        try {
+            ParsedChunk parsed = chunk.get();
+            report.addChunk(parsed.rows, parsed.cards.size(), sink.add(parsed.cards), parsed.errors);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    // Modifies: lines
+    // Effects: reads at least CHUNK_LINES lines from lines, or the rest of the input if there are
+    // fewer, stopping only at the end of a row, and returns them as a chunk that starts at line
+    // firstLine. A quote left open for MAX_ROW_LINES lines is taken to be closed, as the parser
+    // gives up on it there. Returns null if there is no input left.
+    // throws IOException if an error occurs reading
+    private static Chunk readChunk(BufferedReader lines, int firstLine) throws IOException {
+        List<String> read = new ArrayList<>(CHUNK_LINES);
+        boolean inQuotes = false;
+        int quotedLines = 0;
+        String line = lines.readLine();
+        while (line != null) {
+            read.add(line);
+            for (int i = 0; i < line.length(); i++) {
+                inQuotes ^= line.charAt(i) == QUOTE;
+            }
+            quotedLines = inQuotes ? quotedLines + 1 : 0;
+            if (quotedLines >= MAX_ROW_LINES) {
+                inQuotes = false;
+                quotedLines = 0;
+            }
+            if (!inQuotes && read.size() >= CHUNK_LINES) {
+                break;
+            }
+            line = lines.readLine();
+        }
+        return read.isEmpty() ? null : new Chunk(firstLine, read);
+    }
+
+    // Effects: parses the rows in chunk into cards, recording an error for each row that cannot be
+    // made into a card. Blank lines are skipped, and so is the first line of the input if the file
+    // has a header. After a row whose quoted field is not closed, parsing goes on from the line
+    // after the row's first line.
+    private ParsedChunk parse(Chunk chunk) {
+        ParsedChunk parsed = new ParsedChunk();
+        List<String> fields = new ArrayList<>();
+        int index = 0;
+        while (index < chunk.lines.size()) {
+            int rowLine = chunk.firstLine + index;
+            fields.clear();
+            int next = parseRow(chunk.lines, index, fields);
+            boolean blank = fields.size() == 1 && fields.get(0).isEmpty();
+            if (!blank && !(hasHeader && rowLine == 1)) {
+                parsed.rows++;
+                String error = checkRow(fields, next < 0);
+                if (error != null) {
+                    parsed.errors.add(new ImportError(rowLine, error));
+                } else {
+                    parsed.cards.add(makeCard(fields.get(frontColumn).trim(), fields.get(backColumn).trim()));
+                }
+            }
+            index = next < 0 ? index + 1 : next;
+        }
+        return parsed;
+    }
+
+    // Effects: returns the reason the row with fields cannot be made into a card, or null if it can.
+    // unterminated is true if the row ended inside a quoted field.
+    private String checkRow(List<String> fields, boolean unterminated) {
+        if (unterminated) {
+            return "quoted field is not closed";
+        }
+        int needed = Math.max(frontColumn, backColumn) + 1;
+        if (fields.size() < needed) {
+            return "expected at least " + needed + " columns but found " + fields.size();
+        }
+        if (fields.get(frontColumn).isBlank() || fields.get(backColumn).isBlank()) {
+            return "front and back of a card must not be empty";
+        }
+        return null;
+    }
+
+    // Effects: returns a new card with front and back, sharing its text through the text pool if
+    // this importer has one
+    private Flashcard makeCard(String front, String back) {
+        return textPool == null ? new Flashcard(front, back) : new Flashcard(front, back, textPool);
+    }
+
+    // Modifies: fields
+    // Effects: parses the row that starts at lines.get(index) into fields and returns the index of
+    // the line after the row. A quoted field can continue onto the following lines, up to
+    // MAX_ROW_LINES lines in all, which are joined with a line break. Returns -1 if the lines ran
+    // out, or the limit was reached, inside a quoted field.
+    private int parseRow(List<String> lines, int index, List<String> fields) {
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        int last = Math.min(lines.size(), index + MAX_ROW_LINES);
+        while (true) {
+            inQuotes = parseLine(lines.get(index), inQuotes, field, fields);
+            if (!inQuotes) {
+                fields.add(field.toString());
+                return index + 1;
+            }
+            if (++index == last) {
+                fields.add(field.toString());
+                return -1;
+            }
+            field.append('\n');
+        }
+    }
+
+    // Modifies: field, fields
+    // Effects: appends the text of line to field, starting inside a quoted field if inQuotes, and
+    // adds field to fields and starts a new one at each delimiter outside quotes. Returns true if
+    // line ends inside a quoted field.
+    private boolean parseLine(String line, boolean inQuotes, StringBuilder field, List<String> fields) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == QUOTE && inQuotes && i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+                field.append(QUOTE);
+                i++;
+            } else if (c == QUOTE) {
+                inQuotes = !inQuotes;
+            } else if (c == delimiter && !inQuotes) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        return inQuotes;
+    }
+
+    // Represents a run of whole rows read from the input, starting at line firstLine (counted from 1)
+    private static class Chunk {
+        private final int firstLine;
+        private final List<String> lines;
+
+        // Effects: creates a chunk of lines starting at line firstLine
+        Chunk(int firstLine, List<String> lines) {
+            this.firstLine = firstLine;
+            this.lines = lines;
+        }
+
+        // Effects: returns the number of the line after this chunk
+        int nextLine() {
+            return firstLine + lines.size();
+        }
+    }
+
+    // Represents the cards made from the rows of a chunk and the rows that could not be imported
+    private static class ParsedChunk {
+        private final List<Flashcard> cards = new ArrayList<>(CHUNK_LINES);
+        private final List<ImportError> errors = new ArrayList<>();
+        private int rows;
+    }
+}
@@ -0,0 +1,26 @@
+package persistence;
+
+// Represents a row of an imported file that could not be made into a card, and the reason why
+public class ImportError {
+    private final int line;
+    private final String message;
+
+    // Effects: creates an error for the row starting at line (counted from 1) with message
+    public ImportError(int line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "Line " + line + ": " + message;
+    }
+}
@@ -0,0 +1,72 @@
+package persistence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Represents the outcome of importing cards from a delimited file: the number of rows read, the
+// cards added and skipped as duplicates, and the rows that could not be imported, in file order.
+// Only the first MAX_ERRORS errors are kept, but all of them are counted.
+public class ImportReport {
+    public static final int MAX_ERRORS = 1000;
+    private final List<ImportError> errors;
+    private int rows;
+    private int added;
+    private int duplicates;
+    private int errorCount;
+
+    // Effects: creates a report with nothing imported
+    ImportReport() {
+        this.errors = new ArrayList<>();
+    }
+
+    // Modifies: this
+    // Effects: records that rows rows were read, from which cards cards were made and added of
+    // them were added to the deck, and that the rows in chunkErrors could not be imported
+    void addChunk(int rows, int cards, int added, List<ImportError> chunkErrors) {
+        this.rows += rows;
+        this.added += added;
+        this.duplicates += cards - added;
+        this.errorCount += chunkErrors.size();
+        for (int i = 0; i < chunkErrors.size() && errors.size() < MAX_ERRORS; i++) {
+            errors.add(chunkErrors.get(i));
+        }
+    }
+
+    // Effects: returns the number of rows read, not counting a header row or blank lines
+    public int getRows() {
+        return rows;
+    }
+
+    // Effects: returns the number of cards added to the deck
+    public int getAdded() {
+        return added;
+    }
+
+    // Effects: returns the number of rows that were not added because the deck already had a card
+    // with the same text
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    // Effects: returns the first MAX_ERRORS rows that could not be imported, in file order
+    public List<ImportError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    // Effects: returns the number of rows that could not be imported
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    // Effects: returns true if any row could not be imported
+    public boolean hasErrors() {
+        return errorCount > 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Imported " + added + " of " + rows + " rows (" + duplicates + " duplicates, "
+                + errorCount + " errors)";
+    }
+}
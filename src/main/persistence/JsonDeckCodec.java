@@ -0,0 +1,54 @@
+package persistence;
+
+import model.Deck;
+import model.TextPool;
+
+import java.io.IOException;
+
+// Represents the JSON deck format, read by JsonReader and written by JsonWriter
+public class JsonDeckCodec implements DeckCodec {
+    private final TextPool textPool;
+    private final boolean compact;
+
+    // Effects: creates a JSON codec that writes indented JSON and does not pool card text
+    public JsonDeckCodec() {
+        this(null);
+    }
+
+    // Effects: creates a JSON codec that writes indented JSON and shares the text of cards it
+    // reads through textPool, if it is not null
+    public JsonDeckCodec(TextPool textPool) {
+        this(textPool, false);
+    }
+
+    // Effects: creates a JSON codec that writes JSON without whitespace if compact is true, and
+    // shares the text of cards it reads through textPool, if it is not null
+    public JsonDeckCodec(TextPool textPool, boolean compact) {
+        this.textPool = textPool;
+        this.compact = compact;
+    }
+
+    @Override
+    public Deck read(String source) throws IOException {
+        return new JsonReader(source, textPool).read();
+    }
+
+    @Override
+    public DeckHeader readHeader(String source) throws IOException {
+        return new JsonReader(source, textPool).readHeader();
+    }
+
+    @Override
+    public void write(Deck deck, String destination) throws IOException {
+        JsonWriter writer = new JsonWriter(destination, compact);
+        writer.open();
+        try {
+            writer.write(deck);
+        } finally {
+            writer.close();
+        }
+        if (writer.hasError()) {
+            throw new IOException("Unable to write deck to " + destination);
+        }
+    }
+}
@@ -1,67 +1,217 @@
 package persistence;
 
+import model.CardSchedule;
 import model.Deck;
 import model.Flashcard;
-import org.json.JSONArray;
+import model.TextPool;
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.stream.Stream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 // Represents a reader that reads deck from JSON data stored in file
 // JsonReader was heavily inspired by the JsonReader class in the JsonSerializationDemo
 // (https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo)
 public class JsonReader {
+    private static final List<String> HEADER_FIELDS = List.of("name", "cardCount", "learnedCount", "nextDue");
+    private static final int MAX_PRESIZED_CARDS = 1 << 20;
     private String source;
+    private TextPool textPool;
 
     // Effects: constructs reader to read from source file
     public JsonReader(String source) {
         this.source = source;
     }
 
-    // Effects: reads the deck from file and returns it
-    // throws IOException if an error occurs reading data from file
+    // Effects: constructs reader to read from source file. The front and back text of cards
+    // read is shared through textPool with cards that have the same text.
+    public JsonReader(String source, TextPool textPool) {
+        this.source = source;
+        this.textPool = textPool;
+    }
+
+    // Effects: reads the deck from file and returns it. The file is read as a stream, so it is never
+    // held in memory whole, and the cards read are added to the deck in one batch.
+    // If the deck has a journal, the changes in it are then replayed on the deck.
+    // throws IOException if an error occurs reading data from file, and JSONException if the file
+    // does not hold a deck
     public Deck read() throws IOException {
-        String jsonData = readFile(source);
-        JSONObject jsonObject = new JSONObject(jsonData);
-        return parseDeck(jsonObject);
+        DeckAssembler assembler = new DeckAssembler();
+        try (Reader reader = open()) {
+            JsonScanner.forEachField(new JSONTokener(reader), assembler::readField);
+        }
+        Deck deck = assembler.finish();
+        replayJournal(deck);
+        deck.markSaved();
+        return deck;
+    }
+
+    // Modifies: deck
+    // Effects: replays the changes in the journal of the deck saved in source on deck. Does nothing
+    // if the deck has no journal.
+    // throws IOException if an error occurs reading the journal
+    void replayJournal(Deck deck) throws IOException {
+        DeckJournal.forEachEntry(source, entry -> replay(deck, entry));
     }
 
-    // Effects: reads source file as string and returns it
-    private String readFile(String source) throws IOException {
-        StringBuilder contentBuilder = new StringBuilder();
-        try (Stream<String> stream = Files.lines(Paths.get(source), StandardCharsets.UTF_8)) {
-            stream.forEach(s -> contentBuilder.append(s));
+    // Effects: reads the cards of the deck from file, passing each card to consumer as soon as it
+    // has been read, without building the deck. Other fields of the deck are skipped.
+    // throws IOException if an error occurs reading data from file, and JSONException if the file
+    // does not hold a deck
+    public void readCards(Consumer<Flashcard> consumer) throws IOException {
+        try (Reader reader = open()) {
+            JsonScanner.forEachField(new JSONTokener(reader), (key, tokener) -> {
+                if (key.equals("flashcards")) {
+                    JsonScanner.forEachObject(tokener, json -> consumer.accept(parseCard(json)));
+                } else {
+                    JsonScanner.skipValue(tokener);
+                }
+                return true;
+            });
         }
-        return contentBuilder.toString();
     }
 
-    // Effects: parses deck from JSON object and returns it
-    private Deck parseDeck(JSONObject jsonObject) {
-        String name = jsonObject.getString("name");
-        Deck deck = new Deck(name);
-        addCards(deck, jsonObject);
-        return deck;
+    // Effects: reads the header of the deck from file and returns it, without building the deck's
+    // cards. Reading stops as soon as every header field has been found; the cards of decks saved
+    // without a card count are counted but not parsed. The card count includes the cards added
+    // and removed in the deck's journal; the review stats are those of the last snapshot.
+    // throws IOException if an error occurs reading data from file, and JSONException if the file
+    // does not hold a deck
+    public DeckHeader readHeader() throws IOException {
+        long lastModified = DeckJournal.lastModified(source);
+        Map<String, Object> fields = new HashMap<>();
+        try (Reader reader = open()) {
+            JsonScanner.forEachField(new JSONTokener(reader), (key, tokener) -> {
+                if (key.equals("flashcards")) {
+                    fields.putIfAbsent("cardCount", JsonScanner.skipValue(tokener));
+                } else if (HEADER_FIELDS.contains(key)) {
+                    fields.put(key, tokener.nextValue());
+                } else {
+                    JsonScanner.skipValue(tokener);
+                }
+                return !fields.keySet().containsAll(HEADER_FIELDS);
+            });
+        }
+        if (!(fields.get("name") instanceof String)) {
+            throw new JSONException("Deck in '" + source + "' has no name");
+        }
+        int cardCount = intField(fields, "cardCount", 0) + DeckJournal.cardCountChange(source);
+        return new DeckHeader(source, (String) fields.get("name"), cardCount,
+                intField(fields, "learnedCount", 0), longField(fields, "nextDue"), lastModified);
     }
 
     // Modifies: deck
-    // Effects: parses flashcards from JSON object and adds them to deck
-    private void addCards(Deck deck, JSONObject jsonObject) {
-        JSONArray jsonArray = jsonObject.getJSONArray("flashcards");
-        for (Object json : jsonArray) {
-            JSONObject nextCard = (JSONObject) json;
-            String front = nextCard.getString("front");
-            String back = nextCard.getString("back");
-            Flashcard card = new Flashcard(front, back);
-            deck.addCard(card);
+    // Effects: applies a journal entry to deck. Entries that are already reflected in deck (such as
+    // adding a card that is in the deck) are ignored, so replaying a journal twice is harmless.
+    private void replay(Deck deck, JSONObject entry) {
+        String op = entry.getString("op");
+        String cardID = String.valueOf(entry.getLong("id"));
+        if (op.equals("add") && deck.getCard(cardID) == null) {
+            deck.addCard(parseCard(entry));
+        } else if (op.equals("remove")) {
+            deck.removeCard(cardID);
+        } else if (op.equals("schedule") && deck.getCard(cardID) != null) {
+            deck.getScheduler().restore(parseSchedule(entry));
         }
     }
 
+    // Effects: returns the header field key as an int, or otherwise if it was not found
+    private static int intField(Map<String, Object> fields, String key, int otherwise) {
+        Object value = fields.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : otherwise;
+    }
+
+    // Effects: returns the header field key as a long, or 0 if it was not found
+    private static long longField(Map<String, Object> fields, String key) {
+        Object value = fields.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    // Effects: opens source file for reading
+    private Reader open() throws IOException {
+        return Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8);
+    }
+
+    // Effects: parses a flashcard from JSON object and returns it. Cards keep the id stored in
+    // file; cards saved without an id are given a new one.
+    private Flashcard parseCard(JSONObject json) {
+        String front = pooled(json.getString("front"));
+        String back = pooled(json.getString("back"));
+        if (json.has("id")) {
+            return new Flashcard(json.getLong("id"), front, back);
+        }
+        return new Flashcard(front, back);
+    }
+
+    // Effects: parses a review schedule from JSON object and returns it
+    private static CardSchedule parseSchedule(JSONObject json) {
+        return new CardSchedule(json.getLong("id"), json.getDouble("ease"), json.getInt("interval"),
+                json.getInt("repetitions"), json.getLong("due"));
+    }
+
+    // Effects: returns the pooled copy of text if this reader has a text pool. Otherwise,
+    // returns text.
+    private String pooled(String text) {
+        return textPool == null ? text : textPool.intern(text);
+    }
+
     public String getSource() {
         return source;
     }
 
+    // Represents a deck being built from the fields of a deck file as they are read. Cards are held
+    // until every field has been read and are then added to the deck in one batch, in a list sized
+    // from the card count in the file when the count comes first. Review schedules are restored
+    // once every card has been added.
+    private class DeckAssembler {
+        private Deck deck;
+        private final ArrayList<Flashcard> cards = new ArrayList<>();
+        private final List<CardSchedule> schedules = new ArrayList<>();
+
+        // Modifies: this
+        // Effects: reads the value of the field key from tokener. Returns true to keep reading.
+        boolean readField(String key, JSONTokener tokener) {
+            if (key.equals("name")) {
+                deck = new Deck(tokener.nextValue().toString());
+            } else if (key.equals("cardCount")) {
+                Object count = tokener.nextValue();
+                if (count instanceof Number) {
+                    cards.ensureCapacity(Math.min(((Number) count).intValue(), MAX_PRESIZED_CARDS));
+                }
+            } else if (key.equals("flashcards")) {
+                JsonScanner.forEachObject(tokener, json -> cards.add(parseCard(json)));
+            } else if (key.equals("schedule")) {
+                JsonScanner.forEachObject(tokener, json -> schedules.add(parseSchedule(json)));
+            } else {
+                JsonScanner.skipValue(tokener);
+            }
+            return true;
+        }
+
+        // Effects: adds the cards read to the deck in one batch, restores the review schedules of
+        // the cards in the deck and returns the deck. Schedules of cards that are not in the deck
+        // are ignored. Throws JSONException if the deck had no name.
+        Deck finish() {
+            if (deck == null) {
+                throw new JSONException("Deck in '" + source + "' has no name");
+            }
+            deck.addAll(cards);
+            for (CardSchedule schedule : schedules) {
+                if (deck.getCard(String.valueOf(schedule.getCardId())) != null) {
+                    deck.getScheduler().restore(schedule);
+                }
+            }
+            return deck;
+        }
+    }
 }
@@ -0,0 +1,120 @@
+package persistence;
+
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+/*
+Provides the pieces used to read a JSON document as a stream of tokens rather than building
+the whole document in memory: visiting the fields of an object one at a time, visiting the
+objects in an array one at a time, and skipping values without building them.
+ */
+final class JsonScanner {
+
+    // Effects: prevents instantiation
+    private JsonScanner() {
+    }
+
+    // Effects: reads the object at the tokener's position field by field. For each field, calls
+    // visitor with the field name while the tokener is positioned at the field's value; visitor
+    // must read or skip the value, and returns false to stop reading the object early.
+    static void forEachField(JSONTokener tokener, BiPredicate<String, JSONTokener> visitor) {
+        if (tokener.nextClean() != '{') {
+            throw tokener.syntaxError("Expected '{'");
+        }
+        char next = tokener.nextClean();
+        boolean reading = true;
+        while (next != '}' && reading) {
+            if (next != '"') {
+                throw tokener.syntaxError("Expected a field name");
+            }
+            String key = tokener.nextString('"');
+            if (tokener.nextClean() != ':') {
+                throw tokener.syntaxError("Expected ':' after a field name");
+            }
+            reading = visitor.test(key, tokener);
+            next = tokener.nextClean();
+            next = next == ',' ? tokener.nextClean() : next;
+        }
+    }
+
+    // Effects: reads the array of objects at the tokener's position one element at a time,
+    // passing each object to consumer as soon as it has been read
+    static void forEachObject(JSONTokener tokener, Consumer<JSONObject> consumer) {
+        if (tokener.nextClean() != '[') {
+            throw tokener.syntaxError("Expected '['");
+        }
+        char next = tokener.nextClean();
+        while (next != ']') {
+            tokener.back();
+            Object value = tokener.nextValue();
+            if (!(value instanceof JSONObject)) {
+                throw tokener.syntaxError("Expected an object");
+            }
+            consumer.accept((JSONObject) value);
+            next = tokener.nextClean();
+            if (next == ',') {
+                next = tokener.nextClean();
+            } else if (next != ']') {
+                throw tokener.syntaxError("Expected ',' or ']'");
+            }
+        }
+    }
+
+    // Effects: skips the value at the tokener's position without building it, and returns the
+    // number of elements (or fields) in it if it is an array (or object); otherwise returns 0
+    static int skipValue(JSONTokener tokener) {
+        char next = tokener.nextClean();
+        if (next == '"') {
+            skipString(tokener);
+            return 0;
+        } else if (next != '[' && next != '{') {
+            tokener.back();
+            tokener.nextValue();
+            return 0;
+        }
+        return skipNested(tokener);
+    }
+
+    // Effects: skips the rest of an array or object whose opening bracket has been read, and
+    // returns the number of elements (or fields) in it
+    private static int skipNested(JSONTokener tokener) {
+        char next = tokener.nextClean();
+        if (next == ']' || next == '}') {
+            return 0;
+        }
+        int depth = 1;
+        int elements = 1;
+        while (depth > 0) {
+            if (next == 0) {
+                throw tokener.syntaxError("Unterminated array or object");
+            } else if (next == '"') {
+                skipString(tokener);
+            } else if (next == '[' || next == '{') {
+                depth++;
+            } else if (next == ']' || next == '}') {
+                depth--;
+            } else if (next == ',' && depth == 1) {
+                elements++;
+            }
+            next = depth > 0 ? tokener.nextClean() : next;
+        }
+        return elements;
+    }
+
+    // Effects: skips the rest of a string whose opening quote has been read
+    private static void skipString(JSONTokener tokener) {
+        char next = tokener.next();
+        while (next != '"') {
+            if (next == 0) {
+                throw tokener.syntaxError("Unterminated string");
+            }
+            if (next == '\\') {
+                tokener.next();
+            }
+            next = tokener.next();
+        }
+    }
+}
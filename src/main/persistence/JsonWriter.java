@@ -3,35 +3,65 @@ package persistence;
 import model.Deck;
 import org.json.JSONObject;
 
-import java.io.File;
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 
-// Represents a writer that writes JSON representation of a deck to file
+// Represents a writer that writes JSON representation of a deck to file. The deck is written
+// as a stream: its header fields come first, so they can be read without reading the cards, and
+// then each card is written to the buffered file as soon as it has been converted to JSON, so the
+// whole document is never held in memory. Decks can be written indented or compact.
 // JsonWriter was heavily inspired by the JsonWriter class in the JsonSerializationDemo
 // (https://github.students.cs.ubc.ca/CPSC210/JsonSerializationDemo)
 public class JsonWriter {
     private static final int TAB = 4;
     private PrintWriter writer;
     private String destination;
+    private final boolean compact;
 
-    // Effects: constructs writer to write to destination file
+    // Effects: constructs writer to write indented JSON to destination file
     public JsonWriter(String destination) {
+        this(destination, false);
+    }
+
+    // Effects: constructs writer to write to destination file, without indentation or line breaks
+    // if compact is true
+    public JsonWriter(String destination, boolean compact) {
         this.destination = destination;
+        this.compact = compact;
     }
 
     // Modifies: this
     // Effects: opens writer. Throws FileNotFoundException if destination file cannot
     // be opened for writing
     public void open() throws FileNotFoundException {
-        writer = new PrintWriter(new File(destination));
+        writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(destination), StandardCharsets.UTF_8)));
     }
 
     // Modifies: this
     // Effects: writes JSON representation of deck to file
     public void write(Deck deck) {
-        JSONObject json = deck.toJson();
-        saveToFile(json.toString(TAB));
+        writer.print('{');
+        writeField("name", JSONObject.quote(deck.getName()));
+        writer.print(',');
+        writeField("cardCount", String.valueOf(deck.getDeckSize()));
+        writer.print(',');
+        writeField("learnedCount", String.valueOf(deck.getLearnedCount()));
+        writer.print(',');
+        writeField("nextDue", String.valueOf(deck.getNextDue()));
+        writer.print(',');
+        writeArray("flashcards", deck.getCardView());
+        if (deck.hasScheduler()) {
+            writer.print(',');
+            writeArray("schedule", deck.getScheduler().getSchedules());
+        }
+        newLine(0);
+        writer.print('}');
     }
 
     // Modifies: this
@@ -40,10 +70,50 @@ public class JsonWriter {
         writer.close();
     }
 
+    // Effects: returns true if an error occurred writing to or closing the file. The print methods
+    // of the underlying writer do not throw, so errors are only seen here.
+    public boolean hasError() {
+        return writer.checkError();
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
     // Modifies: this
-    // Effects: writes string to file
-    private void saveToFile(String json) {
-        writer.print(json);
+    // Effects: writes a field of the deck with the given JSON value
+    private void writeField(String key, String value) {
+        newLine(1);
+        writer.print(JSONObject.quote(key));
+        writer.print(compact ? ":" : ": ");
+        writer.print(value);
     }
 
+    // Modifies: this
+    // Effects: writes a field of the deck holding an array of elements, one element at a time
+    private void writeArray(String key, Collection<? extends Writable> elements) {
+        writeField(key, "[");
+        boolean first = true;
+        for (Writable element : elements) {
+            if (!first) {
+                writer.print(',');
+            }
+            first = false;
+            newLine(2);
+            element.toJson().write(writer, compact ? 0 : TAB, compact ? 0 : 2 * TAB);
+        }
+        if (!first) {
+            newLine(1);
+        }
+        writer.print(']');
+    }
+
+    // Modifies: this
+    // Effects: unless compact, starts a new line indented to the given depth
+    private void newLine(int depth) {
+        if (!compact) {
+            writer.print('\n');
+            writer.print(" ".repeat(depth * TAB));
+        }
+    }
 }
@@ -0,0 +1,179 @@
+package persistence;
+
+import model.CardTextStore;
+import model.Deck;
+import model.Flashcard;
+import model.ShuffledOrder;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+Represents a read-only deck saved in a binary deck file that is read lazily from a memory-mapped
+copy of the file. Opening the deck reads only its header and the position of its offset table,
+so it takes the same time whatever the size of the deck. A card is read from file the first time
+it is asked for, and its text is decoded from the mapped file each time it is shown rather than
+kept on the heap, so memory use grows with the cards actually used. A smaller, ordinary deck of
+chosen cards can be made with select or sample, for example to quiz on a few cards of a large
+deck. Review schedules are not read. Changes saved to the deck's journal are not in the binary
+file until the journal is compacted, so a deck whose journal holds changes is refused rather than
+shown out of date.
+ */
+public class MappedDeck implements CardTextStore {
+    private static final int FOOTER_BYTES = Integer.BYTES;
+    private final String source;
+    private final ByteBuffer buffer;
+    private final BinaryDeckCodec.Header header;
+    private final int stringTable;
+    private final int cardTable;
+    private final Map<Integer, Flashcard> cards;
+
+    // Effects: opens the binary deck saved in source, reading only its header
+    // throws IOException if source cannot be read, does not hold a binary deck with an offset
+    // table, or has changes in its journal that have not been compacted into it
+    public MappedDeck(String source) throws IOException {
+        Path journal = Paths.get(DeckJournal.journalPath(source));
+        if (Files.exists(journal) && Files.size(journal) > 0) {
+            throw new IOException("Binary deck has changes in its journal that are not compacted: " + source);
+        }
+        this.source = source;
+        this.buffer = BinaryDeckCodec.map(source);
+        this.header = BinaryDeckCodec.readHeader(buffer);
+        long tableBytes = (long) Integer.BYTES * (header.stringCount + header.cardCount) + FOOTER_BYTES;
+        if (header.version < 2 || buffer.capacity() < tableBytes) {
+            throw new IOException("Binary deck has no offset table: " + source);
+        }
+        this.stringTable = buffer.getInt(buffer.capacity() - FOOTER_BYTES);
+        this.cardTable = stringTable + Integer.BYTES * header.stringCount;
+        if (stringTable + tableBytes != buffer.capacity()) {
+            throw new IOException("Damaged offset table in binary deck: " + source);
+        }
+        this.cards = new ConcurrentHashMap<>();
+    }
+
+    // Requires: 0 <= position < size()
+    // Modifies: this
+    // Effects: returns the card at position in the deck, reading it from file the first time it is
+    // asked for. The same card is returned each time, to any thread.
+    public Flashcard getCard(int position) {
+        return cards.computeIfAbsent(position, p -> new Flashcard(record(p).id, this, p));
+    }
+
+    // Requires: every position produced by positions is in 0 to size() - 1, and limit >= 0
+    // Modifies: this
+    // Effects: returns a new deck with the same name holding copies of the cards at the first limit
+    // positions produced by positions, in that order. The copies keep the cards' ids and hold
+    // their text on the heap, so the new deck shares no cards with this one.
+    public Deck select(PrimitiveIterator.OfInt positions, int limit) {
+        List<Flashcard> selected = new ArrayList<>();
+        for (int i = 0; i < limit && positions.hasNext(); i++) {
+            Flashcard card = getCard(positions.nextInt());
+            selected.add(new Flashcard(card.getIdNumber(), card.getFront(), card.getBack()));
+        }
+        Deck deck = new Deck(header.name);
+        deck.addAll(selected);
+        return deck;
+    }
+
+    // Requires: count >= 0
+    // Modifies: this
+    // Effects: returns a new deck with the same name holding count cards (or every card, if the
+    // deck has fewer) chosen at random from this deck using seed. Only the chosen cards are read.
+    public Deck sample(int count, long seed) {
+        return select(new ShuffledOrder(header.cardCount, seed), count);
+    }
+
+    // Requires: handle is the position of a card in this deck
+    // Effects: returns the front text of the card at position handle, decoded from file
+    @Override
+    public String getFront(long handle) {
+        return string(record((int) handle).front);
+    }
+
+    // Requires: handle is the position of a card in this deck
+    // Effects: returns the back text of the card at position handle, decoded from file
+    @Override
+    public String getBack(long handle) {
+        return string(record((int) handle).back);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getName() {
+        return header.name;
+    }
+
+    // Effects: returns the number of cards in the deck
+    public int size() {
+        return header.cardCount;
+    }
+
+    public int getLearnedCount() {
+        return header.learnedCount;
+    }
+
+    public long getNextDue() {
+        return header.nextDue;
+    }
+
+    // Effects: returns the number of cards that have been read from file
+    public int getReadCount() {
+        return cards.size();
+    }
+
+    // Effects: returns the record of the card at position in the deck
+    // throws IllegalStateException if the record cannot be read because the file is damaged
+    private CardRecord record(int position) {
+        try {
+            ByteBuffer view = seek(cardTable, position);
+            BinaryDeckCodec.recordEnd(view);
+            return new CardRecord(BinaryDeckCodec.readVarint(view), (int) BinaryDeckCodec.readVarint(view),
+                    (int) BinaryDeckCodec.readVarint(view));
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalStateException("Damaged card record in binary deck: " + source, e);
+        }
+    }
+
+    // Effects: returns the string at position in the string table
+    // throws IllegalStateException if the string cannot be read because the file is damaged
+    private String string(int position) {
+        try {
+            return BinaryDeckCodec.readString(seek(stringTable, position));
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalStateException("Damaged string table in binary deck: " + source, e);
+        }
+    }
+
+    // Effects: returns a view of the mapped file positioned at the file position stored at index
+    // position of the offset table that starts at table
+    private ByteBuffer seek(int table, int position) {
+        int offset = buffer.getInt(table + Integer.BYTES * position);
+        return buffer.duplicate().position(offset);
+    }
+
+    // Represents the fields of a card record
+    private static class CardRecord {
+        private final long id;
+        private final int front;
+        private final int back;
+
+        // Effects: creates a record of the card with id whose text is at positions front and back
+        // of the string table
+        CardRecord(long id, int front, int back) {
+            this.id = id;
+            this.front = front;
+            this.back = back;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/*
+Represents the append-only log of every review of the cards in a deck saved in a file. The log is
+kept next to the deck file (the deck file's path followed by ".reviews") and holds, after an
+eight-byte header, one fixed-size binary record per review: card id, time of the review, time
+taken to answer, and whether the answer was correct. Reviews are recorded in memory and appended
+to the file together by flush. Since every record has the same size, the number of reviews is
+known from the file size, and aggregate queries read the records in place from memory-mapped
+windows of the file without loading the history onto the heap. A record cut short by a failed
+write is ignored, and overwritten by the next flush.
+ */
+public class ReviewLog {
+    public static final int MAGIC = 0x46524C31;
+    public static final int VERSION = 1;
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+    static final int RECORD_BYTES = 2 * Long.BYTES + Integer.BYTES + 1;
+    private static final int WINDOW_RECORDS = 1 << 20;
+    private final Path path;
+    private ByteBuffer pending;
+
+    // Effects: creates the review log of the deck saved in source, with no reviews waiting to be
+    // appended
+    public ReviewLog(String source) {
+        this.path = Paths.get(logPath(source));
+        this.pending = ByteBuffer.allocate(16 * RECORD_BYTES);
+    }
+
+    // Effects: returns the path of the review log of the deck saved in source
+    public static String logPath(String source) {
+        return source + ".reviews";
+    }
+
+    // Requires: responseMillis >= 0
+    // Modifies: this
+    // Effects: records that the card with cardId was reviewed at timestamp (in milliseconds since
+    // the epoch) and answered correctly or not after responseMillis milliseconds. The review is
+    // appended to the file by the next flush.
+    public void record(long cardId, long timestamp, boolean correct, int responseMillis) {
+        if (pending.remaining() < RECORD_BYTES) {
+            pending.flip();
+            pending = ByteBuffer.allocate(2 * pending.capacity()).put(pending);
+        }
+        pending.putLong(cardId).putLong(timestamp).putInt(responseMillis).put((byte) (correct ? 1 : 0));
+    }
+
+    // Modifies: this
+    // Effects: appends the recorded reviews to the file in one write, creating the file if needed
+    // throws IOException if an error occurs writing to file or the file is not a review log; the
+    // reviews stay recorded so flush can be tried again
+    public void flush() throws IOException {
+        if (pending.position() == 0) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long end = HEADER_BYTES;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION);
+            if (channel.size() < HEADER_BYTES) {
+                header.flip();
+                writeFully(channel, header, 0);
+            } else {
+                checkHeader(channel);
+                end += recordCount(channel.size()) * RECORD_BYTES;
+            }
+            channel.truncate(end);
+            writeFully(channel, pending.duplicate().flip(), end);
+        }
+        pending.clear();
+    }
+
+    // Effects: returns the number of reviews recorded but not yet appended to the file
+    public int getPendingCount() {
+        return pending.position() / RECORD_BYTES;
+    }
+
+    // Effects: returns the number of reviews in the file
+    // throws IOException if the file cannot be read
+    public long size() throws IOException {
+        return Files.exists(path) ? recordCount(Files.size(path)) : 0;
+    }
+
+    // Effects: returns the totals of the reviews of the card with cardId in the file
+    // throws IOException if an error occurs reading the file or it is not a review log
+    public ReviewStats getStats(long cardId) throws IOException {
+        ReviewStats stats = new ReviewStats();
+        scan((id, timestamp, correct, responseMillis) -> {
+            if (id == cardId) {
+                stats.add(timestamp, correct, responseMillis);
+            }
+        });
+        return stats;
+    }
+
+    // Effects: returns the totals of all the reviews in the file
+    // throws IOException if an error occurs reading the file or it is not a review log
+    public ReviewStats getTotals() throws IOException {
+        ReviewStats stats = new ReviewStats();
+        scan((id, timestamp, correct, responseMillis) -> stats.add(timestamp, correct, responseMillis));
+        return stats;
+    }
+
+    // Effects: returns the totals of the reviews in the file for each card that has been reviewed,
+    // by card id. Memory used grows with the number of cards, not the number of reviews.
+    // throws IOException if an error occurs reading the file or it is not a review log
+    public Map<Long, ReviewStats> getStatsByCard() throws IOException {
+        Map<Long, ReviewStats> stats = new HashMap<>();
+        scan((id, timestamp, correct, responseMillis) ->
+                stats.computeIfAbsent(id, k -> new ReviewStats()).add(timestamp, correct, responseMillis));
+        return stats;
+    }
+
+    // Effects: returns the number of reviews in the file made on each day in zone, for the days on
+    // which there were reviews, in date order
+    // throws IOException if an error occurs reading the file or it is not a review log
+    public SortedMap<LocalDate, Integer> getReviewsPerDay(ZoneId zone) throws IOException {
+        DayCounter counter = new DayCounter(zone);
+        scan(counter);
+        return counter.finish();
+    }
+
+    // Effects: passes every review in the file to visitor, in the order they were appended
+    // throws IOException if an error occurs reading the file or it is not a review log
+    private void scan(RecordVisitor visitor) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long records = recordCount(channel.size());
+            if (records > 0) {
+                checkHeader(channel);
+            }
+            for (long first = 0; first < records; first += WINDOW_RECORDS) {
+                int count = (int) Math.min(WINDOW_RECORDS, records - first);
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_BYTES + first * RECORD_BYTES, (long) count * RECORD_BYTES);
+                for (int at = 0; at < count * RECORD_BYTES; at += RECORD_BYTES) {
+                    visitor.visit(window.getLong(at), window.getLong(at + Long.BYTES),
+                            window.get(at + 2 * Long.BYTES + Integer.BYTES) != 0,
+                            window.getInt(at + 2 * Long.BYTES));
+                }
+            }
+        }
+    }
+
+    // Effects: returns the number of whole records in a review log file of fileBytes bytes
+    private static long recordCount(long fileBytes) {
+        return Math.max(0, fileBytes - HEADER_BYTES) / RECORD_BYTES;
+    }
+
+    // Effects: throws IOException if the file open in channel does not start with the header of a
+    // review log of a version this class reads
+    private static void checkHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        int read = 0;
+        while (read >= 0 && header.hasRemaining()) {
+            read = channel.read(header, header.position());
+        }
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a review log");
+        }
+    }
+
+    // Effects: writes all of buffer to channel starting at position
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    // Interface representing an object that is given the fields of each review record in turn
+    private interface RecordVisitor {
+
+        // Effects: called with the fields of a review record
+        void visit(long cardId, long timestamp, boolean correct, int responseMillis);
+    }
+
+    // Represents a count of reviews per day in a time zone. Reviews are mostly appended in time
+    // order, so the bounds of the current day are kept and a date is only worked out when a review
+    // falls outside them.
+    private static class DayCounter implements RecordVisitor {
+        private final ZoneId zone;
+        private final SortedMap<LocalDate, Integer> counts;
+        private LocalDate day;
+        private long dayStart;
+        private long dayEnd;
+        private int count;
+
+        // Effects: creates a counter of reviews per day in zone with no reviews counted
+        DayCounter(ZoneId zone) {
+            this.zone = zone;
+            this.counts = new TreeMap<>();
+        }
+
+        // Modifies: this
+        // Effects: counts a review made at timestamp
+        @Override
+        public void visit(long cardId, long timestamp, boolean correct, int responseMillis) {
+            if (day == null || timestamp < dayStart || timestamp >= dayEnd) {
+                finish();
+                day = LocalDate.ofInstant(Instant.ofEpochMilli(timestamp), zone);
+                ZonedDateTime start = day.atStartOfDay(zone);
+                dayStart = start.toInstant().toEpochMilli();
+                dayEnd = start.plusDays(1).toInstant().toEpochMilli();
+                count = 0;
+            }
+            count++;
+        }
+
+        // Modifies: this
+        // Effects: adds the reviews counted for the current day to the counts and returns the counts
+        SortedMap<LocalDate, Integer> finish() {
+            if (day != null && count > 0) {
+                counts.merge(day, count, Integer::sum);
+                count = 0;
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package persistence;
+
+// Represents the totals of a set of reviews in a review log: how many there were, how many were
+// answered correctly, how long answers took and when the last review was
+public class ReviewStats {
+    private int reviews;
+    private int correct;
+    private long responseMillis;
+    private long lastReviewed;
+
+    // Effects: creates totals of no reviews
+    ReviewStats() {
+        lastReviewed = Long.MIN_VALUE;
+    }
+
+    // Modifies: this
+    // Effects: adds a review made at timestamp that was answered correctly or not in responseMillis
+    void add(long timestamp, boolean isCorrect, int responseMillis) {
+        reviews++;
+        correct += isCorrect ? 1 : 0;
+        this.responseMillis += responseMillis;
+        lastReviewed = Math.max(lastReviewed, timestamp);
+    }
+
+    public int getReviews() {
+        return reviews;
+    }
+
+    public int getCorrect() {
+        return correct;
+    }
+
+    // Effects: returns the percentage (0-100) of reviews answered correctly, or 0 if there were none
+    public double getPercentCorrect() {
+        return reviews == 0 ? 0 : (double) correct / reviews * 100;
+    }
+
+    // Effects: returns the average time taken to answer, in milliseconds, or 0 if there were no reviews
+    public double getAverageResponseMillis() {
+        return reviews == 0 ? 0 : (double) responseMillis / reviews;
+    }
+
+    // Effects: returns the time (in milliseconds since the epoch) of the latest review, or
+    // Long.MIN_VALUE if there were none
+    public long getLastReviewed() {
+        return lastReviewed;
+    }
+}
@@ -3,21 +3,35 @@ package ui;
 import model.Deck;
 import model.Event;
 import model.EventLog;
+import model.DeckDiff;
 import model.Flashcard;
-import persistence.JsonReader;
-import persistence.JsonWriter;
+import model.TextPool;
+import persistence.AutoSaver;
+import persistence.BinaryDeckCodec;
+import persistence.DeckHeader;
+import persistence.DeckJournal;
+import persistence.DeckLibrary;
+import persistence.DeckWatcher;
+import persistence.DelimitedImporter;
+import persistence.ImportReport;
+import persistence.ReviewLog;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /*
 Represents a flashcard JFrame window that allows users to build their own flashcard deck. Cards
 can be added and removed from deck, the deck can be viewed, and a flashcard quiz can be generated.
+Cards can be searched by the words on their front and back. Decks are opened from a library of
+the decks saved in ./data, or from any other file. Once a deck has been loaded from or saved to a
+file, changes to it are saved to the file in the background a moment after editing stops, and
+cards added to or removed from the file by other programs are added to or removed from the deck.
 
 Parts of the code for the FlashcardApp GUI were inspired by the Space Invaders Base, Simple Drawing Player,
 and Alarm System class examples:
@@ -31,12 +45,20 @@ public class FlashcardApp extends JFrame {
     private static final int WIDTH = 900;
     private static final int HEIGHT = 650;
     private static final Font OPENING_FONT = new Font("Serif", Font.PLAIN, 25);
+    private static final long LIBRARY_BUDGET = 64L * 1024 * 1024;
+    private static final String OTHER_FILE = "Other file...";
+    private final DeckLibrary library = new DeckLibrary("./data", LIBRARY_BUDGET, TextPool.getShared());
+    private DeckJournal journal;
+    private AutoSaver autoSaver;
+    private DeckWatcher watcher;
+    private ImportWorker importWorker;
     private JScrollPane deckView;
     private DeckPanel deckPanel;
     private JPanel buttonPanel;
     private JPanel title;
     private Deck deck;
     private String savePath;
+    private String searchQuery;
     private JCheckBox showCards;
     private JLabel titleLabel;
 
@@ -101,29 +123,26 @@ public class FlashcardApp extends JFrame {
             startWindow();
             return;
         }
+        closeFile(true);
+        cancelImport();
         this.deck = new Deck(name);
+        savePath = null;
     }
 
     // Modifies: this
-    // Effects: loads deck from file based on user input and stores file path. If user clicks cancel,
-    //          the window will return to the start window if ReturnToMainMenu is true.
-    //          If unable to load file, prompts user to reenter file path.
+    // Effects: loads deck chosen by user from the library or from a file path, and stores file path.
+    //          If user clicks cancel, the window will return to the start window if ReturnToMainMenu
+    //          is true. If unable to load file, prompts user to choose again.
     private void loadDeck(boolean returnToMainMenu) {
-        JLabel message = new JLabel("Please enter file path: ");
-        message.setFont(OPENING_FONT);
-        String path = (String) JOptionPane.showInputDialog(null, message, "Flashcard Application",
-                JOptionPane.PLAIN_MESSAGE, new ImageIcon("data/icons/CardLogo.png"), null,
-                "./data/sampleDeck.json");
+        String path = chooseDeck();
         if (path == null) {
             if (returnToMainMenu) {
                 startWindow();
             }
             return;
         }
-        JsonReader jsonReader = new JsonReader(path);
         try {
-            deck = jsonReader.read();
-            savePath = path;
+            openDeck(library.load(path), path);
         } catch (IOException e) {
             JOptionPane.showMessageDialog(null, "Unable to load file from '" + path
                     + "'\nPlease try again.", "Error", JOptionPane.ERROR_MESSAGE);
@@ -132,11 +151,132 @@ public class FlashcardApp extends JFrame {
     }
 
     // Modifies: this
-    // Effects: creates new JScrollPane that displays all the cards currently in deck
-    //          if the showCards checkbox is selected. Otherwise, does nothing.
+    // Effects: makes loaded, read from the file at path, the open deck, and starts recording and
+    //          saving its changes to that file. Stops an import into the deck open before.
+    //          throws IOException if the file's journal cannot be read
+    private void openDeck(Deck loaded, String path) throws IOException {
+        if (journal == null || !journal.getSource().equals(path) || !journal.isTracking(loaded)) {
+            DeckJournal opened = new DeckJournal(path);
+            opened.track(loaded);
+            closeFile(true);
+            journal = opened;
+        }
+        if (loaded != deck) {
+            cancelImport();
+        }
+        deck = loaded;
+        autoSave();
+        savePath = path;
+    }
+
+    // Requires: journal is tracking deck
+    // Modifies: this
+    // Effects: starts saving the changes made to deck to the file of journal in the background, and
+    //          watching the file for changes made by other programs
+    private void autoSave() {
+        if (autoSaver == null) {
+            autoSaver = new AutoSaver(journal, AutoSaver.DEFAULT_QUIET_MILLIS);
+        }
+        autoSaver.track(deck);
+        watch(journal.getSource());
+    }
+
+    // Modifies: this
+    // Effects: stops recording, saving and watching the file of deck, and drops its journal and
+    //          saver, so the file is left as it is from now on. If saveChanges, the changes recorded
+    //          but not yet saved are saved to the file in the background first; otherwise they are
+    //          dropped, as they have been saved to another file.
+    private void closeFile(boolean saveChanges) {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+        if (autoSaver != null && saveChanges) {
+            autoSaver.closeLater();
+        } else if (autoSaver != null) {
+            autoSaver.discard();
+        } else if (journal != null && !saveChanges) {
+            journal.untrack();
+        }
+        autoSaver = null;
+        journal = null;
+    }
+
+    // Modifies: this
+    // Effects: stops the import into deck that is running, if any, before another deck replaces it.
+    //          The cards already imported are kept.
+    private void cancelImport() {
+        if (importWorker != null) {
+            importWorker.cancel(true);
+            importWorker = null;
+        }
+    }
+
+    // Modifies: this
+    // Effects: starts watching the file at path for changes made by other programs, and stops
+    //          watching the file watched before. If the file cannot be watched, changes made by
+    //          other programs are not picked up.
+    private void watch(String path) {
+        if (watcher != null && watcher.getSource().equals(path)) {
+            return;
+        }
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+        try {
+            watcher = new DeckWatcher(path, journal, TextPool.getShared(), SwingUtilities::invokeLater,
+                    this::applyFileChanges);
+            watcher.start();
+        } catch (IOException e) {
+            // the deck can still be edited and saved
+        }
+    }
+
+    // Modifies: this
+    // Effects: adds the cards added to the file at source by another program to deck, and removes
+    //          the cards removed from it, if source is the file of deck. Other cards, and their quiz
+    //          state, are left as they are. Refreshes the cards shown if any changed.
+    private void applyFileChanges(String source, DeckDiff diff) {
+        if (source.equals(savePath) && diff.applyTo(deck) > 0) {
+            updateCards();
+        }
+    }
+
+    // Modifies: this
+    // Effects: scans the library and asks user to pick one of its decks or enter another file path.
+    //          Returns the path of the chosen deck, or null if user clicks cancel.
+    private String chooseDeck() {
+        try {
+            library.scan();
+        } catch (IOException e) {
+            // decks can still be opened by file path
+        }
+        List<Object> choices = new ArrayList<>(library.getHeaders());
+        choices.add(OTHER_FILE);
+        JLabel message = new JLabel("Please select a deck: ");
+        message.setFont(OPENING_FONT);
+        Object choice = JOptionPane.showInputDialog(null, message, "Flashcard Application",
+                JOptionPane.PLAIN_MESSAGE, new ImageIcon("data/icons/CardLogo.png"), choices.toArray(),
+                choices.get(0));
+        if (choice instanceof DeckHeader) {
+            return ((DeckHeader) choice).getSource();
+        } else if (choice == null) {
+            return null;
+        }
+        message.setText("Please enter file path: ");
+        return (String) JOptionPane.showInputDialog(null, message, "Flashcard Application",
+                JOptionPane.PLAIN_MESSAGE, new ImageIcon("data/icons/CardLogo.png"), null,
+                "./data/sampleDeck.json");
+    }
+
+    // Modifies: this
+    // Effects: creates new JScrollPane that displays all the cards currently in deck, or only the
+    //          cards matching the search query if there is one, if the showCards checkbox is
+    //          selected. Otherwise, does nothing.
     private void showCards() {
         if (showCards.isSelected()) {
-            deckPanel = new DeckPanel(deck.getFlashcards(false));
+            deckPanel = new DeckPanel(searchQuery == null ? deck.getCardView() : deck.search(searchQuery));
             deckView = new JScrollPane(deckPanel);
             deckView.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_ALWAYS);
             add(deckView);
@@ -169,25 +309,23 @@ public class FlashcardApp extends JFrame {
     private void generateButtonPanel() {
         buttonPanel = new JPanel();
         buttonPanel.setLayout(new BoxLayout(buttonPanel, BoxLayout.Y_AXIS));
-        JButton addButton = new JButton("Add Card");
-        addButton.addActionListener(new AddCardTool());
-        JButton deleteButton = new JButton("Delete Card");
-        deleteButton.addActionListener(new DeleteCardTool());
-        JButton saveAsButton = new JButton("Save As");
         ActionListener saveDeckTool = new SaveDeckTool();
-        saveAsButton.addActionListener(saveDeckTool);
-        JButton saveButton = new JButton("Save");
-        saveButton.addActionListener(saveDeckTool);
-        JButton quizMode = new JButton(("Quiz Mode"));
-        quizMode.addActionListener(new QuizTool());
-        JButton loadButton = new JButton("Load Deck");
-        loadButton.addActionListener(new LoadTool());
-        buttonPanel.add(addButton);
-        buttonPanel.add(deleteButton);
-        buttonPanel.add(quizMode);
-        buttonPanel.add(loadButton);
-        buttonPanel.add(saveAsButton);
-        buttonPanel.add(saveButton);
+        addButton("Add Card", new AddCardTool());
+        addButton("Import Cards", new ImportTool());
+        addButton("Delete Card", new DeleteCardTool());
+        addButton("Search Cards", new SearchTool());
+        addButton("Quiz Mode", new QuizTool());
+        addButton("Load Deck", new LoadTool());
+        addButton("Save As", saveDeckTool);
+        addButton("Save", saveDeckTool);
+    }
+
+    // Modifies: this
+    // Effects: adds a button with the given text that responds to listener to the button panel
+    private void addButton(String text, ActionListener listener) {
+        JButton button = new JButton(text);
+        button.addActionListener(listener);
+        buttonPanel.add(button);
     }
 
 
@@ -204,7 +342,7 @@ public class FlashcardApp extends JFrame {
             if (front != null) {
                 String back = JOptionPane.showInputDialog("Back of card: ");
                 if (back != null) {
-                    deck.addCard(new Flashcard(front, back));
+                    deck.addCard(new Flashcard(front, back, TextPool.getShared()));
                     updateCards();
                 }
             }
@@ -229,9 +367,11 @@ public class FlashcardApp extends JFrame {
                 }
             }
             if (confirmDelete(selectedFlashCards)) {
+                List<String> selectedIds = new ArrayList<>();
                 for (Flashcard flashcard : selectedFlashCards) {
-                    deck.removeCard(flashcard);
+                    selectedIds.add(flashcard.getId());
                 }
+                deck.removeCards(selectedIds);
                 updateCards();
             }
         }
@@ -280,27 +420,37 @@ public class FlashcardApp extends JFrame {
         }
 
         // Modifies: this
-        // Effects: saves deck with a file name supplied by user and records the file path
+        // Effects: saves deck with a file name supplied by user and records the file path. Names
+        //          ending in the binary deck extension are saved in the binary format, and all
+        //          other names as JSON.
         private void saveAs() {
             String fileName = JOptionPane.showInputDialog("Enter file name",
                     deck.getName().replaceAll("\\s", ""));
             if (fileName != null) {
-                String path = "./data/" + fileName + ".json";
+                String path = "./data/" + fileName
+                        + (fileName.endsWith(BinaryDeckCodec.EXTENSION) ? "" : ".json");
                 saveFile(path);
                 savePath = path;
             }
         }
 
-        // Effects: saves the deck to file
+        // Effects: saves the deck to file and updates its entry in the library. If the deck was
+        //          loaded from or last saved to the file, only the changes made since then are
+        //          appended to the file's journal.
         private void saveFile(String path) {
-            JsonWriter jsonWriter = new JsonWriter(path);
             try {
-                jsonWriter.open();
-                jsonWriter.write(deck);
-                jsonWriter.close();
+                boolean sameFile = journal != null && journal.getSource().equals(path);
+                DeckJournal target = sameFile ? journal : new DeckJournal(path);
+                target.save(deck);
+                if (!sameFile) {
+                    closeFile(false);
+                    journal = target;
+                }
+                autoSave();
+                library.saved(path, deck);
                 JOptionPane.showMessageDialog(null, "Saved file to: '" + path
                         + "'", "File saved", JOptionPane.INFORMATION_MESSAGE);
-            } catch (FileNotFoundException error) {
+            } catch (IOException error) {
                 JOptionPane.showMessageDialog(null, "Unable to save file to '" + path
                         + "'", "Error", JOptionPane.ERROR_MESSAGE);
             }
@@ -313,11 +463,12 @@ public class FlashcardApp extends JFrame {
 
         // Modifies: this
         // Effects: Creates new FlashcardGame JDialogue window if deck size is greater than 0.
-        //          Otherwise, shows error message
+        //          Answers are added to the review log of the deck's file, if it has been loaded
+        //          or saved. Otherwise, shows error message
         @Override
         public void actionPerformed(ActionEvent e) {
             if (deck.getDeckSize() > 0) {
-                new FlashcardGame(deck);
+                new FlashcardGame(deck, savePath == null ? null : new ReviewLog(savePath));
             } else {
                 JOptionPane.showMessageDialog(null, "No cards in deck!",
                         "Error", JOptionPane.ERROR_MESSAGE);
@@ -326,6 +477,127 @@ public class FlashcardApp extends JFrame {
 
     }
 
+    // Responds to the search cards button
+    private class SearchTool implements ActionListener {
+
+        // Modifies: this
+        // Effects: asks user for words to search for and shows only the cards that match them.
+        //          If user enters no words, shows all cards again.
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            String query = JOptionPane.showInputDialog("Search cards (leave empty to show all cards)",
+                    searchQuery == null ? "" : searchQuery);
+            if (query != null) {
+                searchQuery = query.isBlank() ? null : query;
+                showCards.setSelected(true);
+                updateCards();
+            }
+        }
+
+    }
+
+    // Responds to the import cards button
+    private class ImportTool implements ActionListener {
+
+        // Modifies: this
+        // Effects: asks user for a CSV or TSV file whose first two columns are the front and back of
+        //          each card, and whether its first row holds column names, then starts adding a card
+        //          to deck for each row in the background. The import button is disabled until the
+        //          import is done.
+        @Override
+        public void actionPerformed(ActionEvent e) {
+            String path = JOptionPane.showInputDialog("Enter path of CSV or TSV file to import");
+            if (path == null || path.isBlank()) {
+                return;
+            }
+            boolean hasHeader = JOptionPane.showConfirmDialog(null, "Does the first row hold column names?",
+                    "Import Cards", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION;
+            JButton button = (JButton) e.getSource();
+            button.setEnabled(false);
+            importWorker = new ImportWorker(path, hasHeader, deck, button);
+            importWorker.execute();
+        }
+    }
+
+    // Imports cards from a CSV or TSV file into a deck, adding each chunk of cards on the event
+    // dispatch thread. The import is cancelled if another deck is opened before it is done.
+    private class ImportWorker extends SwingWorker<ImportReport, Void> {
+        private final String path;
+        private final boolean hasHeader;
+        private final Deck target;
+        private final JButton button;
+
+        // Effects: creates a worker that imports the file at path into target, skipping its first
+        //          row if hasHeader, and enables button again when it is done
+        ImportWorker(String path, boolean hasHeader, Deck target, JButton button) {
+            this.path = path;
+            this.hasHeader = hasHeader;
+            this.target = target;
+            this.button = button;
+        }
+
+        // Effects: imports the file, returning a report of the rows read and the cards added
+        @Override
+        protected ImportReport doInBackground() throws IOException, InterruptedException {
+            return new DelimitedImporter(DelimitedImporter.delimiterFor(path), 0, 1, hasHeader,
+                    DelimitedImporter.DEFAULT_PARALLELISM, TextPool.getShared()).importFile(path, this::addCards);
+        }
+
+        // Modifies: target
+        // Effects: adds cards to target on the event dispatch thread, waiting for them to be added, and
+        //          returns the number added
+        private int addCards(List<Flashcard> cards) throws InterruptedException {
+            int[] added = new int[1];
+            try {
+                SwingUtilities.invokeAndWait(() -> added[0] = isCancelled() ? 0 : target.addAll(cards));
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw (RuntimeException) e.getCause();
+            }
+            return added[0];
+        }
+
+        // Modifies: this
+        // Effects: on the event dispatch thread, shows the cards and the outcome of the import, and
+        //          enables the import button again
+        @Override
+        protected void done() {
+            button.setEnabled(true);
+            if (importWorker == this) {
+                importWorker = null;
+            }
+            updateCards();
+            if (isCancelled()) {
+                JOptionPane.showMessageDialog(null, "Import from '" + path + "' stopped because another deck was"
+                        + " opened.\nThe cards imported before then were kept in '" + target.getName() + "'.",
+                        "Import Cards", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            try {
+                showImportReport(get());
+            } catch (InterruptedException | ExecutionException e) {
+                JOptionPane.showMessageDialog(null, "Unable to import cards from '" + path
+                        + "'", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+
+        // Effects: shows the outcome of an import, with the first few rows that were not imported
+        private void showImportReport(ImportReport report) {
+            StringBuilder message = new StringBuilder(report.toString());
+            for (int i = 0; i < Math.min(10, report.getErrors().size()); i++) {
+                message.append("\n").append(report.getErrors().get(i));
+            }
+            if (report.getErrorCount() > 10) {
+                message.append("\n...");
+            }
+            JOptionPane.showMessageDialog(null, message.toString(), "Import Cards",
+                    report.hasErrors() ? JOptionPane.WARNING_MESSAGE : JOptionPane.INFORMATION_MESSAGE);
+        }
+
+    }
+
     // Responds to the show cards checkbox
     private class ShowCardsTool implements ActionListener {
 
@@ -349,6 +621,7 @@ public class FlashcardApp extends JFrame {
                     "Confirm Open", JOptionPane.YES_NO_OPTION);
             if (input == 0) {
                 loadDeck(false);
+                searchQuery = null;
                 titleLabel.setText(deck.getName());
                 updateCards();
                 revalidate();
@@ -362,9 +635,22 @@ public class FlashcardApp extends JFrame {
     // https://docs.oracle.com/javase/8/docs/api/java/awt/event/WindowAdapter.html
     private class WindowCloseListerner extends WindowAdapter {
 
-        // Effects: prints log of events to console when window closed
+        // Effects: saves the changes not yet saved in the background, then prints log of events to
+        //          console when window closed
         @Override
         public void windowClosing(WindowEvent e) {
+            cancelImport();
+            if (watcher != null) {
+                watcher.close();
+            }
+            if (autoSaver != null) {
+                try {
+                    autoSaver.close();
+                } catch (IOException | InterruptedException error) {
+                    JOptionPane.showMessageDialog(null, "Unable to save changes to '" + savePath
+                            + "'", "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
             for (Event next : EventLog.getInstance()) {
                 System.out.println("\n" + next.toString());
             }
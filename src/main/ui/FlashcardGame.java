@@ -1,26 +1,48 @@
 package ui;
 
 import model.Deck;
-import model.Flashcard;
+import model.DueOrder;
+import model.QuizSession;
+import model.WeightedOrder;
+import persistence.ReviewLog;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Random;
 
 /*
 Represents a flashcard quiz window that allows users to flip through the cards in deck,
 marking if they guessed the card's value correctly before flipping. Completion and correctness
-stats are displayed when user terminates quiz.
+stats are displayed when user terminates quiz. When the quiz ends or the window is closed, each
+flipped card is reviewed once in the deck's review scheduler and, if there is a review log,
+added to it.
  */
 public class FlashcardGame extends JDialog {
     private static final int WIDTH = 910;
     private static final int HEIGHT = 650;
     private static final String PREV = "< Prev";
     private static final String NEXT = "Next >";
+    private static final String[] ORDERS = {"In order", "Random order", "Due cards only",
+            "Focus on missed cards"};
     private Deck deck;
-    private List<Flashcard> cardList;
+    private ReviewLog reviewLog;
+    private QuizSession session;
+    private PrimitiveIterator.OfInt cardOrder;
+    private WeightedOrder weightedOrder;
+    private List<Integer> cardList;
+    private Map<Integer, Integer> responseMillis;
+    private long shownAt;
     private JButton currentCard;
     private JButton prev;
     private JButton next;
@@ -28,10 +50,14 @@ public class FlashcardGame extends JDialog {
     private JPanel correctPanel;
     private JCheckBox correct;
     private JButton endQuiz;
+    private boolean reviewsRecorded;
 
-    // Effects: Creates the flashcard game window
-    public FlashcardGame(Deck deck) {
+    // Effects: Creates the flashcard game window. Answers are appended to reviewLog when the quiz
+    //          ends, if it is not null.
+    public FlashcardGame(Deck deck, ReviewLog reviewLog) {
         this.deck = deck;
+        this.reviewLog = reviewLog;
+        this.responseMillis = new HashMap<>();
         initialize();
         currentIndex = 0;
         addTopPanel();
@@ -47,20 +73,35 @@ public class FlashcardGame extends JDialog {
         setMinimumSize((new Dimension(WIDTH, HEIGHT)));
         setLayout(new BorderLayout(15, 15));
         setLocationRelativeTo(null);
+        addWindowListener(new QuizCloseListener());
         getDeckOrder();
     }
 
     // Modifies: this
-    // Effects: gets the list of flashcards in the deck in either the order added or in
-    //          a random order, based on user input
+    // Effects: starts a quiz session on the cards currently in the deck and gets an iterator over
+    //          the cards in either the order added, in a random order, over only the cards that
+    //          are due for review, or weighted towards missed cards, based on user input.
+    //          Draws the first card.
     private void getDeckOrder() {
-        int randomOrder = JOptionPane.showConfirmDialog(this, "Display cards in random order?",
-                "Flashcard Quiz", JOptionPane.YES_NO_OPTION);
-        if (randomOrder == 0) {
-            cardList = deck.getFlashcards(true);
+        int order = JOptionPane.showOptionDialog(this, "Display cards in which order?",
+                "Flashcard Quiz", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE,
+                null, ORDERS, ORDERS[0]);
+        session = new QuizSession(deck.getCardSet());
+        if (order == 2) {
+            cardOrder = new DueOrder(deck.getScheduler(), session.getCards(), System.currentTimeMillis());
+            if (!cardOrder.hasNext()) {
+                JOptionPane.showMessageDialog(this, "No cards are due for review. Showing all cards in order.");
+                cardOrder = session.getCards().order(false);
+            }
+        } else if (order == 3) {
+            weightedOrder = new WeightedOrder(session.getCards(), deck.getScheduler(), new Random());
+            cardOrder = weightedOrder;
         } else {
-            cardList = deck.getFlashcards(false);
+            cardOrder = session.getCards().order(order == 1);
         }
+        cardList = new ArrayList<>();
+        cardList.add(cardOrder.nextInt());
+        shownAt = System.currentTimeMillis();
     }
 
     // Modifies: this
@@ -101,7 +142,7 @@ public class FlashcardGame extends JDialog {
     // Modifies: this
     // Effects: creates new JButton to represent text on side of card facing user
     private void displayCurrentCard() {
-        String formattedCardText = "<html>" + cardList.get(currentIndex).displayCard() + "</html>";
+        String formattedCardText = "<html>" + session.displayCard(cardList.get(currentIndex)) + "</html>";
         currentCard = new JButton(formattedCardText);
         currentCard.setFont(new Font("Serif", Font.PLAIN, 35));
         currentCard.addActionListener(new FlipCardTool());
@@ -118,10 +159,10 @@ public class FlashcardGame extends JDialog {
         }
         remove(currentCard);
         displayCurrentCard();
-        if (cardList.get(currentIndex).isFlipped()) {
+        if (session.isFlipped(cardList.get(currentIndex))) {
             correct = new JCheckBox("Correct ?");
             correct.setFont(new Font("Serif", Font.PLAIN, 20));
-            if (cardList.get(currentIndex).isCorrect()) {
+            if (session.isCorrect(cardList.get(currentIndex))) {
                 correct.setSelected(true);
             }
             correct.addActionListener(new CorrectAnswerTool());
@@ -140,7 +181,7 @@ public class FlashcardGame extends JDialog {
         if (currentIndex <= 0) {
             this.prev.setEnabled(false);
         }
-        if (currentIndex >= cardList.size() - 1) {
+        if (currentIndex >= cardList.size() - 1 && !cardOrder.hasNext()) {
             this.next.setEnabled(false);
         }
     }
@@ -150,18 +191,28 @@ public class FlashcardGame extends JDialog {
     private class ChangeCardTool implements ActionListener {
 
         // Modifies: this
-        // Effects: displays the front of the previous card in list
+        // Effects: displays the front of the previous or next card, drawing the next card from
+        //          the deck if it has not been displayed yet. When focusing on missed cards, the
+        //          answer to a flipped card is recorded before leaving it.
         @Override
         public void actionPerformed(ActionEvent e) {
+            int leaving = cardList.get(currentIndex);
+            if (weightedOrder != null && session.isFlipped(leaving)) {
+                weightedOrder.recordAnswer(leaving, session.isCorrect(leaving));
+            }
             if (e.getActionCommand().equals(PREV)) {
                 currentIndex--;
             } else if (e.getActionCommand().equals(NEXT)) {
                 currentIndex++;
+                if (currentIndex == cardList.size()) {
+                    cardList.add(cardOrder.nextInt());
+                }
             }
-            Flashcard card = cardList.get(currentIndex);
-            if (card.isFlipped()) {
-                card.flipCard();
+            int card = cardList.get(currentIndex);
+            if (session.isFlipped(card)) {
+                session.flipCard(card);
             }
+            shownAt = System.currentTimeMillis();
             updateCard();
         }
     }
@@ -170,10 +221,15 @@ public class FlashcardGame extends JDialog {
     private class FlipCardTool implements ActionListener {
 
         // Modifies: this
-        // Effects: flips the card to display the opposite side
+        // Effects: flips the card to display the opposite side. The first time a card is flipped,
+        //          records how long it was shown before being flipped.
         @Override
         public void actionPerformed(ActionEvent e) {
-            cardList.get(currentIndex).flipCard();
+            int card = cardList.get(currentIndex);
+            if (!session.isViewed(card)) {
+                responseMillis.put(card, (int) Math.min(Integer.MAX_VALUE, System.currentTimeMillis() - shownAt));
+            }
+            session.flipCard(card);
             updateCard();
         }
     }
@@ -186,8 +242,7 @@ public class FlashcardGame extends JDialog {
         //          if checkbox unselected, sets card to not correct
         @Override
         public void actionPerformed(ActionEvent e) {
-            Flashcard card = cardList.get(currentIndex);
-            card.setCorrect(correct.isSelected());
+            session.setCorrect(cardList.get(currentIndex), correct.isSelected());
         }
     }
 
@@ -195,9 +250,11 @@ public class FlashcardGame extends JDialog {
     private class EndQuizTool implements ActionListener {
 
         // Modifies: this
-        // Effects: ends the quiz and displays quiz stats
+        // Effects: ends the quiz, records the answers to the flipped cards in the deck's review
+        //          scheduler and displays quiz stats
         @Override
         public void actionPerformed(ActionEvent e) {
+            recordReviews();
             remove(currentCard);
             prev.setEnabled(false);
             next.setEnabled(false);
@@ -210,7 +267,46 @@ public class FlashcardGame extends JDialog {
             add(terminationStats);
             revalidate();
             repaint();
-            deck.resetDeck();
+        }
+    }
+
+    // Responds to the quiz window being closed
+    private class QuizCloseListener extends WindowAdapter {
+
+        // Modifies: this
+        // Effects: records the answers to the flipped cards in the deck's review scheduler, unless the
+        //          quiz was ended first, so closing the window does not lose them
+        @Override
+        public void windowClosing(WindowEvent e) {
+            recordReviews();
+        }
+    }
+
+    // Modifies: deck
+    // Effects: reviews each card flipped during the quiz once in the deck's review scheduler and
+    //          review log, unless already done. Shows an error message if the log cannot be written.
+    private void recordReviews() {
+        if (reviewsRecorded) {
+            return;
+        }
+        reviewsRecorded = true;
+        long now = System.currentTimeMillis();
+        for (int card : new LinkedHashSet<>(cardList)) {
+            if (session.isViewed(card)) {
+                long id = session.getCards().get(card).getIdNumber();
+                deck.getScheduler().review(id, session.isCorrect(card), now);
+                if (reviewLog != null) {
+                    reviewLog.record(id, now, session.isCorrect(card), responseMillis.getOrDefault(card, 0));
+                }
+            }
+        }
+        try {
+            if (reviewLog != null) {
+                reviewLog.flush();
+            }
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Unable to save review history", "Error",
+                    JOptionPane.ERROR_MESSAGE);
         }
     }
 
@@ -223,20 +319,20 @@ public class FlashcardGame extends JDialog {
         congrats.setFont(new Font("Serif", Font.ITALIC, 60));
         stats.add(congrats);
         stats.add(Box.createRigidArea(new Dimension(0, 45)));
-        JLabel flipped = new JLabel("You flipped " + deck.getNumberViewed()
-                + " of " + cardList.size() + " cards");
+        JLabel flipped = new JLabel("You flipped " + session.getNumberViewed()
+                + " of " + session.size() + " cards");
         flipped.setFont(font);
         stats.add(flipped);
         stats.add(Box.createRigidArea(new Dimension(0, 10)));
-        JPanel flippedGraphic = new PercentageBar(deck.getPercentViewed());
+        JPanel flippedGraphic = new PercentageBar(session.getPercentViewed());
         stats.add(flippedGraphic);
         stats.add(Box.createRigidArea(new Dimension(0, 30)));
-        JLabel correct = new JLabel("You got " + deck.getNumberCorrect()
-                + " of " + deck.getNumberViewed() + " cards correct");
+        JLabel correct = new JLabel("You got " + session.getNumberCorrect()
+                + " of " + session.getNumberViewed() + " cards correct");
         correct.setFont(font);
         stats.add(correct);
         stats.add(Box.createRigidArea(new Dimension(0, 10)));
-        stats.add(new PercentageBar(deck.getPercentCorrect()));
+        stats.add(new PercentageBar(session.getPercentCorrect()));
         return stats;
     }
 
@@ -2,33 +2,44 @@ package ui.console;
 
 import model.Deck;
 import model.Flashcard;
+import model.TextPool;
+import persistence.AutoSaver;
+import persistence.DeckJournal;
+import persistence.DelimitedImporter;
+import persistence.ImportError;
+import persistence.ImportReport;
 import persistence.JsonReader;
-import persistence.JsonWriter;
+import persistence.ReviewLog;
 
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.List;
 
 /*
 Represents a flashcard console application that allows users to build their own
 flashcard deck. Cards can be added and removed from deck, the deck can be viewed,
-and users can test themselves on the deck through a flashcard game.
+and users can test themselves on the deck through a flashcard game. Once the deck has been
+loaded from or saved to file, changes to it are saved in the background a moment after
+editing stops. Quiz answers are added to the review log of the deck's file, once the deck has
+one.
  */
 public class FlashcardConsoleApp extends ConsoleApp {
     private static final String JSON_STORE = "./data/deck.json";
     private Deck deck;
-    private JsonWriter jsonWriter;
+    private DeckJournal journal;
+    private AutoSaver autoSaver;
+    private String deckSource;
     private JsonReader jsonReader;
-    private boolean applicationChanged;
 
     // Effects: runs the flashcard application
     public FlashcardConsoleApp() {
-        this.jsonWriter = new JsonWriter(JSON_STORE);
-        this.jsonReader = new JsonReader(JSON_STORE);
+        this.journal = new DeckJournal(JSON_STORE);
+        this.autoSaver = new AutoSaver(journal, AutoSaver.DEFAULT_QUIET_MILLIS);
+        this.jsonReader = new JsonReader(JSON_STORE, TextPool.getShared());
         this.deck = new Deck("User deck");
-        this.applicationChanged = false;
         runApplication();
         checkApplicationSaved();
+        stopAutoSave();
         printTerminationMessage();
     }
 
@@ -38,14 +49,18 @@ public class FlashcardConsoleApp extends ConsoleApp {
     protected void processCommand(String command) {
         if (command.equals("a")) {
             addCard();
+        } else if (command.equals("i")) {
+            importCards();
         } else if (command.equals("d") && deck.getDeckSize() > 0) {
             deleteCard();
         } else if (command.equals("g") && deck.getDeckSize() == 0) {
             generateSampleDeck();
         } else if (command.equals("v") && deck.getDeckSize() > 0) {
             viewDeck();
+        } else if (command.equals("f") && deck.getDeckSize() > 0) {
+            findCards();
         } else if (command.equals("t") && deck.getDeckSize() > 0) {
-            new FlashcardConsoleGame(deck);
+            new FlashcardConsoleGame(deck, deckSource == null ? null : new ReviewLog(deckSource));
         } else if (command.equals("s")) {
             saveDeck();
         } else if (command.equals("l")) {
@@ -60,12 +75,14 @@ public class FlashcardConsoleApp extends ConsoleApp {
     protected void displayMenu() {
         System.out.println("\nSelect from:");
         System.out.println("\ta -> add card to deck");
+        System.out.println("\ti -> import cards from CSV or TSV file");
         if (deck.getDeckSize() == 0) {
             System.out.println("\tg -> generate sample deck");
         }
         if (deck.getDeckSize() > 0) {
             System.out.println("\td -> delete card from deck");
             System.out.println("\tv -> view all cards in deck");
+            System.out.println("\tf -> find cards in deck");
             System.out.println("\tt -> test yourself on deck");
         }
         System.out.println("\n\ts -> save deck to file");
@@ -80,72 +97,123 @@ public class FlashcardConsoleApp extends ConsoleApp {
         String cardFace = scanner.next();
         System.out.println("Please enter what you want displayed on the back of the card:");
         String cardBack = scanner.next();
-        Flashcard card = new Flashcard(cardFace, cardBack);
+        Flashcard card = new Flashcard(cardFace, cardBack, TextPool.getShared());
         deck.addCard(card);
-        this.applicationChanged = true;
     }
 
     // Modifies: this
-    // Effects: deletes a card from the deck based on user input
+    // Effects: adds a card to the deck for each row of a CSV or TSV file chosen by user, taking the
+    //          front and back from its first two columns, and prints the rows that were not imported
+    private void importCards() {
+        System.out.println("Please enter the path of the CSV or TSV file to import:");
+        String path = scanner.next();
+        System.out.println("Does the first row hold column names?");
+        System.out.println("\t y -> yes \n\t n -> no");
+        boolean hasHeader = scanner.next().equalsIgnoreCase("y");
+        try {
+            ImportReport report = new DelimitedImporter(DelimitedImporter.delimiterFor(path), 0, 1, hasHeader,
+                    DelimitedImporter.DEFAULT_PARALLELISM, TextPool.getShared()).importFile(deck, path);
+            for (ImportError error : report.getErrors()) {
+                System.out.println(error);
+            }
+            System.out.println(report);
+        } catch (IOException | InterruptedException e) {
+            System.out.println("Unable to import cards from file: " + path);
+        }
+    }
+
+    // Modifies: this
+    // Effects: deletes one or more cards from the deck based on user input
     private void deleteCard() {
         viewDeck();
         System.out.println("Cards in deck are displayed above. To return to main menu enter 'back'");
-        System.out.println("Otherwise, please enter the ID number of the card you want to delete:");
-        String input = scanner.next();
+        System.out.println("Otherwise, please enter the ID numbers of the cards you want to delete "
+                + "(separated by spaces or commas):");
+        String input = scanner.next().trim();
         if (input.equalsIgnoreCase("back") || input.equalsIgnoreCase("b")) {
             System.out.println("Returning to main menu.");
-        } else if (deck.removeCard(input)) {
-            System.out.println("Removed card with id " + input);
+            return;
+        }
+        List<String> cardIDs = Arrays.asList(input.split("[\\s,]+"));
+        int removed = deck.removeCards(cardIDs);
+        if (removed > 0) {
+            System.out.println("Removed " + removed + " of " + cardIDs.size() + " cards with ids " + input);
         } else {
             System.out.println("Unable to find card with id '" + input + "'. Returning to main menu");
         }
-        this.applicationChanged = true;
     }
 
     // Modifies: this
-    // Effects: creates a sample card deck
+    // Effects: creates a sample card deck, which is not saved to a file until user saves it
     private void generateSampleDeck() {
-        JsonReader jsonSampleReader = new JsonReader("./data/sampleDeck.json");
+        JsonReader jsonSampleReader = new JsonReader("./data/sampleDeck.json", TextPool.getShared());
         loadDeck(jsonSampleReader);
     }
 
     // Effects: prints out all the cards in deck
     private void viewDeck() {
-        List<Flashcard> cards = deck.getFlashcards(false);
-        for (Flashcard flashcard : cards) {
+        for (Flashcard flashcard : deck.getCardView()) {
+            System.out.println(flashcard);
+            System.out.println("================================================");
+        }
+    }
+
+    // Effects: prints out the cards in deck that match words entered by user
+    private void findCards() {
+        System.out.println("Please enter the words to search for:");
+        List<Flashcard> found = deck.search(scanner.next());
+        for (Flashcard flashcard : found) {
             System.out.println(flashcard);
             System.out.println("================================================");
         }
+        System.out.println("Found " + found.size() + " of " + deck.getDeckSize() + " cards");
     }
 
-    // Effects: saves the deck to file
+    // Modifies: this
+    // Effects: saves the deck to file. If the deck was loaded from or last saved to the file, only
+    // the changes made since then are appended to the file's journal.
     private void saveDeck() {
         try {
-            jsonWriter.open();
-            jsonWriter.write(this.deck);
-            jsonWriter.close();
+            journal.save(this.deck);
+            autoSaver.track(deck);
+            deckSource = JSON_STORE;
             System.out.println("Saved " + deck.getName() + " to " + JSON_STORE);
-            this.applicationChanged = false;
-        } catch (FileNotFoundException e) {
+        } catch (IOException e) {
             System.out.println("Unable to write to file: " + JSON_STORE);
         }
     }
 
     // Modifies: this
-    // Effects: loads flashcard deck from file
+    // Effects: loads flashcard deck from file. Only a deck loaded from the deck store is saved in the
+    // background and has its quiz answers logged; other files are treated as the start of a new deck.
     private void loadDeck(JsonReader reader) {
         try {
             deck = reader.read();
+            deckSource = null;
+            if (reader.getSource().equals(JSON_STORE)) {
+                journal.track(deck);
+                autoSaver.track(deck);
+                deckSource = JSON_STORE;
+            }
             System.out.println("Loaded " + deck.getName() + " from " + reader.getSource());
         } catch (IOException e) {
             System.out.println("Unable to read from file: " + reader.getSource());
         }
     }
 
-    // Effects: checks if application has been saved, and if not outputs message asking
-    //          if user wants to save file
+    // Effects: saves the changes not yet saved in the background and stops saving in the background
+    private void stopAutoSave() {
+        try {
+            autoSaver.close();
+        } catch (IOException | InterruptedException e) {
+            System.out.println("Unable to write to file: " + JSON_STORE);
+        }
+    }
+
+    // Effects: checks if deck has changes that have not been saved and are not being saved in the
+    //          background, and if so outputs message asking if user wants to save file
     private void checkApplicationSaved() {
-        if (applicationChanged) {
+        if (deck.isDirty() && !journal.isTracking(deck)) {
             boolean getInput = true;
             while (getInput) {
                 System.out.println("Unsaved changes. Would you like to save before quitting?");
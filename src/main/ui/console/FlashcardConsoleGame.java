@@ -2,50 +2,77 @@ package ui.console;
 
 
 import model.Deck;
-import model.Flashcard;
+import model.DueOrder;
+import model.QuizSession;
+import model.WeightedOrder;
+import persistence.ReviewLog;
 
-import java.util.List;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Random;
 
 /*
 Represents a flashcard game that can be used to test flashcard knowledge. Cards
 from a deck can be displayed in random order and users can go through the deck,
 flipping cards and marking if cards were completed successfully. Test statistics
-are displayed upon closing the game.
+are displayed upon closing the game. When the game ends, each flipped card is reviewed once in
+the deck's review scheduler and, if there is a review log, added to it.
 */
 public class FlashcardConsoleGame extends ConsoleApp {
     private final Deck deck;
+    private final ReviewLog reviewLog;
     private boolean random;
-    private List<Flashcard> cardList;
+    private boolean dueOnly;
+    private boolean focusMissed;
+    private QuizSession session;
+    private PrimitiveIterator.OfInt cardOrder;
+    private WeightedOrder weightedOrder;
     private int displayIndex;
-    private Flashcard card;
+    private int card;
+    private long shownAt;
+    private final Map<Integer, Integer> responseMillis;
 
     // Effects: creates a flashcard game from the deck and runs the game application.
-    // The deck is reset to its initial state after completion.
-    public FlashcardConsoleGame(Deck deck) {
+    // The deck is not changed by the game. Answers are appended to reviewLog when the game ends, if
+    // it is not null.
+    public FlashcardConsoleGame(Deck deck, ReviewLog reviewLog) {
         this.deck = deck;
+        this.reviewLog = reviewLog;
+        this.responseMillis = new LinkedHashMap<>();
         displayIndex = 0;
         runApplication();
+        recordReviews();
         printTerminationStats();
-        deck.resetDeck();
     }
 
     @Override
     // Modifies: this
     // Effects: initializes the flashcard game.
-    // Gets the list of flashcards to be displayed and displays first card
+    // Starts a quiz session on the deck, gets the order the flashcards will be displayed in
+    // and displays first card
     protected void init() {
         super.init();
         System.out.println("\nEntering test mode....");
         getCardOrder();
-        cardList = deck.getFlashcards(random);
+        session = new QuizSession(deck.getCardSet());
+        if (focusMissed) {
+            weightedOrder = new WeightedOrder(session.getCards(), deck.getScheduler(), new Random());
+            cardOrder = weightedOrder;
+        } else {
+            cardOrder = dueOnly ? dueOrder() : session.getCards().order(random);
+        }
+        card = cardOrder.nextInt();
         showCard();
     }
 
     // Modifies: this
-    // Effects: determines if user wants cards displayed in order they were created or
-    // in random order
+    // Effects: determines if user wants cards displayed in order they were created,
+    // in random order, only the cards that are due for review, or weighted towards missed cards
     private void getCardOrder() {
-        System.out.println("\nDisplay cards in random order? \n\ty -> yes \n\tn -> no");
+        System.out.println("\nDisplay cards in random order? \n\ty -> yes \n\tn -> no"
+                + "\n\td -> due cards only \n\tm -> focus on missed cards");
         boolean getInput = true;
         while (getInput) {
             String command = scanner.next();
@@ -55,17 +82,35 @@ public class FlashcardConsoleGame extends ConsoleApp {
             } else if (command.equalsIgnoreCase("n") || command.equalsIgnoreCase("no")) {
                 random = false;
                 getInput = false;
+            } else if (command.equalsIgnoreCase("d") || command.equalsIgnoreCase("due")) {
+                dueOnly = true;
+                getInput = false;
+            } else if (command.equalsIgnoreCase("m") || command.equalsIgnoreCase("missed")) {
+                focusMissed = true;
+                getInput = false;
             } else {
                 System.out.println("Invalid input. Please try again");
             }
         }
     }
 
+    // Effects: returns an order over the cards in the session that are due for review. If no
+    // cards are due, tells the user and returns an order over all cards in the order created.
+    private PrimitiveIterator.OfInt dueOrder() {
+        PrimitiveIterator.OfInt order = new DueOrder(deck.getScheduler(), session.getCards(),
+                System.currentTimeMillis());
+        if (!order.hasNext()) {
+            System.out.println("No cards are due for review. Showing all cards in order.");
+            return session.getCards().order(false);
+        }
+        return order;
+    }
+
     @Override
     // Effects: displays a menu of command options to user
     protected void displayMenu() {
         System.out.println("\nSelect from:");
-        if (!card.isFlipped()) {
+        if (!session.isFlipped(card)) {
             System.out.println("\tf -> flip card");
         }
         if (!lastCard()) {
@@ -78,7 +123,7 @@ public class FlashcardConsoleGame extends ConsoleApp {
     // Modifies: this
     // Effects: processes user input
     protected void processCommand(String command) {
-        if (command.equals("f") && !card.isFlipped()) {
+        if (command.equals("f") && !session.isFlipped(card)) {
             flipCard();
         } else if (command.equals("n") && !lastCard()) {
             nextCard();
@@ -88,67 +133,107 @@ public class FlashcardConsoleGame extends ConsoleApp {
     }
 
     // Modifies: this
-    // Effects: prints the card at stored index
+    // Effects: prints the current card, and records when its front was shown
     private void showCard() {
-        card = cardList.get(displayIndex);
+        if (!session.isFlipped(card)) {
+            shownAt = System.currentTimeMillis();
+        }
         System.out.println("***********************************");
-        System.out.println(card.displayCard());
+        System.out.println(session.displayCard(card));
         System.out.println("***********************************");
     }
 
     // Modifies: this
     // Effects: flips the current card to display the back and asks user if they
-    // guessed the card correctly. If card flipped is not the last card in deck,
-    // the next card is then displayed.
+    // guessed the card correctly, and records the answer.
+    // If card flipped is not the last card in deck, the next card is then displayed.
     private void flipCard() {
-        card.flipCard();
+        responseMillis.put(card, (int) Math.min(Integer.MAX_VALUE, System.currentTimeMillis() - shownAt));
+        session.flipCard(card);
         showCard();
         boolean getInput = true;
         while (getInput) {
             System.out.println("Did you get guess card correctly? \n\ty -> yes \n\tn -> no");
             String command = scanner.next();
             if (command.equalsIgnoreCase("y") || command.equalsIgnoreCase("yes")) {
-                card.setCorrect(true);
+                session.setCorrect(card, true);
                 getInput = false;
                 System.out.println("Good job! \n");
             } else if (command.equalsIgnoreCase("n") || command.equalsIgnoreCase("no")) {
-                card.setCorrect(false);
+                session.setCorrect(card, false);
                 getInput = false;
                 System.out.println("Awww too bad... you tried... \n");
             } else {
                 System.out.println("Invalid input. Please try again");
             }
         }
+        recordAnswer();
         if (!lastCard()) {
             nextCard();
         }
     }
 
-    // Requires: there must be a next element in list
-    // (displayIndex < cardList size - 1)
     // Modifies: this
-    // Effects: increments display index, showing the card at the next index
+    // Effects: records the answer to the current card in the weighted order, when focusing on
+    // missed cards, so the cards missed in this game are shown more often
+    private void recordAnswer() {
+        if (weightedOrder != null) {
+            weightedOrder.recordAnswer(card, session.isCorrect(card));
+        }
+    }
+
+    // Requires: there must be a card that has not been displayed yet
+    // Modifies: this
+    // Effects: draws the next card from the deck, increments display index and shows the card.
+    // A card that is shown again is turned back to its front.
     private void nextCard() {
+        card = cardOrder.nextInt();
+        if (session.isFlipped(card)) {
+            session.flipCard(card);
+        }
         displayIndex++;
         showCard();
     }
 
+    // Modifies: deck
+    // Effects: reviews each card flipped during the game once in the deck's review scheduler and
+    // review log, if any, using its last answer
+    private void recordReviews() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Integer, Integer> flipped : responseMillis.entrySet()) {
+            long id = session.getCards().get(flipped.getKey()).getIdNumber();
+            boolean correct = session.isCorrect(flipped.getKey());
+            deck.getScheduler().review(id, correct, now);
+            if (reviewLog != null) {
+                reviewLog.record(id, now, correct, flipped.getValue());
+            }
+        }
+        if (reviewLog == null) {
+            return;
+        }
+        try {
+            reviewLog.flush();
+        } catch (IOException e) {
+            System.out.println("Unable to save review history");
+        }
+    }
+
     // Effects: prints deck completion and correctness stats after termination of game
     private void printTerminationStats() {
-        double percentViewed = ((displayIndex + 1.0) / deck.getDeckSize()) * 100;
-        String txt = "You viewed " + (displayIndex + 1) + " of " + deck.getDeckSize() + " cards ";
+        double percentViewed = ((displayIndex + 1.0) / session.size()) * 100;
+        String txt = "You viewed " + (displayIndex + 1) + " of " + session.size() + " cards ";
         String viewed = String.format("(%.1f", percentViewed);
-        String flipped = String.format("Percent of total cards flipped: %.1f", deck.getPercentViewed());
-        String correct = String.format("Percent correct: %.1f", deck.getPercentCorrect());
+        String flipped = String.format("Percent of total cards flipped: %.1f", session.getPercentViewed());
+        String correct = String.format("Percent correct: %.1f", session.getPercentCorrect());
         System.out.println("Congratulations!");
         System.out.println(txt + viewed + " %)");
         System.out.println(flipped + " %");
         System.out.println(correct + " %");
     }
 
-    // Effects: returns true if displayIndex is indexing the last element in list.
+    // Effects: returns true if the current card is the last card to be displayed.
     // Otherwise, returns false.
     private boolean lastCard() {
-        return displayIndex == cardList.size() - 1;
+        return !cardOrder.hasNext();
     }
 }
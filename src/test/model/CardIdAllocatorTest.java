@@ -0,0 +1,52 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CardIdAllocatorTest {
+
+    @Test
+    void testAllocateIncreasing() {
+        CardIdAllocator allocator = CardIdAllocator.getInstance();
+        long first = allocator.allocate();
+        assertTrue(first > 0);
+        assertTrue(allocator.allocate() > first);
+        assertSame(allocator, CardIdAllocator.getInstance());
+    }
+
+    @Test
+    void testReserve() {
+        CardIdAllocator allocator = CardIdAllocator.getInstance();
+        long reserved = allocator.allocate() + 1000;
+        allocator.reserve(reserved);
+        assertTrue(allocator.allocate() > reserved);
+        allocator.reserve(1);
+        assertTrue(allocator.allocate() > reserved);
+    }
+
+    @Test
+    void testAllocateFromManyThreads() throws InterruptedException {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    ids.add(CardIdAllocator.getInstance().allocate());
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(8000, ids.size());
+    }
+}
@@ -0,0 +1,64 @@
+package model;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CardScheduleTest {
+    CardSchedule schedule;
+
+    @BeforeEach
+    void runBefore() {
+        schedule = new CardSchedule(7);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(7, schedule.getCardId());
+        assertEquals(CardSchedule.INITIAL_EASE, schedule.getEase());
+        assertEquals(0, schedule.getIntervalDays());
+        assertEquals(0, schedule.getRepetitions());
+        assertEquals(0, schedule.getDue());
+    }
+
+    @Test
+    void testReviewCorrect() {
+        schedule.review(true, 1000);
+        assertEquals(1, schedule.getIntervalDays());
+        assertEquals(1000 + CardSchedule.DAY_MILLIS, schedule.getDue());
+        schedule.review(true, 2000);
+        assertEquals(6, schedule.getIntervalDays());
+        assertEquals(2000 + 6 * CardSchedule.DAY_MILLIS, schedule.getDue());
+        schedule.review(true, 3000);
+        assertEquals(16, schedule.getIntervalDays());
+        assertEquals(3, schedule.getRepetitions());
+        assertEquals(2.8, schedule.getEase(), 1e-9);
+    }
+
+    @Test
+    void testReviewIncorrect() {
+        schedule.review(true, 0);
+        schedule.review(false, 5000);
+        assertEquals(0, schedule.getRepetitions());
+        assertEquals(0, schedule.getIntervalDays());
+        assertEquals(2.4, schedule.getEase(), 1e-9);
+        assertEquals(5000 + CardSchedule.RETRY_MILLIS, schedule.getDue());
+        for (int i = 0; i < 10; i++) {
+            schedule.review(false, 5000);
+        }
+        assertEquals(CardSchedule.MINIMUM_EASE, schedule.getEase());
+    }
+
+    @Test
+    void testToJson() {
+        schedule.review(true, 1000);
+        JSONObject json = schedule.toJson();
+        assertEquals(7, json.getLong("id"));
+        assertEquals(2.6, json.getDouble("ease"), 1e-9);
+        assertEquals(1, json.getInt("interval"));
+        assertEquals(1, json.getInt("repetitions"));
+        assertEquals(1000 + CardSchedule.DAY_MILLIS, json.getLong("due"));
+    }
+}
@@ -0,0 +1,95 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CardSetTest {
+    Deck testDeck;
+    Flashcard cardA;
+    Flashcard cardB;
+    Flashcard cardC;
+
+    @BeforeEach
+    void runBefore() {
+        testDeck = new Deck("Test deck");
+        cardA = new Flashcard("Front side A", "Back side A");
+        cardB = new Flashcard("Front side B", "Back side B");
+        cardC = new Flashcard("Front side C", "Back side C");
+        testDeck.addCard(cardA);
+        testDeck.addCard(cardB);
+        testDeck.addCard(cardC);
+    }
+
+    @Test
+    void testSnapshot() {
+        CardSet cards = testDeck.getCardSet();
+        assertEquals("Test deck", cards.getName());
+        assertEquals(3, cards.size());
+        assertEquals(cardB, cards.get(1));
+        testDeck.removeCard(cardA);
+        assertEquals(List.of(cardA, cardB, cardC), cards.getCards());
+        assertEquals(List.of(cardB, cardC), testDeck.getCardSet().getCards());
+    }
+
+    @Test
+    void testCardsKeptAfterDeckChanges() {
+        CardSet cards = testDeck.getCardSet();
+        List<Flashcard> list = cards.getCards();
+        testDeck.addCard(new Flashcard("Front side D", "Back side D"));
+        testDeck.removeCard(cardB);
+        assertEquals(List.of(cardA, cardB, cardC), list);
+        assertEquals(3, cards.size());
+        assertEquals(cardC, cards.get(2));
+        assertThrows(UnsupportedOperationException.class, () -> list.add(cardA));
+    }
+
+    @Test
+    void testSharedUntilDeckChanges() {
+        CardSet cards = testDeck.getCardSet();
+        assertSame(cards, testDeck.getCardSet());
+        cardA.flipCard();
+        assertSame(cards, testDeck.getCardSet());
+        testDeck.addCard(new Flashcard("Front side D", "Back side D"));
+        assertNotSame(cards, testDeck.getCardSet());
+    }
+
+    @Test
+    void testIndexOf() {
+        CardSet cards = testDeck.getCardSet();
+        assertEquals(2, cards.indexOf(cardC.getId()));
+        assertEquals(0, cards.indexOf(cardA.getId()));
+        assertEquals(-1, cards.indexOf("no id"));
+        assertEquals(1, cards.indexOf(cardB.getIdNumber()));
+    }
+
+    @Test
+    void testIndexOfAfterDeckChanges() {
+        CardSet cards = testDeck.getCardSet();
+        testDeck.removeCard(cardA);
+        assertEquals(0, cards.indexOf(cardA.getIdNumber()));
+        assertEquals(2, cards.indexOf(cardC.getIdNumber()));
+        assertEquals(1, testDeck.getCardSet().indexOf(cardC.getIdNumber()));
+        assertEquals(-1, testDeck.getCardSet().indexOf(cardA.getIdNumber()));
+    }
+
+    @Test
+    void testOrder() {
+        CardSet cards = testDeck.getCardSet();
+        PrimitiveIterator.OfInt inOrder = cards.order(false);
+        assertEquals(0, inOrder.nextInt());
+        assertEquals(1, inOrder.nextInt());
+        assertEquals(2, inOrder.nextInt());
+        assertFalse(inOrder.hasNext());
+        Set<Integer> drawn = new HashSet<>();
+        cards.order(true).forEachRemaining((int position) -> drawn.add(position));
+        assertEquals(Set.of(0, 1, 2), drawn);
+        assertEquals(8, cards.shuffledOrder(8).getSeed());
+    }
+}
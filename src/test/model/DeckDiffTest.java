@@ -0,0 +1,107 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeckDiffTest {
+    Deck deck;
+    Flashcard hello;
+    Flashcard moon;
+    Flashcard star;
+    Map<Long, Integer> earlier;
+
+    @BeforeEach
+    void runBefore() {
+        deck = new Deck("My deck", DuplicatePolicy.ALLOW);
+        hello = new Flashcard("Hello", "Goodbye");
+        moon = new Flashcard("Moon", "Sun");
+        star = new Flashcard("Star", "Sky");
+        deck.addCard(hello);
+        deck.addCard(moon);
+        deck.addCard(star);
+        earlier = DeckDiff.countContent(deck.getCardView());
+    }
+
+    @Test
+    void testCountContent() {
+        deck.addCard(new Flashcard("Moon", "Sun"));
+        Map<Long, Integer> counts = DeckDiff.countContent(deck.getCardView());
+        assertEquals(3, counts.size());
+        assertEquals(2, counts.get(DeckDiff.key(moon)));
+        assertNotEquals(DeckDiff.key(new Flashcard("MoonS", "un")), DeckDiff.key(moon));
+        assertEquals(DeckDiff.key(new Flashcard(" moon ", "SUN")), DeckDiff.key(moon));
+    }
+
+    @Test
+    void testNoChanges() {
+        List<Flashcard> latest = List.of(new Flashcard("Hello", "Goodbye"), new Flashcard("Star", "Sky"),
+                new Flashcard("Moon", "Sun"));
+        DeckDiff diff = DeckDiff.between(earlier, latest);
+        assertTrue(diff.isEmpty());
+        assertEquals(0, diff.applyTo(deck));
+        assertEquals(List.of(hello, moon, star), deck.getCardView());
+    }
+
+    @Test
+    void testApplyAddsAndRemoves() {
+        hello.flipCard();
+        List<Flashcard> latest = List.of(new Flashcard("Hello", "Goodbye"), new Flashcard("Comet", "Tail"),
+                new Flashcard("Star", "Sky"), new Flashcard("Moon", "Moon"));
+        DeckDiff diff = DeckDiff.between(earlier, latest);
+        assertFalse(diff.isEmpty());
+        assertEquals(2, diff.getAddedCount());
+        assertEquals(1, diff.getRemovedCount());
+        assertEquals(3, diff.applyTo(deck));
+        List<Flashcard> cards = deck.getCardView();
+        assertEquals(4, cards.size());
+        assertSame(hello, cards.get(0));
+        assertTrue(cards.get(0).isViewed());
+        assertSame(star, cards.get(1));
+        assertEquals("Comet", cards.get(2).getFront());
+        assertEquals("Moon", cards.get(3).getBack());
+        assertNotSame(latest.get(1), cards.get(2));
+    }
+
+    @Test
+    void testApplyKeepsLocalChanges() {
+        List<Flashcard> latest = List.of(new Flashcard("Hello", "Goodbye"), new Flashcard("Star", "Sky"),
+                new Flashcard("Comet", "Tail"));
+        DeckDiff diff = DeckDiff.between(earlier, latest);
+        deck.removeCard(hello);
+        deck.addCard(new Flashcard("Comet", "Tail"));
+        deck.addCard(new Flashcard("Rain", "Cloud"));
+        assertEquals(1, diff.applyTo(deck));
+        assertEquals(3, deck.getDeckSize());
+        assertEquals(List.of("Star", "Comet", "Rain"),
+                List.of(deck.getCardView().get(0).getFront(), deck.getCardView().get(1).getFront(),
+                        deck.getCardView().get(2).getFront()));
+    }
+
+    @Test
+    void testDuplicateContent() {
+        List<Flashcard> latest = List.of(new Flashcard("Moon", "Sun"), new Flashcard("Moon", "Sun"),
+                new Flashcard("Moon", "Sun"), new Flashcard("Star", "Sky"));
+        DeckDiff diff = DeckDiff.between(earlier, latest);
+        assertEquals(2, diff.getAddedCount());
+        assertEquals(1, diff.getRemovedCount());
+        assertEquals(3, diff.applyTo(deck));
+        assertEquals(DeckDiff.countContent(latest), DeckDiff.countContent(deck.getCardView()));
+        assertSame(moon, deck.getCardView().get(0));
+    }
+
+    @Test
+    void testAddedCardKeepsFreeId() {
+        Flashcard comet = new Flashcard("Comet", "Tail");
+        Flashcard clash = new Flashcard(hello.getIdNumber(), "Rain", "Cloud");
+        DeckDiff diff = DeckDiff.between(earlier, List.of(hello, moon, star, comet, clash));
+        assertEquals(2, diff.applyTo(deck));
+        assertEquals(comet.getIdNumber(), deck.getCardView().get(3).getIdNumber());
+        assertNotEquals(hello.getIdNumber(), deck.getCardView().get(4).getIdNumber());
+        assertEquals("Rain", deck.getCardView().get(4).getFront());
+    }
+}
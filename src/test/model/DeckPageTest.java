@@ -0,0 +1,69 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeckPageTest {
+    Deck testDeck;
+    Flashcard cardA;
+    Flashcard cardB;
+    Flashcard cardC;
+
+    @BeforeEach
+    void runBefore() {
+        testDeck = new Deck("Test deck");
+        cardA = new Flashcard("Front side A", "Back side A");
+        cardB = new Flashcard("Front side B", "Back side B");
+        cardC = new Flashcard("Front side C", "Back side C");
+        testDeck.addCard(cardA);
+        testDeck.addCard(cardB);
+        testDeck.addCard(cardC);
+    }
+
+    @Test
+    void testFirstPage() {
+        DeckPage page = testDeck.page(0, 2);
+        assertEquals(0, page.getOffset());
+        assertEquals(2, page.getLimit());
+        assertEquals(List.of(cardA, cardB), page.getCards());
+        assertTrue(page.hasNextPage());
+    }
+
+    @Test
+    void testNextPage() {
+        DeckPage page = testDeck.page(0, 2).nextPage();
+        assertEquals(2, page.getOffset());
+        assertEquals(List.of(cardC), page.getCards());
+        assertFalse(page.hasNextPage());
+    }
+
+    @Test
+    void testPagePastEndOfDeck() {
+        DeckPage page = testDeck.page(10, 2);
+        assertEquals(0, page.getCards().size());
+        assertFalse(page.hasNextPage());
+    }
+
+    @Test
+    void testPageLargeLimit() {
+        DeckPage page = testDeck.page(1, Integer.MAX_VALUE);
+        assertEquals(List.of(cardB, cardC), page.getCards());
+        assertFalse(page.hasNextPage());
+    }
+
+    @Test
+    void testPagePreventsAlteration() {
+        DeckPage page = testDeck.page(0, 3);
+        try {
+            page.getCards().remove(cardA);
+            fail("UnsupportedOperationException expected");
+        } catch (UnsupportedOperationException e) {
+            // pass
+        }
+        assertEquals(3, testDeck.getDeckSize());
+    }
+}
@@ -3,7 +3,12 @@ package model;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -57,6 +62,138 @@ public class DeckTest {
         assertEquals(cards.get(0), cardA);
     }
 
+    @Test
+    void testAddDuplicateContentRejected() {
+        assertTrue(testDeck.addCard(cardA));
+        assertFalse(testDeck.addCard(new Flashcard("  front SIDE   a ", "Back side A")));
+        assertEquals(1, testDeck.getDeckSize());
+        assertTrue(testDeck.containsContent(new Flashcard("Front side A", "back side a")));
+        assertFalse(testDeck.containsContent(cardB));
+    }
+
+    @Test
+    void testContentNormalization() {
+        assertTrue(testDeck.addCard(new Flashcard("\tFront\r\n side\u000B A\u0001", "Back side A")));
+        assertTrue(testDeck.containsContent(cardA));
+        assertTrue(testDeck.containsContent(new Flashcard("FRONT SIDE A", "  back\f side   a")));
+        assertFalse(testDeck.containsContent(new Flashcard("FrontSide A", "Back side A")));
+        assertFalse(testDeck.containsContent(new Flashcard("Front side", "A Back side A")));
+        assertFalse(testDeck.containsContent(new Flashcard("Front side A", "Back side AA")));
+        assertTrue(testDeck.addCard(new Flashcard("\u00c9t\u00c9", "\ud801\udc00")));
+        assertTrue(testDeck.containsContent(new Flashcard("\u00e9t\u00e9", "\ud801\udc28")));
+    }
+
+    @Test
+    void testAddSameFrontDifferentBack() {
+        assertTrue(testDeck.addCard(cardA));
+        assertTrue(testDeck.addCard(new Flashcard("Front side A", "Another back")));
+        assertEquals(2, testDeck.getDeckSize());
+    }
+
+    @Test
+    void testAddDuplicateContentMerged() {
+        testDeck = new Deck("Merge deck", DuplicatePolicy.MERGE);
+        assertEquals(DuplicatePolicy.MERGE, testDeck.getDuplicatePolicy());
+        Flashcard duplicate = new Flashcard("Front side A", "Back side A");
+        duplicate.flipCard();
+        duplicate.setCorrect(true);
+        assertTrue(testDeck.addCard(cardA));
+        assertFalse(testDeck.addCard(duplicate));
+        assertEquals(1, testDeck.getDeckSize());
+        assertTrue(cardA.isViewed());
+        assertTrue(cardA.isCorrect());
+        assertFalse(cardA.isFlipped());
+    }
+
+    @Test
+    void testAddAll() {
+        testDeck.addCard(cardA);
+        Flashcard duplicate = new Flashcard("front side b", "BACK SIDE B");
+        int events = countEvents();
+        assertEquals(3, testDeck.addAll(List.of(cardA, cardB, cardC, duplicate, cardD, cardC)));
+        assertEquals(events + 1, countEvents());
+        assertEquals(List.of(cardA, cardB, cardC, cardD), testDeck.getCardView());
+        assertSame(cardD, testDeck.getCard(cardD.getId()));
+        assertTrue(testDeck.removeCard(cardB));
+        assertEquals(List.of(cardA, cardC, cardD), testDeck.getCardView());
+        assertEquals(0, testDeck.addAll(List.of()));
+    }
+
+    @Test
+    void testAddAllMerged() {
+        testDeck = new Deck("Merge deck", DuplicatePolicy.MERGE);
+        Flashcard duplicate = new Flashcard("Front side A", "Back side A");
+        duplicate.flipCard();
+        assertEquals(2, testDeck.addAll(List.of(cardA, cardB, duplicate)));
+        assertEquals(2, testDeck.getDeckSize());
+        assertTrue(cardA.isViewed());
+        assertEquals(1, testDeck.getNumberViewed());
+    }
+
+    @Test
+    void testAddAllNotifiesListenersAndIndexes() {
+        List<Flashcard> added = new ArrayList<>();
+        testDeck.addChangeListener(new DeckChangeListener() {
+            @Override
+            public void cardAdded(Deck deck, Flashcard card) {
+                added.add(card);
+            }
+
+            @Override
+            public void cardRemoved(Deck deck, Flashcard card) {
+            }
+
+            @Override
+            public void scheduleChanged(Deck deck, CardSchedule schedule) {
+            }
+        });
+        testDeck.getScheduler();
+        testDeck.search("front");
+        List<Flashcard> many = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            many.add(new Flashcard("Front " + i, "Back " + i));
+        }
+        assertEquals(1000, testDeck.addAll(many));
+        assertEquals(many, added);
+        assertEquals(1000, testDeck.getScheduler().size());
+        assertEquals(List.of(many.get(500)), testDeck.search("500"));
+        assertEquals(many.get(999), testDeck.getCard(many.get(999).getId()));
+        assertTrue(testDeck.containsContent(new Flashcard("front 42", "back 42")));
+    }
+
+    @Test
+    void testAddDuplicateContentAllowed() {
+        testDeck = new Deck("Allow deck", DuplicatePolicy.ALLOW);
+        Flashcard duplicate = new Flashcard("Front side A", "Back side A");
+        assertTrue(testDeck.addCard(cardA));
+        assertTrue(testDeck.addCard(duplicate));
+        assertFalse(testDeck.addCard(cardA));
+        assertEquals(2, testDeck.getDeckSize());
+        assertTrue(testDeck.removeCard(cardA));
+        assertTrue(testDeck.containsContent(cardA));
+        assertTrue(testDeck.removeCard(duplicate));
+        assertFalse(testDeck.containsContent(cardA));
+    }
+
+    @Test
+    void testAddCardAfterContentRemoved() {
+        createDeck();
+        assertTrue(testDeck.removeCard(cardA));
+        assertFalse(testDeck.containsContent(cardA));
+        assertTrue(testDeck.addCard(new Flashcard("Front side A", "Back side A")));
+        assertEquals(4, testDeck.getDeckSize());
+    }
+
+    @Test
+    void testAddCardWithSameId() {
+        testDeck = new Deck("Allow deck", DuplicatePolicy.ALLOW);
+        assertTrue(testDeck.addCard(cardA));
+        assertFalse(testDeck.addCard(new Flashcard(cardA.getIdNumber(), "Other front", "Other back")));
+        assertEquals(1, testDeck.getDeckSize());
+        assertSame(cardA, testDeck.getCard(cardA.getId()));
+        assertNull(testDeck.getCard("not a number"));
+    }
+
     @Test
     void testRemoveCard() {
         createDeck();
@@ -112,6 +249,40 @@ public class DeckTest {
         assertEquals(cards.get(1), cardD);
     }
 
+    @Test
+    void testRemoveCardsUsingIds() {
+        createDeck();
+        assertEquals(2, testDeck.removeCards(List.of(cardD.getId(), cardB.getId(), cardB.getId(), "no id")));
+        assertEquals(2, testDeck.getDeckSize());
+        cards = testDeck.getFlashcards(false);
+        assertEquals(cards.get(0), cardA);
+        assertEquals(cards.get(1), cardC);
+        assertNull(testDeck.getCard(cardB.getId()));
+        assertFalse(testDeck.containsContent(cardD));
+        assertTrue(testDeck.removeCard(cardC.getId()));
+        assertEquals(1, testDeck.getDeckSize());
+    }
+
+    @Test
+    void testRemoveCardsNoneInDeck() {
+        createDeck();
+        assertEquals(0, testDeck.removeCards(List.of("no id")));
+        assertEquals(0, testDeck.removeCards(List.of()));
+        assertEquals(4, testDeck.getDeckSize());
+    }
+
+    @Test
+    void testGetCard() {
+        createDeck();
+        assertEquals(cardC, testDeck.getCard(cardC.getId()));
+        testDeck.removeCard(cardA);
+        assertEquals(cardC, testDeck.getCard(cardC.getId()));
+        assertEquals(cardD, testDeck.getFlashcards(false).get(2));
+        assertNull(testDeck.getCard(cardA.getId()));
+        assertTrue(testDeck.contains(cardD));
+        assertFalse(testDeck.contains(cardA));
+    }
+
     @Test
     void testGetPercentCorrectEmptyDeck() {
         assertEquals(0, testDeck.getPercentCorrect());
@@ -172,6 +343,66 @@ public class DeckTest {
         assertEquals(1, testDeck.getNumberCorrect());
     }
 
+    @Test
+    void testCountsFollowCardChanges() {
+        cardA.flipCard();
+        cardA.setCorrect(true);
+        createDeck();
+        assertEquals(1, testDeck.getNumberViewed());
+        assertEquals(1, testDeck.getNumberCorrect());
+        cardA.flipCard();
+        cardB.flipCard();
+        cardB.setCorrect(true);
+        cardB.setCorrect(true);
+        assertEquals(2, testDeck.getNumberViewed());
+        assertEquals(2, testDeck.getNumberCorrect());
+        cardB.resetCard();
+        assertEquals(1, testDeck.getNumberViewed());
+        assertEquals(1, testDeck.getNumberCorrect());
+        testDeck.removeCard(cardA);
+        assertEquals(0, testDeck.getNumberViewed());
+        assertEquals(0, testDeck.getNumberCorrect());
+        cardA.flipCard();
+        assertEquals(0, testDeck.getNumberViewed());
+    }
+
+    @Test
+    void testCountsAfterRemoveCardsAndReset() {
+        createDeck();
+        cardA.flipCard();
+        cardB.flipCard();
+        cardC.flipCard();
+        cardC.setCorrect(true);
+        testDeck.removeCards(List.of(cardC.getId()));
+        assertEquals(2, testDeck.getNumberViewed());
+        assertEquals(0, testDeck.getNumberCorrect());
+        testDeck.resetDeck();
+        assertEquals(0, testDeck.getNumberViewed());
+        assertEquals(0, testDeck.getPercentViewed());
+    }
+
+    @Test
+    void testCountsSharedCard() {
+        Deck otherDeck = new Deck("Other deck");
+        testDeck.addCard(cardA);
+        otherDeck.addCard(cardA);
+        cardA.flipCard();
+        assertEquals(1, testDeck.getNumberViewed());
+        assertEquals(1, otherDeck.getNumberViewed());
+    }
+
+    @Test
+    void testCountsAfterMerge() {
+        testDeck = new Deck("Merge deck", DuplicatePolicy.MERGE);
+        Flashcard duplicate = new Flashcard("Front side A", "Back side A");
+        duplicate.flipCard();
+        testDeck.addCard(cardA);
+        testDeck.addCard(duplicate);
+        assertEquals(1, testDeck.getNumberViewed());
+        duplicate.flipCard();
+        assertEquals(1, testDeck.getNumberViewed());
+    }
+
     @Test
     void testGetPercentViewedEmptyDeck() {
         assertEquals(0, testDeck.getPercentViewed());
@@ -240,6 +471,22 @@ public class DeckTest {
         assertEquals(4, cardsB.size());
     }
 
+    @Test
+    void testGetCardView() {
+        createDeck();
+        List<Flashcard> view = testDeck.getCardView();
+        assertEquals(List.of(cardA, cardB, cardC, cardD), view);
+        assertSame(view, testDeck.getCardView());
+        testDeck.removeCard(cardB);
+        assertEquals(List.of(cardA, cardC, cardD), view);
+        try {
+            view.remove(cardA);
+            fail("UnsupportedOperationException expected");
+        } catch (UnsupportedOperationException e) {
+            // pass
+        }
+    }
+
     @Test
     void testGetFlashcardsRandomOrder() {
         createDeck();
@@ -251,6 +498,53 @@ public class DeckTest {
         assertTrue(cards.contains(cardD));
     }
 
+    @Test
+    void testGetFlashcardIteratorInOrder() {
+        createDeck();
+        Iterator<Flashcard> iterator = testDeck.getFlashcardIterator(false);
+        assertEquals(cardA, iterator.next());
+        assertEquals(cardB, iterator.next());
+        assertEquals(cardC, iterator.next());
+        assertEquals(cardD, iterator.next());
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    void testGetFlashcardIteratorRandomOrder() {
+        createDeck();
+        Set<Flashcard> drawn = new HashSet<>();
+        Iterator<Flashcard> iterator = testDeck.getFlashcardIterator(true);
+        while (iterator.hasNext()) {
+            drawn.add(iterator.next());
+        }
+        assertEquals(Set.of(cardA, cardB, cardC, cardD), drawn);
+    }
+
+    @Test
+    void testShuffledIteratorSameSeed() {
+        createDeck();
+        Iterator<Flashcard> first = testDeck.shuffledIterator(99);
+        Iterator<Flashcard> second = testDeck.shuffledIterator(99);
+        while (first.hasNext()) {
+            assertEquals(first.next(), second.next());
+        }
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void testShuffledIteratorDeckChanged() {
+        createDeck();
+        Iterator<Flashcard> iterator = testDeck.shuffledIterator(5);
+        iterator.next();
+        testDeck.removeCard(cardA);
+        try {
+            iterator.next();
+            fail("ConcurrentModificationException expected");
+        } catch (ConcurrentModificationException e) {
+            // pass
+        }
+    }
+
     @Test
     void testResetDeck() {
         createDeck();
@@ -264,6 +558,205 @@ public class DeckTest {
         }
     }
 
+    @Test
+    void testUseCompactState() {
+        cardA.flipCard();
+        createDeck();
+        assertFalse(testDeck.isCompactState());
+        testDeck.useCompactState();
+        testDeck.useCompactState();
+        assertTrue(testDeck.isCompactState());
+        assertTrue(cardA.isViewed());
+        cardB.flipCard();
+        cardB.setCorrect(true);
+        Flashcard cardE = new Flashcard("Front side E", "Back side E");
+        cardE.setCorrect(true);
+        testDeck.addCard(cardE);
+        assertTrue(cardE.isCorrect());
+        assertEquals(2, testDeck.getNumberViewed());
+        assertEquals(2, testDeck.getNumberCorrect());
+    }
+
+    @Test
+    void testCompactStateRemoveCards() {
+        createDeck();
+        testDeck.useCompactState();
+        cardA.flipCard();
+        cardC.setCorrect(true);
+        cardD.flipCard();
+        assertTrue(testDeck.removeCard(cardA));
+        assertEquals(2, testDeck.removeCards(List.of(cardB.getId(), cardC.getId())));
+        assertTrue(cardA.isFlipped());
+        assertTrue(cardC.isCorrect());
+        assertTrue(cardD.isFlipped());
+        assertTrue(cardD.isViewed());
+        assertFalse(cardD.isCorrect());
+        cardA.resetCard();
+        assertTrue(cardD.isFlipped());
+        assertEquals(1, testDeck.getNumberViewed());
+    }
+
+    @Test
+    void testCompactStateResetDeck() {
+        createDeck();
+        testDeck.useCompactState();
+        cardA.flipCard();
+        cardB.setCorrect(true);
+        testDeck.resetDeck();
+        assertEquals(0, testDeck.getNumberViewed());
+        assertEquals(0, testDeck.getNumberCorrect());
+        for (Flashcard flashcard: testDeck.getCardView()) {
+            assertFalse(flashcard.isViewed());
+            assertFalse(flashcard.isFlipped());
+            assertFalse(flashcard.isCorrect());
+        }
+        cardC.flipCard();
+        assertEquals(1, testDeck.getNumberViewed());
+        List<Flashcard> changed = new ArrayList<>();
+        cardC.addStateListener((card, wasViewed, wasCorrect) -> changed.add(card));
+        testDeck.resetDeck();
+        assertEquals(List.of(cardC), changed);
+        assertEquals(0, testDeck.getNumberViewed());
+    }
+
+    @Test
+    void testUseTextArena() {
+        createDeck();
+        long heapBytes = testDeck.getHeapTextBytes();
+        assertTrue(heapBytes > 0);
+        assertEquals(0, testDeck.getOffHeapTextBytes());
+        testDeck.useTextArena();
+        testDeck.useTextArena();
+        assertTrue(testDeck.isTextArena());
+        assertEquals(0, testDeck.getHeapTextBytes());
+        assertTrue(testDeck.getOffHeapTextBytes() > 0);
+        assertEquals("Front side B", cardB.getFront());
+        Flashcard cardE = new Flashcard("Front side E", "Back side E");
+        testDeck.addCard(cardE);
+        assertFalse(testDeck.addCard(new Flashcard("front side e", "back side e")));
+        long usedBytes = testDeck.getOffHeapTextUsedBytes();
+        assertTrue(testDeck.removeCard(cardE));
+        assertTrue(testDeck.getOffHeapTextUsedBytes() < usedBytes);
+        assertEquals("Back side E", cardE.getBack());
+        assertEquals(0, testDeck.getHeapTextBytes());
+        assertFalse(testDeck.containsContent(cardE));
+    }
+
+    @Test
+    void testTextArenaCompactsReleasedText() {
+        testDeck.useTextArena();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            Flashcard card = new Flashcard(i + " " + "x".repeat(2000), "Back " + i);
+            testDeck.addCard(card);
+            ids.add(card.getId());
+        }
+        assertEquals(2 << 20, testDeck.getOffHeapTextBytes());
+        assertEquals(500, testDeck.removeCards(ids.subList(0, 500)));
+        assertEquals(1 << 20, testDeck.getOffHeapTextBytes());
+        assertEquals("Back 599", testDeck.getCardView().get(99).getBack());
+        assertTrue(testDeck.getCardView().get(0).getFront().startsWith("500 "));
+        assertTrue(testDeck.addCard(new Flashcard("Front after", "Back after")));
+    }
+
+    @Test
+    void testScheduler() {
+        createDeck();
+        assertFalse(testDeck.toJson().has("schedule"));
+        assertFalse(testDeck.hasScheduler());
+        ReviewScheduler scheduler = testDeck.getScheduler();
+        assertTrue(testDeck.hasScheduler());
+        assertSame(scheduler, testDeck.getScheduler());
+        assertEquals(4, scheduler.size());
+        Flashcard cardE = new Flashcard("Front side E", "Back side E");
+        testDeck.addCard(cardE);
+        assertNotNull(scheduler.getSchedule(cardE.getIdNumber()));
+        testDeck.removeCard(cardA);
+        assertNull(scheduler.getSchedule(cardA.getIdNumber()));
+        assertEquals(4, scheduler.size());
+        assertEquals(4, testDeck.toJson().getJSONArray("schedule").length());
+    }
+
+    @Test
+    void testReviewStats() {
+        assertEquals(Long.MAX_VALUE, testDeck.getNextDue());
+        createDeck();
+        assertEquals(0, testDeck.getLearnedCount());
+        assertEquals(0, testDeck.getNextDue());
+        ReviewScheduler scheduler = testDeck.getScheduler();
+        for (Flashcard card : testDeck.getCardView()) {
+            scheduler.review(card.getIdNumber(), true, 1000);
+        }
+        scheduler.review(cardB.getIdNumber(), false, 1000);
+        assertEquals(3, testDeck.getLearnedCount());
+        assertEquals(1000 + CardSchedule.RETRY_MILLIS, testDeck.getNextDue());
+        assertEquals(4, testDeck.toJson().getInt("cardCount"));
+        assertEquals(3, testDeck.toJson().getInt("learnedCount"));
+    }
+
+    @Test
+    void testSearch() {
+        createDeck();
+        assertEquals(List.of(cardA, cardB, cardC, cardD), testDeck.search("front"));
+        assertEquals(List.of(cardA), testDeck.search("Side a"));
+        Flashcard cardE = new Flashcard("Front side E", "Back side A");
+        testDeck.addCard(cardE);
+        assertEquals(List.of(cardA, cardE), testDeck.search("a"));
+        testDeck.removeCard(cardA);
+        assertEquals(List.of(cardE), testDeck.search("a"));
+        assertTrue(testDeck.search("").isEmpty());
+    }
+
+    @Test
+    void testChangeListener() {
+        List<String> changes = new ArrayList<>();
+        DeckChangeListener listener = new DeckChangeListener() {
+            @Override
+            public void cardAdded(Deck deck, Flashcard card) {
+                changes.add("add " + card.getFront());
+            }
+
+            @Override
+            public void cardRemoved(Deck deck, Flashcard card) {
+                changes.add("remove " + card.getFront());
+            }
+
+            @Override
+            public void scheduleChanged(Deck deck, CardSchedule schedule) {
+                changes.add("schedule " + deck.getCard(String.valueOf(schedule.getCardId())).getFront());
+            }
+        };
+        testDeck.addChangeListener(listener);
+        createDeck();
+        testDeck.removeCard(cardB);
+        testDeck.getScheduler().review(cardA.getIdNumber(), true, 0);
+        new DueOrder(testDeck.getScheduler(), testDeck.getCardSet(), 0).nextInt();
+        testDeck.removeChangeListener(listener);
+        testDeck.removeCard(cardC);
+        assertEquals(List.of("add Front side A", "add Front side B", "add Front side C", "add Front side D",
+                "remove Front side B", "schedule Front side A"), changes);
+    }
+
+    @Test
+    void testDirtyTracking() {
+        assertFalse(testDeck.isDirty());
+        createDeck();
+        assertEquals(4, testDeck.getChangeCount());
+        assertTrue(testDeck.isDirty());
+        testDeck.markSaved();
+        assertFalse(testDeck.isDirty());
+        testDeck.removeCard(cardB);
+        testDeck.getScheduler().review(cardA.getIdNumber(), true, 0);
+        assertEquals(6, testDeck.getChangeCount());
+        testDeck.markSaved(5);
+        assertTrue(testDeck.isDirty());
+        testDeck.markSaved(6);
+        testDeck.markSaved(5);
+        assertFalse(testDeck.isDirty());
+        testDeck.addCard(cardA);
+        assertFalse(testDeck.isDirty());
+    }
+
     private void createDeck(){
         testDeck.addCard(cardA);
         testDeck.addCard(cardB);
@@ -271,4 +764,12 @@ public class DeckTest {
         testDeck.addCard(cardD);
     }
 
+    // Effects: returns the number of events in the event log
+    private static int countEvents() {
+        int count = 0;
+        for (Event ignored : EventLog.getInstance()) {
+            count++;
+        }
+        return count;
+    }
 }
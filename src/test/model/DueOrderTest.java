@@ -0,0 +1,86 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DueOrderTest {
+    Deck testDeck;
+    Flashcard cardA;
+    Flashcard cardB;
+    Flashcard cardC;
+
+    @BeforeEach
+    void runBefore() {
+        testDeck = new Deck("Test deck");
+        cardA = new Flashcard("Front side A", "Back side A");
+        cardB = new Flashcard("Front side B", "Back side B");
+        cardC = new Flashcard("Front side C", "Back side C");
+        testDeck.addCard(cardA);
+        testDeck.addCard(cardB);
+        testDeck.addCard(cardC);
+    }
+
+    @Test
+    void testOnlyDueCards() {
+        ReviewScheduler scheduler = testDeck.getScheduler();
+        scheduler.review(cardA.getIdNumber(), true, 0);
+        scheduler.review(cardC.getIdNumber(), false, 0);
+        DueOrder order = new DueOrder(scheduler, testDeck.getCardSet(), 1000);
+        assertTrue(order.hasNext());
+        assertEquals(1, order.nextInt());
+        assertFalse(order.hasNext());
+        assertThrows(NoSuchElementException.class, order::nextInt);
+    }
+
+    @Test
+    void testLongestDueFirst() {
+        ReviewScheduler scheduler = testDeck.getScheduler();
+        scheduler.review(cardB.getIdNumber(), false, 0);
+        scheduler.review(cardC.getIdNumber(), false, 100);
+        scheduler.review(cardA.getIdNumber(), false, 200);
+        DueOrder order = new DueOrder(scheduler, testDeck.getCardSet(), CardSchedule.DAY_MILLIS);
+        assertEquals(1, order.nextInt());
+        assertEquals(2, order.nextInt());
+        assertEquals(0, order.nextInt());
+        assertFalse(order.hasNext());
+    }
+
+    @Test
+    void testSkipsCardsNotInSet() {
+        CardSet cards = testDeck.getCardSet();
+        testDeck.addCard(new Flashcard("Front side D", "Back side D"));
+        testDeck.removeCard(cardA);
+        DueOrder order = new DueOrder(testDeck.getScheduler(), cards, 0);
+        int count = 0;
+        while (order.hasNext()) {
+            int position = order.nextInt();
+            assertTrue(position == 1 || position == 2);
+            count++;
+        }
+        assertEquals(2, count);
+    }
+
+    @Test
+    void testLeavesSchedulesUnchanged() {
+        ReviewScheduler scheduler = testDeck.getScheduler();
+        DueOrder order = new DueOrder(scheduler, testDeck.getCardSet(), 1000);
+        while (order.hasNext()) {
+            order.nextInt();
+        }
+        assertEquals(3, scheduler.dueCards(1000).length);
+        assertEquals(3, testDeck.getChangeCount());
+    }
+
+    @Test
+    void testSkipsCardsReviewedSinceCreated() {
+        DueOrder order = new DueOrder(testDeck.getScheduler(), testDeck.getCardSet(), 1000);
+        testDeck.getScheduler().review(cardA.getIdNumber(), true, 1000);
+        assertEquals(1, order.nextInt());
+        assertEquals(2, order.nextInt());
+        assertFalse(order.hasNext());
+    }
+}
@@ -2,6 +2,9 @@ package model;
 
 import org.junit.jupiter.api.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class FlashcardTest {
@@ -20,6 +23,22 @@ class FlashcardTest {
         assertFalse(flashcard.isCorrect());
     }
 
+    @Test
+    void testUniqueIds() {
+        Flashcard other = new Flashcard("test question", "test answer");
+        assertNotEquals(flashcard.getId(), other.getId());
+        assertEquals(String.valueOf(other.getIdNumber()), other.getId());
+    }
+
+    @Test
+    void testConstructorWithId() {
+        long id = flashcard.getIdNumber() + 500;
+        Flashcard stored = new Flashcard(id, "stored question", "stored answer");
+        assertEquals(id, stored.getIdNumber());
+        assertEquals("stored question", stored.displayCard());
+        assertTrue(new Flashcard("new question", "new answer").getIdNumber() > id);
+    }
+
     @Test
     void testDisplayCardFlipped() {
         assertEquals("test question", flashcard.displayCard());
@@ -54,6 +73,61 @@ class FlashcardTest {
         assertFalse(flashcard.isCorrect());
     }
 
+    @Test
+    void testStateListener() {
+        List<String> changes = new ArrayList<>();
+        CardStateListener listener = (card, wasViewed, wasCorrect) ->
+                changes.add(wasViewed + "," + wasCorrect + "->" + card.isViewed() + "," + card.isCorrect());
+        flashcard.addStateListener(listener);
+        flashcard.flipCard();
+        flashcard.flipCard();
+        flashcard.setCorrect(true);
+        flashcard.setCorrect(true);
+        flashcard.resetCard();
+        flashcard.removeStateListener(listener);
+        flashcard.flipCard();
+        assertEquals(List.of("false,false->true,false", "true,false->true,true", "true,true->false,false"),
+                changes);
+    }
+
+    @Test
+    void testSeveralStateListeners() {
+        List<String> changes = new ArrayList<>();
+        CardStateListener first = (card, wasViewed, wasCorrect) -> changes.add("first");
+        CardStateListener second = (card, wasViewed, wasCorrect) -> changes.add("second");
+        CardStateListener third = (card, wasViewed, wasCorrect) -> changes.add("third");
+        flashcard.addStateListener(first);
+        flashcard.addStateListener(second);
+        flashcard.addStateListener(third);
+        flashcard.flipCard();
+        flashcard.removeStateListener(first);
+        flashcard.setCorrect(true);
+        flashcard.removeStateListener(third);
+        flashcard.resetCard();
+        assertEquals(List.of("first", "second", "third", "second", "third", "second"), changes);
+    }
+
+    @Test
+    void testBoundState() {
+        QuizState state = new QuizState(2);
+        flashcard.setCorrect(true);
+        flashcard.bindState(state, 1);
+        assertTrue(state.isCorrect(1));
+        flashcard.flipCard();
+        assertTrue(state.isFlipped(1));
+        assertEquals("test answer", flashcard.displayCard());
+        state.clear();
+        assertFalse(flashcard.isFlipped());
+        assertFalse(flashcard.isCorrect());
+        state.set(0, true, true, false);
+        flashcard.moveSlot(0);
+        assertTrue(flashcard.isViewed());
+        flashcard.unbindState();
+        state.clear();
+        assertTrue(flashcard.isFlipped());
+        assertTrue(flashcard.isViewed());
+    }
+
     @Test
     void testToString() {
         String toString = flashcard.toString();
@@ -61,4 +135,4 @@ class FlashcardTest {
                 + "\nFront: test question"
                 + "\nBack: test answer");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuizSessionTest {
+    Deck testDeck;
+    Flashcard cardA;
+    Flashcard cardB;
+    QuizSession session;
+
+    @BeforeEach
+    void runBefore() {
+        testDeck = new Deck("Test deck");
+        cardA = new Flashcard("Front side A", "Back side A");
+        cardB = new Flashcard("Front side B", "Back side B");
+        testDeck.addCard(cardA);
+        testDeck.addCard(cardB);
+        session = new QuizSession(testDeck.getCardSet());
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(2, session.size());
+        assertSame(testDeck.getCardSet(), session.getCards());
+        assertEquals(0, session.getNumberViewed());
+        assertEquals(0, session.getPercentViewed());
+        assertEquals(0, session.getPercentCorrect());
+    }
+
+    @Test
+    void testFlipCard() {
+        assertEquals("Front side A", session.displayCard(0));
+        session.flipCard(0);
+        assertTrue(session.isFlipped(0));
+        assertTrue(session.isViewed(0));
+        assertEquals("Back side A", session.displayCard(0));
+        session.flipCard(0);
+        assertFalse(session.isFlipped(0));
+        assertTrue(session.isViewed(0));
+        assertEquals(50, session.getPercentViewed());
+    }
+
+    @Test
+    void testSetCorrect() {
+        session.flipCard(0);
+        session.flipCard(1);
+        session.setCorrect(1, true);
+        assertTrue(session.isCorrect(1));
+        assertFalse(session.isCorrect(0));
+        assertEquals(1, session.getNumberCorrect());
+        assertEquals(50, session.getPercentCorrect());
+    }
+
+    @Test
+    void testSessionsDoNotShareState() {
+        QuizSession other = new QuizSession(testDeck.getCardSet());
+        session.flipCard(0);
+        session.setCorrect(0, true);
+        assertFalse(other.isViewed(0));
+        assertFalse(cardA.isViewed());
+        assertFalse(cardA.isCorrect());
+        assertEquals(0, testDeck.getNumberViewed());
+    }
+
+    @Test
+    void testEmptySession() {
+        QuizSession empty = new QuizSession(new Deck("Empty").getCardSet());
+        assertEquals(0, empty.size());
+        assertEquals(0, empty.getPercentViewed());
+    }
+}
@@ -0,0 +1,102 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class QuizStateTest {
+    QuizState state;
+
+    @BeforeEach
+    void runBefore() {
+        state = new QuizState(3);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(3, state.size());
+        for (int i = 0; i < 3; i++) {
+            assertFalse(state.isFlipped(i));
+            assertFalse(state.isViewed(i));
+            assertFalse(state.isCorrect(i));
+        }
+        assertEquals(0, state.countViewed());
+        assertEquals(0, state.countCorrect());
+    }
+
+    @Test
+    void testFlip() {
+        state.flip(1);
+        assertTrue(state.isFlipped(1));
+        assertTrue(state.isViewed(1));
+        state.flip(1);
+        assertFalse(state.isFlipped(1));
+        assertTrue(state.isViewed(1));
+        assertFalse(state.isViewed(0));
+        assertEquals(1, state.countViewed());
+    }
+
+    @Test
+    void testSetCorrectAndReset() {
+        state.setCorrect(2, true);
+        state.flip(2);
+        assertEquals(1, state.countCorrect());
+        state.reset(2);
+        assertFalse(state.isFlipped(2));
+        assertFalse(state.isViewed(2));
+        assertFalse(state.isCorrect(2));
+    }
+
+    @Test
+    void testNextMarked() {
+        QuizState large = new QuizState(0);
+        for (int i = 0; i < 200; i++) {
+            large.add(i == 70, i == 3 || i == 130, i == 199);
+        }
+        assertEquals(3, large.nextMarked(0));
+        assertEquals(130, large.nextMarked(4));
+        assertEquals(199, large.nextMarked(131));
+        assertEquals(-1, large.nextMarked(200));
+        large.clear();
+        assertEquals(-1, large.nextMarked(0));
+    }
+
+    @Test
+    void testAddPastFirstWord() {
+        QuizState large = new QuizState(0);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, large.add(false, i % 2 == 0, i % 3 == 0));
+        }
+        assertEquals(200, large.size());
+        assertEquals(100, large.countViewed());
+        assertEquals(67, large.countCorrect());
+        assertTrue(large.isCorrect(198));
+        large.clear();
+        assertEquals(0, large.countViewed());
+        assertEquals(0, large.countCorrect());
+    }
+
+    @Test
+    void testRemoveShiftsLaterCards() {
+        state.flip(0);
+        state.setCorrect(2, true);
+        state.remove(1);
+        assertEquals(2, state.size());
+        assertTrue(state.isViewed(0));
+        assertTrue(state.isCorrect(1));
+        assertEquals(1, state.countCorrect());
+    }
+
+    @Test
+    void testMoveAndTruncate() {
+        state.set(2, true, true, true);
+        state.move(2, 0);
+        state.truncate(1);
+        assertEquals(1, state.size());
+        assertTrue(state.isFlipped(0));
+        assertEquals(1, state.countViewed());
+        state.add(false, false, false);
+        assertFalse(state.isViewed(1));
+    }
+}
@@ -0,0 +1,75 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReviewSchedulerTest {
+    ReviewScheduler scheduler;
+
+    @BeforeEach
+    void runBefore() {
+        scheduler = new ReviewScheduler();
+        scheduler.addCard(1);
+        scheduler.addCard(2);
+        scheduler.restore(new CardSchedule(3, 2.5, 1, 1, 500));
+    }
+
+    @Test
+    void testAddCard() {
+        assertEquals(3, scheduler.size());
+        scheduler.getSchedule(1).review(true, 0);
+        scheduler.addCard(1);
+        assertEquals(3, scheduler.size());
+        assertEquals(1, scheduler.getSchedule(1).getRepetitions());
+        assertNull(scheduler.getSchedule(4));
+    }
+
+    @Test
+    void testDueCardsInDueOrder() {
+        assertTrue(scheduler.hasDue(0));
+        long[] due = scheduler.dueCards(0);
+        assertEquals(2, due.length);
+        assertTrue(due[0] == 1 && due[1] == 2 || due[0] == 2 && due[1] == 1);
+        assertArrayEquals(due, scheduler.dueCards(0));
+        assertEquals(0, scheduler.getSchedule(1).getDue());
+        scheduler.review(1, true, 100);
+        assertArrayEquals(new long[] {2, 3}, scheduler.dueCards(500));
+        assertEquals(500, scheduler.getSchedule(3).getDue());
+    }
+
+    @Test
+    void testReview() {
+        scheduler.review(1, true, 0);
+        scheduler.review(2, false, 0);
+        scheduler.review(3, true, 0);
+        assertArrayEquals(new long[] {2}, scheduler.dueCards(CardSchedule.RETRY_MILLIS));
+        scheduler.review(2, true, CardSchedule.RETRY_MILLIS);
+        assertArrayEquals(new long[] {1}, scheduler.dueCards(CardSchedule.DAY_MILLIS));
+        assertEquals(6 * CardSchedule.DAY_MILLIS, scheduler.getSchedule(3).getDue());
+        scheduler.review(4, true, 0);
+        assertNull(scheduler.getSchedule(4));
+    }
+
+    @Test
+    void testRemoveCard() {
+        scheduler.removeCard(1);
+        scheduler.removeCard(2);
+        assertEquals(1, scheduler.size());
+        assertFalse(scheduler.hasDue(0));
+        assertArrayEquals(new long[] {3}, scheduler.dueCards(1000));
+    }
+
+    @Test
+    void testManyReviews() {
+        for (int i = 0; i < 1000; i++) {
+            scheduler.review(1, false, i);
+        }
+        assertEquals(999 + CardSchedule.RETRY_MILLIS, scheduler.getSchedule(1).getDue());
+        long[] due = scheduler.dueCards(998 + CardSchedule.RETRY_MILLIS);
+        assertEquals(2, due.length);
+        assertFalse(due[0] == 1 || due[1] == 1);
+        assertEquals(3, scheduler.dueCards(999 + CardSchedule.RETRY_MILLIS).length);
+    }
+}
@@ -0,0 +1,80 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchIndexTest {
+    SearchIndex index;
+    Flashcard cardA;
+    Flashcard cardB;
+    Flashcard cardC;
+
+    @BeforeEach
+    void runBefore() {
+        index = new SearchIndex();
+        cardA = new Flashcard("The Moon", "Earth's natural satellite");
+        cardB = new Flashcard("The Sun", "The star at the centre of the solar system");
+        cardC = new Flashcard("Moonlight sonata", "Beethoven, 1801");
+        index.add(cardA);
+        index.add(cardB);
+        index.add(cardC);
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(List.of("earth", "s", "natural", "moon", "2"), SearchIndex.tokenize("Earth's natural MOON, 2 moon"));
+        assertTrue(SearchIndex.tokenize("  ,.! ").isEmpty());
+    }
+
+    @Test
+    void testSearchWord() {
+        assertArrayEquals(new long[] {cardA.getIdNumber(), cardB.getIdNumber()}, index.search("the"));
+        assertArrayEquals(new long[] {cardC.getIdNumber()}, index.search("BEETHOVEN"));
+        assertArrayEquals(new long[] {cardC.getIdNumber()}, index.search("1801"));
+        assertEquals(0, index.search("planet").length);
+        assertEquals(0, index.search("").length);
+    }
+
+    @Test
+    void testSearchPrefix() {
+        assertArrayEquals(new long[] {cardA.getIdNumber(), cardC.getIdNumber()}, index.search("moo"));
+        assertArrayEquals(new long[] {cardB.getIdNumber()}, index.search("sol"));
+        assertArrayEquals(new long[] {cardA.getIdNumber(), cardB.getIdNumber(), cardC.getIdNumber()},
+                index.search("s"));
+    }
+
+    @Test
+    void testSearchAllTerms() {
+        assertArrayEquals(new long[] {cardA.getIdNumber()}, index.search("the moon"));
+        assertArrayEquals(new long[] {cardB.getIdNumber()}, index.search("star, the"));
+        assertEquals(0, index.search("moon star").length);
+        assertEquals(0, index.search("moon planet").length);
+    }
+
+    @Test
+    void testRemove() {
+        int tokens = index.getTokenCount();
+        index.remove(cardC);
+        assertArrayEquals(new long[] {cardA.getIdNumber()}, index.search("moo"));
+        assertEquals(0, index.search("beethoven").length);
+        assertEquals(tokens - 4, index.getTokenCount());
+        index.remove(cardC);
+        index.add(cardC);
+        assertEquals(tokens, index.getTokenCount());
+        assertArrayEquals(new long[] {cardA.getIdNumber(), cardC.getIdNumber()}, index.search("moo"));
+    }
+
+    @Test
+    void testAddOutOfOrder() {
+        Flashcard old = new Flashcard(1, "Old moon", "Old back");
+        index.add(old);
+        index.add(old);
+        assertArrayEquals(new long[] {1, cardA.getIdNumber(), cardC.getIdNumber()}, index.search("moo"));
+        index.remove(old);
+        assertArrayEquals(new long[] {cardA.getIdNumber(), cardC.getIdNumber()}, index.search("moo"));
+    }
+}
@@ -0,0 +1,60 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ShuffledOrderTest {
+
+    @Test
+    void testConstructor() {
+        ShuffledOrder order = new ShuffledOrder(5, 42);
+        assertEquals(5, order.getSize());
+        assertEquals(42, order.getSeed());
+        assertTrue(order.hasNext());
+    }
+
+    @Test
+    void testEmptyOrder() {
+        ShuffledOrder order = new ShuffledOrder(0, 1);
+        assertFalse(order.hasNext());
+        try {
+            order.nextInt();
+            fail("NoSuchElementException expected");
+        } catch (NoSuchElementException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testDrawsEveryPositionOnce() {
+        ShuffledOrder order = new ShuffledOrder(1000, 7);
+        Set<Integer> drawn = new HashSet<>();
+        while (order.hasNext()) {
+            int position = order.nextInt();
+            assertTrue(position >= 0 && position < 1000);
+            assertTrue(drawn.add(position));
+        }
+        assertEquals(1000, drawn.size());
+    }
+
+    @Test
+    void testSameSeedSameOrder() {
+        assertEquals(drawAll(new ShuffledOrder(50, 123)), drawAll(new ShuffledOrder(50, 123)));
+        assertNotEquals(drawAll(new ShuffledOrder(50, 123)), drawAll(new ShuffledOrder(50, 124)));
+    }
+
+    private List<Integer> drawAll(ShuffledOrder order) {
+        List<Integer> positions = new ArrayList<>();
+        while (order.hasNext()) {
+            positions.add(order.nextInt());
+        }
+        return positions;
+    }
+}
@@ -0,0 +1,84 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextArenaTest {
+    TextArena arena;
+
+    @BeforeEach
+    void runBefore() {
+        arena = new TextArena(64);
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, arena.getReservedBytes());
+        assertEquals(0, arena.getUsedBytes());
+        assertEquals(0, new TextArena().getReservedBytes());
+    }
+
+    @Test
+    void testAddAndRead() {
+        long first = arena.add("hola", "hello");
+        long second = arena.add("caf\u00e9", "\u6c34");
+        assertEquals("hola", arena.getFront(first));
+        assertEquals("hello", arena.getBack(first));
+        assertEquals("caf\u00e9", arena.getFront(second));
+        assertEquals("\u6c34", arena.getBack(second));
+        assertEquals(64, arena.getReservedBytes());
+        assertEquals(17 + 16, arena.getUsedBytes());
+    }
+
+    @Test
+    void testAddPastChunk() {
+        long first = arena.add("a".repeat(40), "b");
+        long second = arena.add("c".repeat(40), "d");
+        long large = arena.add("e".repeat(100), "f");
+        assertEquals("a".repeat(40), arena.getFront(first));
+        assertEquals("d", arena.getBack(second));
+        assertEquals("e".repeat(100), arena.getFront(large));
+        assertEquals(64 + 64 + 109, arena.getReservedBytes());
+    }
+
+    @Test
+    void testRelease() {
+        long first = arena.add("hola", "hello");
+        long second = arena.add("adios", "bye");
+        arena.release(first);
+        assertEquals(16, arena.getUsedBytes());
+        assertEquals("adios", arena.getFront(second));
+    }
+
+    @Test
+    void testMostlyReleased() {
+        long first = arena.add("a".repeat(40), "b");
+        assertFalse(arena.isMostlyReleased());
+        long second = arena.add("c".repeat(40), "d");
+        assertFalse(arena.isMostlyReleased());
+        arena.release(first);
+        assertTrue(arena.isMostlyReleased());
+        TextArena copy = arena.emptyCopy();
+        assertEquals(0, copy.getReservedBytes());
+        copy.add("c".repeat(40), "d");
+        assertEquals(64, copy.getReservedBytes());
+        assertEquals("d", arena.getBack(second));
+    }
+
+    @Test
+    void testFlashcardTextInArena() {
+        Flashcard card = new Flashcard("front text", "back text");
+        card.moveText(arena, arena.add(card.getFront(), card.getBack()));
+        assertSame(arena, card.getTextStore());
+        assertEquals("front text", card.displayCard());
+        card.flipCard();
+        assertEquals("back text", card.displayCard());
+        assertTrue(card.toString().endsWith("Back: back text"));
+        assertTrue(card.restoreText() >= 0);
+        assertNull(card.getTextStore());
+        assertEquals("front text", card.getFront());
+        assertEquals(-1, card.restoreText());
+    }
+}
@@ -0,0 +1,69 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextPoolTest {
+    TextPool pool;
+
+    @BeforeEach
+    void runBefore() {
+        pool = new TextPool();
+    }
+
+    @Test
+    void testConstructor() {
+        assertEquals(0, pool.size());
+        assertEquals(0, pool.getLookups());
+        assertEquals(0, pool.getHits());
+        assertEquals(0, pool.getCumulativeBytesSaved());
+        assertSame(TextPool.getShared(), TextPool.getShared());
+    }
+
+    @Test
+    void testInternSharesEqualText() {
+        String first = new String("hola");
+        String second = new String("hola");
+        assertSame(first, pool.intern(first));
+        assertSame(first, pool.intern(second));
+        assertEquals(1, pool.size());
+        assertEquals(2, pool.getLookups());
+        assertEquals(1, pool.getHits());
+        assertEquals(44, pool.getCumulativeBytesSaved());
+    }
+
+    @Test
+    void testInternSameStringSavesNothing() {
+        String text = "adi\u00f3s";
+        pool.intern(text);
+        pool.intern(text);
+        assertEquals(1, pool.getHits());
+        assertEquals(0, pool.getCumulativeBytesSaved());
+    }
+
+    @Test
+    void testCumulativeBytesSavedOnlyGrows() {
+        pool.intern(new String("hola"));
+        pool.intern(new String("hola"));
+        pool.intern(new String("hola"));
+        assertEquals(1, pool.size());
+        assertEquals(88, pool.getCumulativeBytesSaved());
+    }
+
+    @Test
+    void testBytesSavedWideCharacters() {
+        pool.intern(new String("\u6c34"));
+        pool.intern(new String("\u6c34"));
+        assertEquals(42, pool.getCumulativeBytesSaved());
+    }
+
+    @Test
+    void testFlashcardWithPool() {
+        Flashcard cardA = new Flashcard(new String("Front"), new String("Back"), pool);
+        Flashcard cardB = new Flashcard(new String("Front"), new String("Other"), pool);
+        assertSame(cardA.getFront(), cardB.getFront());
+        assertEquals(3, pool.size());
+    }
+}
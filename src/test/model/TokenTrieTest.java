@@ -0,0 +1,59 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenTrieTest {
+    TokenTrie trie;
+
+    @BeforeEach
+    void runBefore() {
+        trie = new TokenTrie();
+        trie.add("moon");
+        trie.add("moonlight");
+        trie.add("morning");
+        trie.add("sun");
+    }
+
+    @Test
+    void testAdd() {
+        assertEquals(4, trie.size());
+        assertFalse(trie.add("moon"));
+        assertTrue(trie.add("mo"));
+        assertEquals(5, trie.size());
+        assertTrue(trie.contains("moon"));
+        assertTrue(trie.contains("mo"));
+        assertFalse(trie.contains("moo"));
+        assertFalse(trie.contains("suns"));
+    }
+
+    @Test
+    void testWithPrefix() {
+        assertEquals(List.of("moon", "moonlight", "morning"), trie.withPrefix("mo"));
+        assertEquals(List.of("moon", "moonlight"), trie.withPrefix("moon"));
+        assertEquals(List.of("moon", "moonlight", "morning", "sun"), trie.withPrefix(""));
+        assertTrue(trie.withPrefix("x").isEmpty());
+        assertTrue(trie.withPrefix("moonlights").isEmpty());
+    }
+
+    @Test
+    void testRemove() {
+        assertTrue(trie.remove("moon"));
+        assertFalse(trie.remove("moon"));
+        assertFalse(trie.remove("moo"));
+        assertFalse(trie.remove("moonbeam"));
+        assertEquals(List.of("moonlight"), trie.withPrefix("moon"));
+        assertTrue(trie.remove("moonlight"));
+        assertTrue(trie.withPrefix("moo").isEmpty());
+        assertEquals(List.of("morning"), trie.withPrefix("mo"));
+        assertTrue(trie.remove("morning"));
+        assertTrue(trie.remove("sun"));
+        assertEquals(0, trie.size());
+        assertTrue(trie.withPrefix("").isEmpty());
+        assertTrue(trie.add("sun"));
+    }
+}
@@ -0,0 +1,84 @@
+package model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeightedOrderTest {
+    Deck testDeck;
+    Flashcard cardA;
+    Flashcard cardB;
+    Flashcard cardC;
+
+    @BeforeEach
+    void runBefore() {
+        testDeck = new Deck("Test deck");
+        cardA = new Flashcard("Front side A", "Back side A");
+        cardB = new Flashcard("Front side B", "Back side B");
+        cardC = new Flashcard("Front side C", "Back side C");
+        testDeck.addCard(cardA);
+        testDeck.addCard(cardB);
+        testDeck.addCard(cardC);
+    }
+
+    @Test
+    void testDrawsOncePerCard() {
+        WeightedOrder order = new WeightedOrder(testDeck.getCardSet(), testDeck.getScheduler(), new Random(3));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(order.hasNext());
+            int position = order.nextInt();
+            assertTrue(position >= 0 && position < 3);
+        }
+        assertFalse(order.hasNext());
+        assertThrows(NoSuchElementException.class, order::nextInt);
+    }
+
+    @Test
+    void testHistoryWeight() {
+        ReviewScheduler scheduler = testDeck.getScheduler();
+        scheduler.review(cardA.getIdNumber(), false, 0);
+        scheduler.review(cardA.getIdNumber(), false, 0);
+        scheduler.review(cardC.getIdNumber(), true, 0);
+        WeightedOrder order = new WeightedOrder(testDeck.getCardSet(), scheduler, new Random(3));
+        assertEquals(1, order.getWeight(1));
+        assertTrue(order.getWeight(0) > 1);
+        assertTrue(order.getWeight(2) < 1);
+        assertEquals(1, WeightedOrder.historyWeight(null));
+    }
+
+    @Test
+    void testRecordAnswer() {
+        WeightedOrder order = new WeightedOrder(testDeck.getCardSet(), testDeck.getScheduler(), new Random(3));
+        order.recordAnswer(0, false);
+        assertEquals(2, order.getWeight(0));
+        order.recordAnswer(1, true);
+        assertEquals(0.5, order.getWeight(1));
+        for (int i = 0; i < 20; i++) {
+            order.recordAnswer(0, false);
+            order.recordAnswer(1, true);
+        }
+        assertEquals(WeightedOrder.MAX_WEIGHT, order.getWeight(0));
+        assertEquals(WeightedOrder.MIN_WEIGHT, order.getWeight(1));
+    }
+
+    @Test
+    void testOversamplesMissedCards() {
+        Deck bigDeck = new Deck("Big deck");
+        for (int i = 0; i < 20; i++) {
+            bigDeck.addCard(new Flashcard("Front " + i, "Back " + i));
+        }
+        WeightedOrder order = new WeightedOrder(bigDeck.getCardSet(), bigDeck.getScheduler(), new Random(5));
+        order.recordAnswer(4, false);
+        order.recordAnswer(4, false);
+        order.recordAnswer(4, false);
+        int missed = 0;
+        while (order.hasNext()) {
+            missed += order.nextInt() == 4 ? 1 : 0;
+        }
+        assertTrue(missed >= 3);
+    }
+}
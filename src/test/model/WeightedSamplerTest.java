@@ -0,0 +1,62 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeightedSamplerTest {
+
+    @Test
+    void testEmpty() {
+        WeightedSampler sampler = new WeightedSampler(new double[0], new Random(1));
+        assertEquals(0, sampler.size());
+        assertThrows(NoSuchElementException.class, sampler::sample);
+    }
+
+    @Test
+    void testSingleIndex() {
+        WeightedSampler sampler = new WeightedSampler(new double[] {0.3}, new Random(1));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, sampler.sample());
+        }
+    }
+
+    @Test
+    void testProportionalToWeights() {
+        WeightedSampler sampler = new WeightedSampler(new double[] {1, 2, 5, 0.5, 1.5}, new Random(42));
+        int[] counts = draw(sampler, 100000);
+        double total = 10;
+        for (int i = 0; i < sampler.size(); i++) {
+            assertEquals(sampler.getWeight(i) / total, counts[i] / 100000.0, 0.01);
+        }
+    }
+
+    @Test
+    void testSetWeight() {
+        WeightedSampler sampler = new WeightedSampler(new double[] {1, 1, 1, 1}, new Random(7));
+        sampler.setWeight(2, 12);
+        sampler.setWeight(0, 1.5);
+        sampler.setWeight(1, 0.5);
+        assertEquals(12, sampler.getWeight(2));
+        int[] counts = draw(sampler, 100000);
+        assertEquals(1.5 / 15, counts[0] / 100000.0, 0.01);
+        assertEquals(0.5 / 15, counts[1] / 100000.0, 0.01);
+        assertEquals(12.0 / 15, counts[2] / 100000.0, 0.01);
+        assertEquals(1.0 / 15, counts[3] / 100000.0, 0.01);
+        sampler.setWeight(2, WeightedSampler.MIN_WEIGHT);
+        sampler.setWeight(0, WeightedSampler.MIN_WEIGHT);
+        sampler.setWeight(1, WeightedSampler.MIN_WEIGHT);
+        assertEquals(3, sampler.sample());
+    }
+
+    private int[] draw(WeightedSampler sampler, int draws) {
+        int[] counts = new int[sampler.size()];
+        for (int i = 0; i < draws; i++) {
+            counts[sampler.sample()]++;
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,143 @@
+package persistence;
+
+import model.Deck;
+import model.Flashcard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AutoSaverTest {
+    static final long QUIET_MILLIS = 50;
+    Path directory;
+    String source;
+    Path journalFile;
+    DeckJournal journal;
+    AutoSaver saver;
+    Deck deck;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("autoSaverTest");
+        source = directory.resolve("deck.json").toString();
+        journalFile = Path.of(DeckJournal.journalPath(source));
+        journal = new DeckJournal(source);
+        deck = new Deck("My deck");
+        deck.addCard(new Flashcard("Hello", "Goodbye"));
+        journal.save(deck);
+        saver = new AutoSaver(journal, QUIET_MILLIS);
+        saver.track(deck);
+    }
+
+    @AfterEach
+    void runAfter() throws IOException, InterruptedException {
+        saver.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testSavesAfterQuietPeriod() throws IOException, InterruptedException {
+        assertFalse(saver.isSaveScheduled());
+        deck.addCard(new Flashcard("Moon", "Sun"));
+        assertTrue(saver.isSaveScheduled());
+        assertTrue(deck.isDirty());
+        waitUntilSaved();
+        assertEquals(1, journal.getJournalCount());
+        assertNull(saver.getLastError());
+        assertEquals(2, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testCoalescesBurstOfChanges() throws IOException, InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            deck.addCard(new Flashcard("Front " + i, "Back " + i));
+        }
+        waitUntilSaved();
+        assertEquals(100, journal.getJournalCount());
+        assertEquals(0, journal.getPendingCount());
+        assertEquals(101, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testFlush() throws IOException, InterruptedException {
+        deck.addCard(new Flashcard("Moon", "Sun"));
+        saver.flush();
+        assertFalse(deck.isDirty());
+        assertEquals(0, journal.getPendingCount());
+        assertEquals(2, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testRetriesFailedSave() throws IOException, InterruptedException {
+        Files.createDirectory(journalFile);
+        deck.addCard(new Flashcard("Moon", "Sun"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (saver.getLastError() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotNull(saver.getLastError());
+        assertTrue(deck.isDirty());
+        Files.delete(journalFile);
+        waitUntilSaved();
+        assertEquals(2, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testCloseSavesAndStopsWatching() throws IOException, InterruptedException {
+        deck.addCard(new Flashcard("Moon", "Sun"));
+        saver.close();
+        assertFalse(deck.isDirty());
+        deck.addCard(new Flashcard("Star", "Sky"));
+        assertFalse(saver.isSaveScheduled());
+        assertEquals(2, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testCloseLaterSavesRecordedChanges() throws IOException, InterruptedException {
+        deck.addCard(new Flashcard("Moon", "Sun"));
+        saver.closeLater();
+        assertTrue(saver.isClosed());
+        deck.addCard(new Flashcard("Star", "Sky"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (journal.getJournalCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, journal.getPendingCount());
+        assertEquals(1, journal.getJournalCount());
+        assertEquals(2, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testDiscardLeavesFileAsSaved() throws IOException, InterruptedException {
+        deck.addCard(new Flashcard("Moon", "Sun"));
+        saver.discard();
+        assertTrue(saver.isClosed());
+        assertFalse(journal.isTracking(deck));
+        assertFalse(saver.isSaveScheduled());
+        deck.addCard(new Flashcard("Star", "Sky"));
+        Thread.sleep(3 * QUIET_MILLIS);
+        assertEquals(0, journal.getPendingCount());
+        assertFalse(Files.exists(journalFile));
+        assertEquals(1, new JsonReader(source).read().getDeckSize());
+    }
+
+    // Effects: waits until the deck has no unsaved changes, failing if that takes too long
+    private void waitUntilSaved() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (deck.isDirty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(deck.isDirty());
+    }
+}
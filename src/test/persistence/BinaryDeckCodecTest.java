@@ -0,0 +1,208 @@
+package persistence;
+
+import model.CardSchedule;
+import model.Deck;
+import model.Flashcard;
+import model.TextPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryDeckCodecTest extends JsonTest {
+    Path directory;
+    String source;
+    BinaryDeckCodec codec;
+    Deck deck;
+    Flashcard hello;
+    Flashcard moon;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("binaryDeckCodecTest");
+        source = directory.resolve("deck" + BinaryDeckCodec.EXTENSION).toString();
+        codec = new BinaryDeckCodec();
+        deck = new Deck("My deck");
+        hello = new Flashcard("Hello", "Goodbye");
+        moon = new Flashcard("Moon", "\u00e9t\u00e9 \u2603");
+        deck.addCard(hello);
+        deck.addCard(moon);
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        deck.getScheduler().review(moon.getIdNumber(), true, 1000);
+        codec.write(deck, source);
+        Deck read = codec.read(source);
+        assertEquals("My deck", read.getName());
+        List<Flashcard> cards = read.getCardView();
+        assertEquals(2, cards.size());
+        checkCard("Hello", "Goodbye", cards.get(0));
+        checkCard("Moon", "\u00e9t\u00e9 \u2603", cards.get(1));
+        assertEquals(hello.getIdNumber(), cards.get(0).getIdNumber());
+        assertEquals(moon.getIdNumber(), cards.get(1).getIdNumber());
+        CardSchedule expected = deck.getScheduler().getSchedule(moon.getIdNumber());
+        CardSchedule schedule = read.getScheduler().getSchedule(moon.getIdNumber());
+        assertEquals(expected.getEase(), schedule.getEase());
+        assertEquals(expected.getIntervalDays(), schedule.getIntervalDays());
+        assertEquals(expected.getRepetitions(), schedule.getRepetitions());
+        assertEquals(expected.getDue(), schedule.getDue());
+        assertEquals(1, read.getLearnedCount());
+    }
+
+    @Test
+    void testRoundTripEmptyDeck() throws IOException {
+        codec.write(new Deck("Empty"), source);
+        Deck read = codec.read(source);
+        assertEquals("Empty", read.getName());
+        assertEquals(0, read.getDeckSize());
+        assertFalse(read.hasScheduler());
+    }
+
+    @Test
+    void testStringTableSharesText() throws IOException {
+        Deck repeated = new Deck("Repeated");
+        for (int i = 0; i < 100; i++) {
+            repeated.addCard(new Flashcard("Question " + i, "Same answer"));
+        }
+        codec.write(repeated, source);
+        TextPool pool = new TextPool();
+        Deck read = new BinaryDeckCodec(pool).read(source);
+        assertEquals(100, read.getDeckSize());
+        assertSame(read.getCardView().get(0).getBack(), read.getCardView().get(99).getBack());
+        assertEquals(101, pool.size());
+    }
+
+    @Test
+    void testReadHeader() throws IOException {
+        deck.getScheduler().review(hello.getIdNumber(), true, 1000);
+        codec.write(deck, source);
+        DeckHeader header = codec.readHeader(source);
+        assertEquals("My deck", header.getName());
+        assertEquals(2, header.getCardCount());
+        assertEquals(1, header.getLearnedCount());
+        assertEquals(deck.getNextDue(), header.getNextDue());
+        assertEquals(DeckJournal.lastModified(source), header.getLastModified());
+    }
+
+    @Test
+    void testReadReplaysJournal() throws IOException {
+        DeckJournal journal = new DeckJournal(source);
+        journal.save(deck);
+        deck.removeCard(hello);
+        deck.addCard(new Flashcard("Star", "Sky"));
+        journal.save(deck);
+        assertTrue(Files.exists(Path.of(DeckJournal.journalPath(source))));
+        Deck read = codec.read(source);
+        assertEquals(2, read.getDeckSize());
+        assertNull(read.getCard(hello.getId()));
+        assertEquals(2, codec.readHeader(source).getCardCount());
+    }
+
+    @Test
+    void testNotBinaryDeck() {
+        try {
+            codec.read("./data/testReaderGeneralDeck.json");
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testTruncatedDeck() throws IOException {
+        codec.write(deck, source);
+        byte[] bytes = Files.readAllBytes(Path.of(source));
+        Files.write(Path.of(source), Arrays.copyOf(bytes, bytes.length / 2));
+        try {
+            codec.read(source);
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testDamagedDeck() throws IOException {
+        codec.write(deck, source);
+        byte[] bytes = Files.readAllBytes(Path.of(source));
+        for (int i = 5; i < bytes.length; i++) {
+            byte[] damaged = bytes.clone();
+            damaged[i] = (byte) 0xFF;
+            Files.write(Path.of(source), damaged);
+            try {
+                codec.read(source);
+                codec.readHeader(source);
+            } catch (IOException e) {
+                // pass
+            }
+        }
+    }
+
+    @Test
+    void testNegativeStringLength() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] {0x46, 0x44, 0x4B, 0x31, BinaryDeckCodec.VERSION, 12});
+        BinaryDeckCodec.writeVarint(out, -1);
+        out.write(new byte[] {0, 0});
+        Files.write(Path.of(source), out.toByteArray());
+        assertThrows(IOException.class, () -> codec.read(source));
+        assertThrows(IOException.class, () -> codec.readHeader(source));
+    }
+
+    @Test
+    void testVarint() throws IOException {
+        long[] values = {0, 1, 127, 128, 300, Integer.MAX_VALUE, Long.MAX_VALUE, -1};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (long value : values) {
+            BinaryDeckCodec.writeVarint(out, value);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+        for (long value : values) {
+            assertEquals(value, BinaryDeckCodec.readVarint(buffer));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void testConvertJsonDeck() throws IOException {
+        DeckCodec.convert("./data/testReaderGeneralDeck.json", source);
+        Deck json = new JsonReader("./data/testReaderGeneralDeck.json").read();
+        Deck binary = DeckCodec.forFile(source, null).read(source);
+        assertEquals(json.getName(), binary.getName());
+        assertEquals(json.getDeckSize(), binary.getDeckSize());
+        for (int i = 0; i < json.getDeckSize(); i++) {
+            Flashcard card = json.getCardView().get(i);
+            checkCard(card.getFront(), card.getBack(), binary.getCardView().get(i));
+        }
+        String back = directory.resolve("back.json").toString();
+        DeckCodec.convert(source, back);
+        assertEquals(json.getDeckSize(), new JsonReader(back).read().getDeckSize());
+    }
+
+    @Test
+    void testForFile() {
+        assertTrue(DeckCodec.forFile(source, null) instanceof BinaryDeckCodec);
+        assertTrue(DeckCodec.forFile("./data/deck.json", null) instanceof JsonDeckCodec);
+    }
+}
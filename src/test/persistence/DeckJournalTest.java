@@ -0,0 +1,259 @@
+package persistence;
+
+import model.Deck;
+import model.Flashcard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeckJournalTest extends JsonTest {
+    Path directory;
+    String source;
+    Path journalFile;
+    DeckJournal journal;
+    Deck deck;
+    Flashcard hello;
+    Flashcard moon;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("deckJournalTest");
+        source = directory.resolve("deck.json").toString();
+        journalFile = Path.of(DeckJournal.journalPath(source));
+        journal = new DeckJournal(source);
+        deck = new Deck("My deck");
+        hello = new Flashcard("Hello", "Goodbye");
+        moon = new Flashcard("Moon", "Sun");
+        deck.addCard(hello);
+        deck.addCard(moon);
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testFirstSaveWritesSnapshot() throws IOException {
+        assertFalse(journal.isTracking(deck));
+        journal.save(deck);
+        assertTrue(journal.isTracking(deck));
+        assertTrue(Files.exists(Path.of(source)));
+        assertFalse(Files.exists(journalFile));
+        assertEquals(source, journal.getSource());
+        assertEquals(2, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testSaveAppendsChanges() throws IOException {
+        journal.save(deck);
+        byte[] snapshot = Files.readAllBytes(Path.of(source));
+        Flashcard star = new Flashcard("Star", "Sky");
+        deck.addCard(star);
+        deck.removeCard(hello);
+        deck.getScheduler().review(moon.getIdNumber(), true, 1000);
+        assertEquals(3, journal.getPendingCount());
+        journal.save(deck);
+        assertEquals(0, journal.getPendingCount());
+        assertEquals(3, journal.getJournalCount());
+        assertArrayEquals(snapshot, Files.readAllBytes(Path.of(source)));
+        assertEquals(3, Files.readAllLines(journalFile).size());
+        journal.save(deck);
+        assertEquals(3, Files.readAllLines(journalFile).size());
+
+        Deck read = new JsonReader(source).read();
+        List<Flashcard> cards = read.getFlashcards(false);
+        assertEquals(2, cards.size());
+        checkCard("Moon", "Sun", cards.get(0));
+        checkCard("Star", "Sky", cards.get(1));
+        assertEquals(star.getId(), cards.get(1).getId());
+        assertEquals(1, read.getScheduler().getSchedule(moon.getIdNumber()).getRepetitions());
+        assertEquals(2, new JsonReader(source).readHeader().getCardCount());
+    }
+
+    @Test
+    void testCompaction() throws IOException {
+        journal.save(deck);
+        for (int i = 0; i <= DeckJournal.MIN_COMPACT_ENTRIES; i++) {
+            deck.addCard(new Flashcard("Front " + i, "Back " + i));
+        }
+        journal.save(deck);
+        assertFalse(Files.exists(journalFile));
+        assertEquals(0, journal.getJournalCount());
+        deck.removeCard(moon);
+        journal.save(deck);
+        assertEquals(1, journal.getJournalCount());
+        assertEquals(DeckJournal.MIN_COMPACT_ENTRIES + 2, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testTrack() throws IOException {
+        journal.save(deck);
+        deck.removeCard(moon);
+        journal.save(deck);
+        Deck read = new JsonReader(source).read();
+        DeckJournal other = new DeckJournal(source);
+        other.track(read);
+        assertEquals(1, other.getJournalCount());
+        assertTrue(other.isTracking(read));
+        read.addCard(new Flashcard("Star", "Sky"));
+        assertEquals(1, other.getPendingCount());
+        other.track(deck);
+        assertFalse(other.isTracking(read));
+        assertEquals(0, other.getPendingCount());
+        read.addCard(new Flashcard("Comet", "Tail"));
+        assertEquals(0, other.getPendingCount());
+    }
+
+    @Test
+    void testUntrack() throws IOException {
+        journal.save(deck);
+        deck.addCard(new Flashcard("Star", "Sky"));
+        journal.untrack();
+        assertFalse(journal.isTracking(deck));
+        assertEquals(0, journal.getPendingCount());
+        deck.addCard(new Flashcard("Comet", "Tail"));
+        journal.saveChanges();
+        assertEquals(0, journal.getJournalCount());
+        assertEquals(2, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testStopRecording() throws IOException {
+        journal.save(deck);
+        deck.addCard(new Flashcard("Star", "Sky"));
+        journal.stopRecording();
+        deck.addCard(new Flashcard("Comet", "Tail"));
+        assertEquals(1, journal.getPendingCount());
+        journal.saveChanges();
+        assertEquals(3, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testSaveOtherDeckWritesSnapshot() throws IOException {
+        journal.save(deck);
+        Deck other = new Deck("Other deck");
+        journal.save(other);
+        assertTrue(journal.isTracking(other));
+        deck.addCard(new Flashcard("Star", "Sky"));
+        assertEquals(0, journal.getPendingCount());
+        assertEquals("Other deck", new JsonReader(source).read().getName());
+    }
+
+    @Test
+    void testSaveMarksDeckSaved() throws IOException {
+        assertTrue(deck.isDirty());
+        journal.save(deck);
+        assertFalse(deck.isDirty());
+        deck.addCard(new Flashcard("Star", "Sky"));
+        assertTrue(deck.isDirty());
+        journal.save(deck);
+        assertFalse(deck.isDirty());
+        assertFalse(new JsonReader(source).read().isDirty());
+    }
+
+    @Test
+    void testSaveChanges() throws IOException {
+        journal.saveChanges();
+        assertFalse(Files.exists(Path.of(source)));
+        journal.save(deck);
+        deck.addCard(new Flashcard("Star", "Sky"));
+        deck.removeCard(hello);
+        journal.saveChanges();
+        assertEquals(0, journal.getPendingCount());
+        assertEquals(2, journal.getJournalCount());
+        assertFalse(deck.isDirty());
+        assertEquals(2, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testSaveChangesCompactsFromFile() throws IOException {
+        journal.save(deck);
+        for (int i = 0; i <= DeckJournal.MIN_COMPACT_ENTRIES; i++) {
+            deck.addCard(new Flashcard("Front " + i, "Back " + i));
+        }
+        journal.saveChanges();
+        assertFalse(Files.exists(journalFile));
+        assertEquals(0, journal.getJournalCount());
+        assertTrue(journal.isTracking(deck));
+        assertFalse(deck.isDirty());
+        Deck read = new JsonReader(source).read();
+        assertEquals(DeckJournal.MIN_COMPACT_ENTRIES + 3, read.getDeckSize());
+        assertEquals("Front 0", read.getCardView().get(2).getFront());
+    }
+
+    @Test
+    void testSaveChangesFailureKeepsChanges() throws IOException {
+        journal.save(deck);
+        deck.addCard(new Flashcard("Star", "Sky"));
+        Files.createDirectory(journalFile);
+        try {
+            journal.saveChanges();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+        assertEquals(1, journal.getPendingCount());
+        assertTrue(deck.isDirty());
+        Files.delete(journalFile);
+        journal.saveChanges();
+        assertEquals(0, journal.getPendingCount());
+        assertEquals(3, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testFailedSnapshotLeavesFile() throws IOException {
+        journal.save(deck);
+        Path temporary = Path.of(source + ".tmp");
+        Files.createDirectory(temporary);
+        deck.addCard(new Flashcard("Star", "Sky"));
+        try {
+            journal.compact(deck);
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+        assertFalse(Files.exists(temporary));
+        assertEquals(2, new JsonReader(source).read().getDeckSize());
+    }
+
+    @Test
+    void testSaveAfterTruncatedEntry() throws IOException {
+        journal.save(deck);
+        deck.addCard(new Flashcard("Star", "Sky"));
+        journal.save(deck);
+        Files.writeString(journalFile, "{\"op\":\"add\",\"fr", StandardOpenOption.APPEND);
+        deck.addCard(new Flashcard("Comet", "Tail"));
+        deck.removeCard(hello);
+        journal.saveChanges();
+        Deck read = new JsonReader(source).read();
+        assertEquals(3, read.getDeckSize());
+        assertEquals("Comet", read.getCardView().get(2).getFront());
+        assertEquals(3, Files.readAllLines(journalFile).size());
+    }
+
+    @Test
+    void testReplayIgnoresTruncatedEntry() throws IOException {
+        journal.save(deck);
+        deck.addCard(new Flashcard("Star", "Sky"));
+        journal.save(deck);
+        Files.writeString(journalFile, "{\"op\":\"remove\",\"i", StandardOpenOption.APPEND);
+        Deck read = new JsonReader(source).read();
+        assertEquals(3, read.getDeckSize());
+        assertTrue(DeckJournal.lastModified(source) >= Files.getLastModifiedTime(Path.of(source)).toMillis());
+    }
+}
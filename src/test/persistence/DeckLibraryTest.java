@@ -0,0 +1,174 @@
+package persistence;
+
+import model.Deck;
+import model.Flashcard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeckLibraryTest {
+    Path directory;
+    String pathA;
+    String pathB;
+    String pathC;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("deckLibraryTest");
+        pathA = writeDeck("a.json", "Deck A", 3);
+        pathB = writeDeck("b.json", "Deck B", 5);
+        pathC = writeDeck("c.json", "Deck C", 0);
+        Files.writeString(directory.resolve("notes.json"), "[1, 2, 3]");
+        Files.writeString(directory.resolve("readme.txt"), "not a deck");
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testScan() throws IOException {
+        DeckLibrary library = new DeckLibrary(directory.toString(), 1 << 20, null);
+        assertTrue(library.getHeaders().isEmpty());
+        library.scan();
+        List<DeckHeader> headers = library.getHeaders();
+        assertEquals(3, headers.size());
+        assertEquals("Deck A", headers.get(0).getName());
+        assertEquals(5, headers.get(1).getCardCount());
+        assertEquals(0, headers.get(2).getCardCount());
+        assertEquals(pathB, library.getHeader(pathB).getSource());
+        assertNull(library.getHeader(directory.resolve("notes.json").toString()));
+        assertEquals(0, library.getLoadedCount());
+    }
+
+    @Test
+    void testRescan() throws IOException {
+        DeckLibrary library = new DeckLibrary(directory.toString(), 1 << 20, null);
+        library.scan();
+        DeckHeader headerA = library.getHeader(pathA);
+        writeDeck("b.json", "Deck B", 7);
+        Files.setLastModifiedTime(Path.of(pathB), FileTime.fromMillis(headerA.getLastModified() + 5000));
+        Files.delete(Path.of(pathC));
+        library.scan();
+        assertEquals(2, library.getHeaders().size());
+        assertSame(headerA, library.getHeader(pathA));
+        assertEquals(7, library.getHeader(pathB).getCardCount());
+        assertNull(library.getHeader(pathC));
+    }
+
+    @Test
+    void testLoad() throws IOException {
+        DeckLibrary library = new DeckLibrary(directory.toString(), 1 << 20, null);
+        Deck deck = library.load(pathA);
+        assertEquals("Deck A", deck.getName());
+        assertEquals(3, deck.getDeckSize());
+        assertTrue(library.isLoaded(pathA));
+        assertFalse(library.isLoaded(pathB));
+        assertSame(deck, library.load(directory.resolve("../" + directory.getFileName() + "/a.json").toString()));
+        assertEquals(DeckLibrary.estimateBytes(deck), library.getUsedBytes());
+        assertThrows(IOException.class, () -> library.load(directory.resolve("missing.json").toString()));
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() throws IOException {
+        DeckLibrary probe = new DeckLibrary(directory.toString(), 1 << 20, null);
+        long bytesA = DeckLibrary.estimateBytes(probe.load(pathA));
+        long bytesB = DeckLibrary.estimateBytes(probe.load(pathB));
+        DeckLibrary library = new DeckLibrary(directory.toString(), bytesA + bytesB, null);
+        Deck deckA = library.load(pathA);
+        library.load(pathB);
+        library.load(pathC);
+        assertEquals(3, library.getLoadedCount());
+        library.load(pathA);
+        writeDeck("d.json", "Deck D", 1);
+        library.load(directory.resolve("d.json").toString());
+        assertTrue(library.isLoaded(pathA));
+        assertFalse(library.isLoaded(pathB));
+        assertTrue(library.getUsedBytes() <= library.getMemoryBudget());
+        assertSame(deckA, library.load(pathA));
+    }
+
+    @Test
+    void testEstimatesChangedDeckAgain() throws IOException {
+        DeckLibrary probe = new DeckLibrary(directory.toString(), 1 << 20, null);
+        long bytesA = DeckLibrary.estimateBytes(probe.load(pathA));
+        long bytesB = DeckLibrary.estimateBytes(probe.load(pathB));
+        DeckLibrary library = new DeckLibrary(directory.toString(), bytesA + bytesB, null);
+        library.load(pathA);
+        Deck deckB = library.load(pathB);
+        for (int i = 0; i < 10; i++) {
+            deckB.addCard(new Flashcard("Extra front " + i, "Extra back " + i));
+        }
+        assertSame(deckB, library.load(pathB));
+        assertFalse(library.isLoaded(pathA));
+        assertEquals(DeckLibrary.estimateBytes(deckB), library.getUsedBytes());
+    }
+
+    @Test
+    void testKeepsDeckLargerThanBudget() throws IOException {
+        DeckLibrary library = new DeckLibrary(directory.toString(), 0, null);
+        Deck deckA = library.load(pathA);
+        assertTrue(library.isLoaded(pathA));
+        library.load(pathB);
+        assertFalse(library.isLoaded(pathA));
+        assertTrue(library.isLoaded(pathB));
+        assertNotSame(deckA, library.load(pathA));
+    }
+
+    @Test
+    void testSaved() throws IOException {
+        DeckLibrary library = new DeckLibrary(directory.toString(), 1 << 20, null);
+        library.scan();
+        Deck deck = library.load(pathC);
+        deck.addCard(new Flashcard("New front", "New back"));
+        JsonWriter writer = new JsonWriter(pathC);
+        writer.open();
+        writer.write(deck);
+        writer.close();
+        library.saved(pathC, deck);
+        assertEquals(1, library.getHeader(pathC).getCardCount());
+        assertEquals(DeckLibrary.estimateBytes(deck), library.getUsedBytes());
+        assertSame(deck, library.load(pathC));
+    }
+
+    @Test
+    void testLoadAll() throws IOException, InterruptedException {
+        DeckLibrary library = new DeckLibrary(directory.toString(), 1 << 20, null);
+        Deck deckA = library.load(pathA);
+        String notes = directory.resolve("notes.json").toString();
+        DeckLoadReport report = library.loadAll(List.of(pathA, pathB, pathC, notes), new DeckLoader(2, null), null);
+        assertEquals(List.of(pathB, pathC), List.copyOf(report.getDecks().keySet()));
+        assertEquals(List.of(notes), List.copyOf(report.getFailures().keySet()));
+        assertEquals(3, library.getLoadedCount());
+        assertSame(deckA, library.load(pathA));
+        assertSame(report.getDecks().get(pathB), library.load(pathB));
+    }
+
+    private String writeDeck(String fileName, String name, int cards) throws IOException {
+        Deck deck = new Deck(name);
+        for (int i = 0; i < cards; i++) {
+            deck.addCard(new Flashcard(name + " front " + i, name + " back " + i));
+        }
+        String path = directory.resolve(fileName).toString();
+        JsonWriter writer = new JsonWriter(path);
+        writer.open();
+        writer.write(deck);
+        writer.close();
+        return path;
+    }
+}
@@ -0,0 +1,120 @@
+package persistence;
+
+import model.Deck;
+import model.Flashcard;
+import model.TextPool;
+import org.json.JSONException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeckLoaderTest {
+    Path directory;
+    List<String> sources;
+    List<String> events;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("deckLoaderTest");
+        sources = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Deck deck = new Deck("Deck " + i);
+            for (int j = 0; j < 20; j++) {
+                deck.addCard(new Flashcard("Front " + j, "Back " + i));
+            }
+            String extension = i % 2 == 0 ? ".json" : BinaryDeckCodec.EXTENSION;
+            String source = directory.resolve("deck" + i + extension).toString();
+            DeckCodec.forFile(source, null).write(deck, source);
+            sources.add(source);
+        }
+        events = new ArrayList<>();
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testLoadAll() throws InterruptedException {
+        TextPool pool = new TextPool();
+        DeckLoader loader = new DeckLoader(3, pool);
+        assertEquals(3, loader.getParallelism());
+        DeckLoadReport report = loader.loadAll(sources, null);
+        assertFalse(report.hasFailures());
+        assertEquals(sources, List.copyOf(report.getDecks().keySet()));
+        for (int i = 0; i < 8; i++) {
+            Deck deck = report.getDecks().get(sources.get(i));
+            assertEquals("Deck " + i, deck.getName());
+            assertEquals(20, deck.getDeckSize());
+        }
+        assertSame(report.getDecks().get(sources.get(0)).getCardView().get(5).getFront(),
+                report.getDecks().get(sources.get(7)).getCardView().get(5).getFront());
+    }
+
+    @Test
+    void testFailuresDoNotStopLoading() throws IOException, InterruptedException {
+        String missing = directory.resolve("missing.json").toString();
+        String broken = directory.resolve("broken.json").toString();
+        Files.writeString(Path.of(broken), "{\"name\": \"Broken\", \"flashcards\": [");
+        List<String> files = new ArrayList<>(sources);
+        files.add(1, missing);
+        files.add(broken);
+        DeckLoadReport report = new DeckLoader(4, null).loadAll(files, recorder());
+        assertTrue(report.hasFailures());
+        assertEquals(8, report.getDecks().size());
+        assertEquals(List.of(missing, broken), List.copyOf(report.getFailures().keySet()));
+        assertTrue(report.getFailures().get(missing) instanceof NoSuchFileException);
+        assertTrue(report.getFailures().get(broken) instanceof JSONException);
+        assertEquals(10, events.size());
+        Set<String> reported = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            assertTrue(events.get(i).endsWith(" " + (i + 1) + "/10"));
+            reported.add(events.get(i).split(" ")[1]);
+        }
+        assertEquals(new HashSet<>(files), reported);
+        assertTrue(events.stream().anyMatch(event -> event.startsWith("failed " + missing + " ")));
+    }
+
+    @Test
+    void testDuplicatesAndEmpty() throws InterruptedException {
+        DeckLoader loader = new DeckLoader(null);
+        assertEquals(DeckLoader.DEFAULT_PARALLELISM, loader.getParallelism());
+        DeckLoadReport report = loader.loadAll(List.of(sources.get(0), sources.get(0)), recorder());
+        assertEquals(1, report.getDecks().size());
+        assertEquals(List.of("loaded " + sources.get(0) + " 1/1"), events);
+        assertTrue(loader.loadAll(List.of(), null).getDecks().isEmpty());
+    }
+
+    // Effects: returns a listener that records each event it is told about in events
+    private DeckLoadListener recorder() {
+        return new DeckLoadListener() {
+            @Override
+            public void deckLoaded(String source, Deck deck, int completed, int total) {
+                events.add("loaded " + source + " " + completed + "/" + total);
+            }
+
+            @Override
+            public void deckFailed(String source, Exception error, int completed, int total) {
+                events.add("failed " + source + " " + completed + "/" + total);
+            }
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package persistence;
+
+import model.Deck;
+import model.DeckDiff;
+import model.Flashcard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeckWatcherTest {
+    static final long TIMEOUT_SECONDS = 15;
+    Path directory;
+    String source;
+    DeckJournal journal;
+    Deck deck;
+    BlockingQueue<DeckDiff> changes;
+    DeckWatcher watcher;
+
+    @BeforeEach
+    void runBefore() throws IOException, InterruptedException {
+        directory = Files.createTempDirectory("deckWatcherTest");
+        source = directory.resolve("deck.json").toString();
+        journal = new DeckJournal(source);
+        deck = new Deck("My deck");
+        deck.addCard(new Flashcard("Hello", "Goodbye"));
+        deck.addCard(new Flashcard("Moon", "Sun"));
+        journal.save(deck);
+        changes = new LinkedBlockingQueue<>();
+        watcher = new DeckWatcher(source, journal, null, Runnable::run, (file, diff) -> changes.add(diff));
+        watcher.start();
+        Thread.sleep(DeckWatcher.SETTLE_MILLIS);
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        watcher.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testChangeByOtherProgram() throws IOException, InterruptedException {
+        Deck other = new JsonReader(source).read();
+        other.removeCard(other.getCardView().get(0));
+        other.addCard(new Flashcard("Star", "Sky"));
+        new JsonDeckCodec(null).write(other, source);
+        DeckDiff diff = changes.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(diff);
+        assertEquals(1, diff.getAddedCount());
+        assertEquals(1, diff.getRemovedCount());
+        Flashcard moon = deck.getCardView().get(1);
+        assertEquals(2, diff.applyTo(deck));
+        assertSame(moon, deck.getCardView().get(0));
+        assertEquals("Star", deck.getCardView().get(1).getFront());
+    }
+
+    @Test
+    void testOwnWritesNotPassedOn() throws IOException, InterruptedException {
+        deck.addCard(new Flashcard("Star", "Sky"));
+        journal.save(deck);
+        assertNull(changes.poll(2 * DeckWatcher.SETTLE_MILLIS + 500, TimeUnit.MILLISECONDS));
+        Deck other = new JsonReader(source).read();
+        other.addCard(new Flashcard("Comet", "Tail"));
+        new JsonDeckCodec(null).write(other, source);
+        DeckDiff diff = changes.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(diff);
+        assertEquals(1, diff.getAddedCount());
+        assertEquals(0, diff.getRemovedCount());
+        assertEquals(1, diff.applyTo(deck));
+        assertEquals(4, deck.getDeckSize());
+        assertEquals("Comet", deck.getCardView().get(3).getFront());
+    }
+
+    @Test
+    void testLocalRemovalKept() throws IOException, InterruptedException {
+        Flashcard star = new Flashcard("Star", "Sky");
+        deck.addCard(star);
+        journal.save(deck);
+        assertNull(changes.poll(2 * DeckWatcher.SETTLE_MILLIS + 500, TimeUnit.MILLISECONDS));
+        deck.removeCard(star);
+        Deck other = new JsonReader(source).read();
+        other.addCard(new Flashcard("Comet", "Tail"));
+        new JsonDeckCodec(null).write(other, source);
+        DeckDiff diff = changes.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertNotNull(diff);
+        assertEquals(1, diff.applyTo(deck));
+        assertEquals(3, deck.getDeckSize());
+        assertNull(deck.getCard(star.getId()));
+        assertEquals("Comet", deck.getCardView().get(2).getFront());
+    }
+
+    @Test
+    void testClose() throws IOException, InterruptedException {
+        watcher.close();
+        assertTrue(watcher.isClosed());
+        Deck other = new JsonReader(source).read();
+        other.addCard(new Flashcard("Star", "Sky"));
+        new JsonDeckCodec(null).write(other, source);
+        assertNull(changes.poll(2 * DeckWatcher.SETTLE_MILLIS + 500, TimeUnit.MILLISECONDS));
+        assertEquals(source, watcher.getSource());
+    }
+}
@@ -0,0 +1,183 @@
+package persistence;
+
+import model.Deck;
+import model.Flashcard;
+import model.TextPool;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DelimitedImporterTest extends JsonTest {
+    Deck deck;
+    DelimitedImporter csv;
+
+    @BeforeEach
+    void runBefore() {
+        deck = new Deck("Imported");
+        csv = new DelimitedImporter(',', 0, 1, false, 2, null);
+    }
+
+    @Test
+    void testImportSimpleRows() throws IOException, InterruptedException {
+        ImportReport report = csv.importFrom(deck, new StringReader("Hello,Goodbye\nMoon,Sun\n"));
+        assertEquals(2, report.getRows());
+        assertEquals(2, report.getAdded());
+        assertFalse(report.hasErrors());
+        List<Flashcard> cards = deck.getCardView();
+        checkCard("Hello", "Goodbye", cards.get(0));
+        checkCard("Moon", "Sun", cards.get(1));
+    }
+
+    @Test
+    void testImportQuotedFields() throws IOException, InterruptedException {
+        String text = "\"Hello, world\",\"She said \"\"hi\"\"\"\n\"Two\nlines\",back\n\"\",empty quotes";
+        ImportReport report = csv.importFrom(deck, new StringReader(text));
+        assertEquals(3, report.getRows());
+        assertEquals(2, report.getAdded());
+        checkCard("Hello, world", "She said \"hi\"", deck.getCardView().get(0));
+        checkCard("Two\nlines", "back", deck.getCardView().get(1));
+        assertEquals(1, report.getErrorCount());
+        assertEquals(4, report.getErrors().get(0).getLine());
+    }
+
+    @Test
+    void testImportHeaderColumnsAndTabs() throws IOException, InterruptedException {
+        DelimitedImporter tsv = new DelimitedImporter('\t', 2, 0, true);
+        String text = "answer\tnotes\tquestion\r\nGoodbye\tfirst\tHello\n\nSun,Moon\tsecond\tMoon\n";
+        ImportReport report = tsv.importFrom(deck, new StringReader(text));
+        assertEquals(2, report.getRows());
+        checkCard("Hello", "Goodbye", deck.getCardView().get(0));
+        checkCard("Moon", "Sun,Moon", deck.getCardView().get(1));
+    }
+
+    @Test
+    void testImportReportsBadRows() throws IOException, InterruptedException {
+        String text = "Hello,Goodbye\nonly one column\n  ,blank front\nMoon,Sun\n\"never closed,back\nStar,Sky\n";
+        ImportReport report = csv.importFrom(deck, new StringReader(text));
+        assertEquals(3, report.getAdded());
+        assertEquals(3, report.getErrorCount());
+        List<ImportError> errors = report.getErrors();
+        assertEquals(2, errors.get(0).getLine());
+        assertEquals("expected at least 2 columns but found 1", errors.get(0).getMessage());
+        assertEquals(3, errors.get(1).getLine());
+        assertEquals(5, errors.get(2).getLine());
+        assertEquals("Line 5: quoted field is not closed", errors.get(2).toString());
+        assertEquals("Star", deck.getCardView().get(2).getFront());
+    }
+
+    @Test
+    void testStrayQuoteIsLimitedToItsRow() throws IOException, InterruptedException {
+        int rows = 2 * DelimitedImporter.CHUNK_LINES;
+        StringBuilder text = new StringBuilder("Hello,Goodbye\n\"stray,quote\n");
+        for (int i = 0; i < rows; i++) {
+            text.append("Front ").append(i).append(",Back ").append(i).append('\n');
+        }
+        ImportReport report = csv.importFrom(deck, new StringReader(text.toString()));
+        assertEquals(rows + 1, report.getAdded());
+        assertEquals(1, report.getErrorCount());
+        assertEquals("Line 2: quoted field is not closed", report.getErrors().get(0).toString());
+        checkCard("Front 0", "Back 0", deck.getCardView().get(1));
+        checkCard("Front " + (rows - 1), "Back " + (rows - 1), deck.getCardView().get(rows));
+    }
+
+    @Test
+    void testImportToSink() throws IOException, InterruptedException {
+        List<Flashcard> received = new ArrayList<>();
+        ImportReport report = csv.importFrom(new StringReader("Hello,Goodbye\nMoon,Sun\n"), cards -> {
+            received.addAll(cards);
+            return 1;
+        });
+        assertEquals(2, received.size());
+        assertEquals(2, report.getRows());
+        assertEquals(1, report.getAdded());
+        assertEquals(0, deck.getDeckSize());
+    }
+
+    @Test
+    void testImportDuplicates() throws IOException, InterruptedException {
+        deck.addCard(new Flashcard("Hello", "Goodbye"));
+        ImportReport report = csv.importFrom(deck, new StringReader("Hello,Goodbye\nMoon,Sun\nMoon,Sun\n"));
+        assertEquals(3, report.getRows());
+        assertEquals(1, report.getAdded());
+        assertEquals(2, report.getDuplicates());
+        assertEquals(2, deck.getDeckSize());
+    }
+
+    @Test
+    void testImportManyChunksInOrder() throws IOException, InterruptedException {
+        int rows = 3 * DelimitedImporter.CHUNK_LINES + 17;
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            if (i == DelimitedImporter.CHUNK_LINES - 1) {
+                text.append("\"Front ").append(i).append("\nsecond line\",Back ").append(i).append('\n');
+            } else if (i == 2 * DelimitedImporter.CHUNK_LINES + 5) {
+                text.append("bad row\n");
+            } else {
+                text.append("Front ").append(i).append(",Back ").append(i).append('\n');
+            }
+        }
+        TextPool pool = new TextPool();
+        ImportReport report = new DelimitedImporter(',', 0, 1, false, 3, pool)
+                .importFrom(deck, new StringReader(text.toString()));
+        assertEquals(rows, report.getRows());
+        assertEquals(rows - 1, report.getAdded());
+        assertEquals(2 * DelimitedImporter.CHUNK_LINES + 7, report.getErrors().get(0).getLine());
+        List<Flashcard> cards = deck.getCardView();
+        checkCard("Front " + (DelimitedImporter.CHUNK_LINES - 1) + "\nsecond line",
+                "Back " + (DelimitedImporter.CHUNK_LINES - 1), cards.get(DelimitedImporter.CHUNK_LINES - 1));
+        checkCard("Front " + (rows - 1), "Back " + (rows - 1), cards.get(rows - 2));
+    }
+
+    @Test
+    void testErrorsKeptAreLimited() throws IOException, InterruptedException {
+        String text = "bad\n".repeat(ImportReport.MAX_ERRORS + 5);
+        ImportReport report = csv.importFrom(deck, new StringReader(text));
+        assertEquals(ImportReport.MAX_ERRORS + 5, report.getErrorCount());
+        assertEquals(ImportReport.MAX_ERRORS, report.getErrors().size());
+        assertEquals(0, deck.getDeckSize());
+    }
+
+    @Test
+    void testImportFile() throws IOException, InterruptedException {
+        Path file = Files.createTempFile("delimitedImporterTest", ".tsv");
+        try {
+            Files.write(file, "front\tback\n\u00e9t\u00e9\tsummer\n".getBytes(StandardCharsets.UTF_8));
+            String source = file.toString();
+            DelimitedImporter tsv = new DelimitedImporter(DelimitedImporter.delimiterFor(source), 0, 1, true);
+            ImportReport report = tsv.importFile(deck, source);
+            assertEquals(1, report.getAdded());
+            checkCard("\u00e9t\u00e9", "summer", deck.getCardView().get(0));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testImportMissingFile() throws InterruptedException {
+        try {
+            csv.importFile(deck, "./data/noSuchFile.csv");
+            fail("IOException expected");
+        } catch (NoSuchFileException e) {
+            // pass
+        } catch (IOException e) {
+            fail("NoSuchFileException expected");
+        }
+    }
+
+    @Test
+    void testDelimiterFor() {
+        assertEquals('\t', DelimitedImporter.delimiterFor("cards.TSV"));
+        assertEquals('\t', DelimitedImporter.delimiterFor("cards.tab"));
+        assertEquals(',', DelimitedImporter.delimiterFor("cards.csv"));
+    }
+}
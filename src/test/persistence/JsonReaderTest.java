@@ -2,12 +2,18 @@ package persistence;
 
 import model.Deck;
 import model.Flashcard;
+import model.TextPool;
+import org.json.JSONException;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 // JsonReaderTest was heavily inspired by the JsonReaderTest class in the JsonSerializationDemo
@@ -52,4 +58,109 @@ public class JsonReaderTest extends JsonTest {
             fail("Couldn't read from file");
         }
     }
+
+    @Test
+    void testReaderDeckWithIds() {
+        JsonReader reader = new JsonReader("./data/testReaderIdDeck.json");
+        try {
+            Deck deck = reader.read();
+            List<Flashcard> cards = deck.getFlashcards(false);
+            assertEquals(2, cards.size());
+            assertEquals("9000000001", cards.get(0).getId());
+            assertEquals("9000000005", cards.get(1).getId());
+            checkCard("Front card 2", "Back card 2", deck.getCard("9000000005"));
+            assertTrue(new Flashcard("Front", "Back").getIdNumber() > 9000000005L);
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderWithTextPool() {
+        TextPool pool = new TextPool();
+        try {
+            Deck first = new JsonReader("./data/testReaderGeneralDeck.json", pool).read();
+            Deck second = new JsonReader("./data/testReaderGeneralDeck.json", pool).read();
+            assertSame(first.getFlashcards(false).get(1).getBack(), second.getFlashcards(false).get(1).getBack());
+            assertEquals(4, pool.getHits());
+            assertTrue(pool.getCumulativeBytesSaved() > 0);
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReadHeaderCountsCards() {
+        try {
+            DeckHeader header = new JsonReader("./data/testReaderHeaderDeck.json").readHeader();
+            assertEquals("Header deck", header.getName());
+            assertEquals(3, header.getCardCount());
+            assertEquals(0, header.getLearnedCount());
+            assertEquals(1234, header.getNextDue());
+            assertEquals("./data/testReaderHeaderDeck.json", header.getSource());
+            assertTrue(header.isDue(1234));
+            assertEquals("Header deck (3 cards, 0 learned)", header.toString());
+            header = new JsonReader("./data/testReaderEmptyDeck.json").readHeader();
+            assertEquals(0, header.getCardCount());
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReadHeaderStopsAfterHeader() {
+        JsonReader reader = new JsonReader("./data/testReaderHeaderFirstDeck.json");
+        try {
+            DeckHeader header = reader.readHeader();
+            assertEquals("Header first deck", header.getName());
+            assertEquals(5, header.getCardCount());
+            assertEquals(2, header.getLearnedCount());
+            assertEquals(99, header.getNextDue());
+            assertTrue(header.getLastModified() > 0);
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+        assertThrows(JSONException.class, reader::read);
+    }
+
+    @Test
+    void testReaderNameAfterCards() {
+        try {
+            Deck deck = new JsonReader("./data/testReaderNameLastDeck.json").read();
+            assertEquals("Name last deck", deck.getName());
+            List<Flashcard> cards = deck.getFlashcards(false);
+            assertEquals(2, cards.size());
+            checkCard("Front card 1", "Back card 1", cards.get(0));
+            assertEquals("9000000012", cards.get(1).getId());
+            assertEquals(1, deck.getScheduler().getSchedule(9000000011L).getRepetitions());
+            assertEquals(0, deck.getScheduler().getSchedule(9000000012L).getDue());
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReadCards() {
+        List<Flashcard> cards = new ArrayList<>();
+        try {
+            new JsonReader("./data/testReaderGeneralDeck.json").readCards(cards::add);
+            assertEquals(2, cards.size());
+            checkCard("Front card 1", "Back card 1", cards.get(0));
+            checkCard("Front card 2", "Back card 2", cards.get(1));
+            cards.clear();
+            new JsonReader("./data/testReaderEmptyDeck.json").readCards(cards::add);
+            assertTrue(cards.isEmpty());
+        } catch (IOException e) {
+            fail("Couldn't read from file");
+        }
+    }
+
+    @Test
+    void testReaderNotADeck() {
+        assertThrows(JSONException.class, () -> new JsonReader("./data/testReaderHeaderFirstDeck.json").read());
+        List<Flashcard> cards = new ArrayList<>();
+        assertThrows(JSONException.class,
+                () -> new JsonReader("./data/testReaderHeaderFirstDeck.json").readCards(cards::add));
+        assertTrue(cards.isEmpty());
+    }
 }
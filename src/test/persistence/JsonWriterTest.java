@@ -1,13 +1,18 @@
 package persistence;
 
+import model.CardSchedule;
 import model.Deck;
 import model.Flashcard;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 // JsonWriterTest was heavily inspired by the JsonWriterTest class in the JsonSerializationDemo
@@ -25,6 +30,22 @@ public class JsonWriterTest extends JsonTest{
         }
     }
 
+    @Test
+    void testCodecReportsWriteError() {
+        Path full = Path.of("/dev/full");
+        if (!Files.isWritable(full)) {
+            return;
+        }
+        Deck deck = new Deck("My deck");
+        deck.addCard(new Flashcard("Hello", "Goodbye"));
+        try {
+            new JsonDeckCodec().write(deck, full.toString());
+            fail("IOException was expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
     @Test
     void testWriterEmptyDeck() {
         try {
@@ -33,6 +54,7 @@ public class JsonWriterTest extends JsonTest{
             writer.open();
             writer.write(deck);
             writer.close();
+            assertFalse(writer.hasError());
 
             JsonReader reader = new JsonReader("./data/testWriterEmptyDeck.json");
             deck = reader.read();
@@ -47,8 +69,10 @@ public class JsonWriterTest extends JsonTest{
     void testWriterGeneralDeck() {
         try {
             Deck deck = new Deck("My deck");
-            deck.addCard(new Flashcard("Hello", "Goodbye"));
-            deck.addCard(new Flashcard("Moon", "Sun"));
+            Flashcard hello = new Flashcard("Hello", "Goodbye");
+            Flashcard moon = new Flashcard("Moon", "Sun");
+            deck.addCard(hello);
+            deck.addCard(moon);
             JsonWriter writer = new JsonWriter("./data/testWriterGeneralDeck.json");
             writer.open();
             writer.write(deck);
@@ -61,7 +85,86 @@ public class JsonWriterTest extends JsonTest{
             assertEquals(2, cards.size());
             checkCard("Hello", "Goodbye", cards.get(0));
             checkCard("Moon", "Sun", cards.get(1));
+            assertEquals(hello.getId(), cards.get(0).getId());
+            assertEquals(moon.getId(), cards.get(1).getId());
+
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterDeckWithSchedule() {
+        try {
+            Deck deck = new Deck("My deck");
+            Flashcard hello = new Flashcard("Hello", "Goodbye");
+            Flashcard moon = new Flashcard("Moon", "Sun");
+            deck.addCard(hello);
+            deck.addCard(moon);
+            deck.getScheduler().review(hello.getIdNumber(), true, 1000);
+            JsonWriter writer = new JsonWriter("./data/testWriterGeneralDeck.json");
+            writer.open();
+            writer.write(deck);
+            writer.close();
+
+            JsonReader reader = new JsonReader("./data/testWriterGeneralDeck.json");
+            deck = reader.read();
+            CardSchedule schedule = deck.getScheduler().getSchedule(hello.getIdNumber());
+            assertEquals(1, schedule.getRepetitions());
+            assertEquals(1, schedule.getIntervalDays());
+            assertEquals(1000 + CardSchedule.DAY_MILLIS, schedule.getDue());
+            assertEquals(0, deck.getScheduler().getSchedule(moon.getIdNumber()).getDue());
+
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterCompact() {
+        try {
+            Deck deck = new Deck("My \"quoted\" deck");
+            deck.addCard(new Flashcard("Hello\nthere", "Goodbye"));
+            deck.addCard(new Flashcard("Moon", "Sun"));
+            JsonWriter writer = new JsonWriter("./data/testWriterGeneralDeck.json", true);
+            assertTrue(writer.isCompact());
+            writer.open();
+            writer.write(deck);
+            writer.close();
+
+            String text = Files.readString(Path.of("./data/testWriterGeneralDeck.json"));
+            assertFalse(text.contains("\n"));
+            assertTrue(text.startsWith("{\"name\":\"My \\\"quoted\\\" deck\",\"cardCount\":2,"));
+            deck = new JsonReader("./data/testWriterGeneralDeck.json").read();
+            assertEquals("My \"quoted\" deck", deck.getName());
+            List<Flashcard> cards = deck.getFlashcards(false);
+            checkCard("Hello\nthere", "Goodbye", cards.get(0));
+            checkCard("Moon", "Sun", cards.get(1));
+        } catch (IOException e) {
+            fail("Exception should not have been thrown");
+        }
+    }
+
+    @Test
+    void testWriterHeaderFirst() {
+        try {
+            Deck deck = new Deck("My deck");
+            deck.addCard(new Flashcard("Hello", "Goodbye"));
+            JsonWriter writer = new JsonWriter("./data/testWriterGeneralDeck.json");
+            assertFalse(writer.isCompact());
+            writer.open();
+            writer.write(deck);
+            writer.close();
 
+            List<String> lines = Files.readAllLines(Path.of("./data/testWriterGeneralDeck.json"));
+            assertEquals("{", lines.get(0));
+            assertEquals("    \"name\": \"My deck\",", lines.get(1));
+            assertEquals("    \"cardCount\": 1,", lines.get(2));
+            assertEquals("    \"flashcards\": [", lines.get(5));
+            assertEquals("        {", lines.get(6));
+            assertEquals("        }", lines.get(10));
+            assertEquals("    ]", lines.get(11));
+            assertEquals("}", lines.get(12));
         } catch (IOException e) {
             fail("Exception should not have been thrown");
         }
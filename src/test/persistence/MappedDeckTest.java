@@ -0,0 +1,148 @@
+package persistence;
+
+import model.Deck;
+import model.Flashcard;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MappedDeckTest extends JsonTest {
+    Path directory;
+    String source;
+    Deck deck;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("mappedDeckTest");
+        source = directory.resolve("deck" + BinaryDeckCodec.EXTENSION).toString();
+        deck = new Deck("Big deck");
+        for (int i = 0; i < 1000; i++) {
+            deck.addCard(new Flashcard("Question " + i, i % 2 == 0 ? "Even" : "Odd \u2603"));
+        }
+        deck.getScheduler().review(deck.getCardView().get(0).getIdNumber(), true, 1000);
+        new BinaryDeckCodec().write(deck, source);
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testOpenReadsHeaderOnly() throws IOException {
+        MappedDeck mapped = new MappedDeck(source);
+        assertEquals(source, mapped.getSource());
+        assertEquals("Big deck", mapped.getName());
+        assertEquals(1000, mapped.size());
+        assertEquals(1, mapped.getLearnedCount());
+        assertEquals(deck.getNextDue(), mapped.getNextDue());
+        assertEquals(0, mapped.getReadCount());
+    }
+
+    @Test
+    void testGetCard() throws IOException {
+        MappedDeck mapped = new MappedDeck(source);
+        Flashcard card = mapped.getCard(501);
+        checkCard("Question 501", "Odd \u2603", card);
+        assertEquals(deck.getCardView().get(501).getIdNumber(), card.getIdNumber());
+        assertSame(card, mapped.getCard(501));
+        checkCard("Question 0", "Even", mapped.getCard(0));
+        checkCard("Question 999", "Odd \u2603", mapped.getCard(999));
+        assertEquals(3, mapped.getReadCount());
+    }
+
+    @Test
+    void testSelect() throws IOException {
+        MappedDeck mapped = new MappedDeck(source);
+        Deck selected = mapped.select(IntStream.of(7, 3, 5).iterator(), 2);
+        assertEquals("Big deck", selected.getName());
+        assertEquals(2, selected.getDeckSize());
+        checkCard("Question 7", "Odd \u2603", selected.getCardView().get(0));
+        checkCard("Question 3", "Odd \u2603", selected.getCardView().get(1));
+        assertEquals(2, mapped.getReadCount());
+        Flashcard copy = selected.getCardView().get(0);
+        assertNotSame(mapped.getCard(7), copy);
+        assertEquals(mapped.getCard(7).getIdNumber(), copy.getIdNumber());
+        copy.flipCard();
+        assertFalse(mapped.getCard(7).isFlipped());
+    }
+
+    @Test
+    void testSample() throws IOException {
+        MappedDeck mapped = new MappedDeck(source);
+        Deck sample = mapped.sample(50, 42);
+        assertEquals(50, sample.getDeckSize());
+        assertEquals(50, mapped.getReadCount());
+        Set<String> fronts = new HashSet<>();
+        for (Flashcard card : sample.getCardView()) {
+            fronts.add(card.getFront());
+        }
+        assertEquals(50, fronts.size());
+        assertEquals(sample.getCardView().get(0).getFront(),
+                new MappedDeck(source).sample(50, 42).getCardView().get(0).getFront());
+        assertEquals(1000, mapped.sample(5000, 1).getDeckSize());
+    }
+
+    @Test
+    void testEmptyDeck() throws IOException {
+        new BinaryDeckCodec().write(new Deck("Empty"), source);
+        MappedDeck mapped = new MappedDeck(source);
+        assertEquals(0, mapped.size());
+        assertEquals(0, mapped.sample(10, 1).getDeckSize());
+    }
+
+    @Test
+    void testNoOffsetTable() throws IOException {
+        byte[] bytes = Files.readAllBytes(Path.of(source));
+        Files.write(Path.of(source), Arrays.copyOf(bytes, bytes.length - 1));
+        try {
+            new MappedDeck(source);
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+
+    @Test
+    void testRefusesDeckWithJournal() throws IOException {
+        DeckJournal journal = new DeckJournal(source);
+        journal.save(deck);
+        new MappedDeck(source);
+        deck.addCard(new Flashcard("Question 1000", "Even"));
+        journal.save(deck);
+        try {
+            new MappedDeck(source);
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+        journal.compact(deck);
+        assertEquals(1001, new MappedDeck(source).size());
+    }
+
+    @Test
+    void testNotBinaryDeck() {
+        try {
+            new MappedDeck("./data/testReaderGeneralDeck.json");
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package persistence;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReviewLogTest {
+    static final long DAY = 24L * 60 * 60 * 1000;
+    Path directory;
+    String source;
+    Path logFile;
+    ReviewLog log;
+
+    @BeforeEach
+    void runBefore() throws IOException {
+        directory = Files.createTempDirectory("reviewLogTest");
+        source = directory.resolve("deck.json").toString();
+        logFile = Path.of(ReviewLog.logPath(source));
+        log = new ReviewLog(source);
+    }
+
+    @AfterEach
+    void runAfter() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void testEmptyLog() throws IOException {
+        assertEquals(0, log.size());
+        assertEquals(0, log.getTotals().getReviews());
+        assertEquals(0, log.getTotals().getPercentCorrect());
+        assertEquals(0, log.getTotals().getAverageResponseMillis());
+        assertEquals(Long.MIN_VALUE, log.getTotals().getLastReviewed());
+        assertTrue(log.getStatsByCard().isEmpty());
+        log.flush();
+        assertFalse(Files.exists(logFile));
+    }
+
+    @Test
+    void testRecordAndFlush() throws IOException {
+        log.record(1, 1000, true, 1500);
+        log.record(2, 2000, false, 3000);
+        assertEquals(2, log.getPendingCount());
+        assertEquals(0, log.size());
+        log.flush();
+        assertEquals(0, log.getPendingCount());
+        assertEquals(2, log.size());
+        assertEquals(ReviewLog.HEADER_BYTES + 2 * ReviewLog.RECORD_BYTES, Files.size(logFile));
+        log.record(1, 3000, false, 500);
+        log.flush();
+        assertEquals(3, new ReviewLog(source).size());
+    }
+
+    @Test
+    void testManyRecords() throws IOException {
+        for (int i = 0; i < 1000; i++) {
+            log.record(i % 10, i, i % 4 != 0, i);
+        }
+        assertEquals(1000, log.getPendingCount());
+        log.flush();
+        ReviewStats totals = log.getTotals();
+        assertEquals(1000, totals.getReviews());
+        assertEquals(750, totals.getCorrect());
+        assertEquals(75, totals.getPercentCorrect(), 1e-9);
+        assertEquals(499.5, totals.getAverageResponseMillis(), 1e-9);
+        assertEquals(999, totals.getLastReviewed());
+    }
+
+    @Test
+    void testStatsByCard() throws IOException {
+        log.record(1, 1000, true, 1000);
+        log.record(1, 2000, false, 3000);
+        log.record(2, 1500, true, 400);
+        log.flush();
+        Map<Long, ReviewStats> stats = log.getStatsByCard();
+        assertEquals(2, stats.size());
+        assertEquals(2, stats.get(1L).getReviews());
+        assertEquals(50, stats.get(1L).getPercentCorrect(), 1e-9);
+        assertEquals(2000, stats.get(1L).getAverageResponseMillis(), 1e-9);
+        assertEquals(2000, stats.get(1L).getLastReviewed());
+        assertEquals(100, stats.get(2L).getPercentCorrect(), 1e-9);
+        assertEquals(1, log.getStats(2).getReviews());
+        assertEquals(0, log.getStats(3).getReviews());
+    }
+
+    @Test
+    void testReviewsPerDay() throws IOException {
+        long start = LocalDate.of(2024, 3, 1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        log.record(1, start + 10, true, 0);
+        log.record(2, start + DAY - 1, true, 0);
+        log.record(1, start + 2 * DAY, false, 0);
+        log.record(3, start + 5, true, 0);
+        log.flush();
+        SortedMap<LocalDate, Integer> perDay = log.getReviewsPerDay(ZoneOffset.UTC);
+        assertEquals(2, perDay.size());
+        assertEquals(3, perDay.get(LocalDate.of(2024, 3, 1)));
+        assertEquals(1, perDay.get(LocalDate.of(2024, 3, 3)));
+        SortedMap<LocalDate, Integer> shifted = log.getReviewsPerDay(ZoneOffset.ofHours(-1));
+        assertEquals(2, shifted.get(LocalDate.of(2024, 2, 29)));
+        assertEquals(1, shifted.get(LocalDate.of(2024, 3, 1)));
+    }
+
+    @Test
+    void testPartialRecordIsOverwritten() throws IOException {
+        log.record(1, 1000, true, 10);
+        log.flush();
+        Files.write(logFile, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+        assertEquals(1, log.size());
+        assertEquals(1, log.getTotals().getReviews());
+        log.record(2, 2000, false, 20);
+        log.flush();
+        assertEquals(ReviewLog.HEADER_BYTES + 2 * ReviewLog.RECORD_BYTES, Files.size(logFile));
+        assertEquals(1, log.getStats(2).getReviews());
+        assertEquals(20, log.getStats(2).getAverageResponseMillis(), 1e-9);
+    }
+
+    @Test
+    void testNotReviewLog() throws IOException {
+        Files.write(logFile, new byte[100]);
+        log.record(1, 1000, true, 10);
+        try {
+            log.flush();
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals(1, log.getPendingCount());
+        }
+        try {
+            log.getTotals();
+            fail("IOException expected");
+        } catch (IOException e) {
+            // pass
+        }
+    }
+}